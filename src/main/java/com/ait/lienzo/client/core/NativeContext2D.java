@@ -326,7 +326,12 @@ public class NativeContext2D extends JavaScriptObject implements INativeContext2
 		if ((grad) && ((typeof grad.image) === 'function')) {
 			var elem = grad.image();
 			if (elem) {
-				this.fillStyle = this.createPattern(elem, grad.repeat);
+				var patt = this.createPattern(elem, grad.repeat);
+				if ((patt) && ((typeof grad.transform) === 'function') && (patt.setTransform) && ($wnd.DOMMatrix)) {
+					var t = grad.transform();
+					patt.setTransform(new $wnd.DOMMatrix([ t[0], t[1], t[2], t[3], t[4], t[5] ]));
+				}
+				this.fillStyle = patt;
 			} else {
 				this.fillStyle = null;
 			}
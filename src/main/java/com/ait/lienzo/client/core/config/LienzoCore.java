@@ -34,6 +34,7 @@ import com.ait.lienzo.shared.core.types.LayerClearMode;
 import com.ait.lienzo.shared.core.types.LineCap;
 import com.ait.tooling.common.api.java.util.StringOps;
 import com.ait.tooling.common.api.types.IStringValued;
+import com.ait.tooling.nativetools.client.collection.NFastStringMap;
 import com.ait.tooling.nativetools.client.util.Client;
 import com.ait.tooling.nativetools.client.util.Console;
 import com.google.gwt.canvas.client.Canvas;
@@ -95,6 +96,8 @@ public final class LienzoCore
 
     private final ArrayList<ILienzoPlugin> m_plugins                        = new ArrayList<ILienzoPlugin>();
 
+    private final NFastStringMap<ILienzoPlugin> m_types                     = new NFastStringMap<ILienzoPlugin>();
+
     private LienzoCore()
     {
         RootPanel.get().getElement().getStyle().setProperty("webkitTapHighlightColor", "rgba(0,0,0,0)");
@@ -130,6 +133,16 @@ public final class LienzoCore
         }
         m_plugins.add(plugin);
 
+        // the first plugin with a type keeps it, like the search in getFactory()
+
+        for (String type : plugin.keys())
+        {
+            if (null == m_types.get(type))
+            {
+                m_types.put(type, plugin);
+            }
+        }
+
         return true;
     }
 
@@ -162,6 +175,17 @@ public final class LienzoCore
     {
         if (null != (name = StringOps.toTrimOrNull(name)))
         {
+            final ILienzoPlugin plugin = m_types.get(name);
+
+            if (null != plugin)
+            {
+                final IFactory<?> factory = plugin.getFactory(name);
+
+                if (null != factory)
+                {
+                    return factory;
+                }
+            }
             for (ILienzoPlugin p : m_plugins)
             {
                 final IFactory<?> factory = p.getFactory(name);
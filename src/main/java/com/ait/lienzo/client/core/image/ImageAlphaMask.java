@@ -0,0 +1,193 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.image;
+
+import com.ait.lienzo.client.core.Context2D;
+import com.ait.lienzo.client.core.Path2D;
+import com.ait.lienzo.client.core.types.ImageData;
+import com.google.gwt.canvas.dom.client.CanvasPixelArray;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayInteger;
+
+/**
+ * ImageAlphaMask holds one bit per pixel of an image, set where the pixel is not fully transparent.
+ * <p>
+ * {@link ImageProxy} uses it for {@link com.ait.lienzo.shared.core.types.ImageSelectionMode#SELECT_NON_TRANSPARENT},
+ * both to hit test a point directly and to fill the color key into the selection layer, instead of keeping a filtered copy of the image.
+ * The fill covers the set pixels with rectangles, merging runs of pixels across rows, built once and kept as a {@link Path2D} where supported.
+ */
+public final class ImageAlphaMask
+{
+    private final int               m_wide;
+
+    private final int               m_high;
+
+    private final JavaScriptObject  m_bits;
+
+    private JsArrayInteger          m_rect = null;
+
+    private Path2D                  m_path = null;
+
+    /**
+     * Builds the mask of the pixels in the image data.
+     *
+     * @param data
+     */
+    public ImageAlphaMask(final ImageData data)
+    {
+        m_wide = data.getWidth();
+
+        m_high = data.getHeight();
+
+        m_bits = make(data.getData(), m_wide * m_high);
+    }
+
+    public final int getWidth()
+    {
+        return m_wide;
+    }
+
+    public final int getHeight()
+    {
+        return m_high;
+    }
+
+    /**
+     * Returns whether the pixel at x, y is not fully transparent. Points outside the image are transparent.
+     *
+     * @param x
+     * @param y
+     * @return boolean
+     */
+    public final boolean isSet(final int x, final int y)
+    {
+        if ((x < 0) || (y < 0) || (x >= m_wide) || (y >= m_high))
+        {
+            return false;
+        }
+        return isSet(m_bits, (y * m_wide) + x);
+    }
+
+    /**
+     * Fills the set pixels with the current fill style of the context.
+     *
+     * @param context
+     */
+    public final void fill(final Context2D context)
+    {
+        if (null == m_rect)
+        {
+            m_rect = rects(m_bits, m_wide, m_high);
+        }
+        final int size = m_rect.length();
+
+        if (Path2D.isSupported())
+        {
+            if (null == m_path)
+            {
+                m_path = new Path2D();
+
+                for (int i = 0; i < size; i += 4)
+                {
+                    m_path.rect(m_rect.get(i), m_rect.get(i + 1), m_rect.get(i + 2), m_rect.get(i + 3));
+                }
+            }
+            context.fill(m_path);
+        }
+        else
+        {
+            context.beginPath();
+
+            for (int i = 0; i < size; i += 4)
+            {
+                context.rect(m_rect.get(i), m_rect.get(i + 1), m_rect.get(i + 2), m_rect.get(i + 3));
+            }
+            context.fill();
+        }
+    }
+
+    /**
+     * Returns the bytes held by the mask bits.
+     */
+    public final long getBytes()
+    {
+        return 4L * ((((long) m_wide * m_high) + 31L) / 32L);
+    }
+
+    private static final native JavaScriptObject make(CanvasPixelArray data, int size)
+    /*-{
+		var bits = new Int32Array((size + 31) >> 5);
+		for (var i = 0, p = 3; i < size; i++, p += 4) {
+			if (data[p] > 0) {
+				bits[i >> 5] |= (1 << (i & 31));
+			}
+		}
+		return bits;
+    }-*/;
+
+    private static final native boolean isSet(JavaScriptObject bits, int i)
+    /*-{
+		return ((bits[i >> 5] & (1 << (i & 31))) !== 0);
+    }-*/;
+
+    private static final native JsArrayInteger rects(JavaScriptObject bits, int w, int h)
+    /*-{
+		var rect = [];
+		var open = [];
+		for (var y = 0; y < h; y++) {
+			var next = [];
+			var j = 0;
+			var x = 0;
+			var i = y * w;
+			while (x < w) {
+				if ((bits[(i + x) >> 5] & (1 << ((i + x) & 31))) === 0) {
+					x++;
+					continue;
+				}
+				var s = x;
+				while ((x < w) && ((bits[(i + x) >> 5] & (1 << ((i + x) & 31))) !== 0)) {
+					x++;
+				}
+				var l = x - s;
+				while ((j < open.length) && (open[j][0] < s)) {
+					rect.push(open[j][0], open[j][1], open[j][2], open[j][3]);
+					j++;
+				}
+				if ((j < open.length) && (open[j][0] === s) && (open[j][2] === l)) {
+					open[j][3]++;
+					next.push(open[j]);
+					j++;
+				} else {
+					if ((j < open.length) && (open[j][0] === s)) {
+						rect.push(open[j][0], open[j][1], open[j][2], open[j][3]);
+						j++;
+					}
+					next.push([ s, y, l, 1 ]);
+				}
+			}
+			while (j < open.length) {
+				rect.push(open[j][0], open[j][1], open[j][2], open[j][3]);
+				j++;
+			}
+			open = next;
+		}
+		for (var k = 0; k < open.length; k++) {
+			rect.push(open[k][0], open[k][1], open[k][2], open[k][3]);
+		}
+		return rect;
+    }-*/;
+}
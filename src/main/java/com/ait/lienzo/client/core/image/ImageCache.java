@@ -16,23 +16,47 @@
 
 package com.ait.lienzo.client.core.image;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
 import com.ait.tooling.nativetools.client.collection.NFastStringMap;
 import com.google.gwt.dom.client.ImageElement;
 import com.google.gwt.resources.client.ImageResource;
 
+/**
+ * ImageCache is a shared, memory bounded cache of loaded images, by URL and by key.
+ * <p>
+ * Each image is accounted as width * height * 4 bytes. Images are referenced by the {@link ImageProxy} of each {@link com.ait.lienzo.client.core.shape.Picture}
+ * drawing them while it is attached to a parent, and once the bytes of all images exceed the memory budget the least recently used
+ * unreferenced images are evicted. An evicted image is loaded again on demand, see {@link #getImageByKey(String, Handler)}.
+ */
 public final class ImageCache
 {
-    private static final ImageCache            INSTANCE   = new ImageCache();
+    public static final long                   DEFAULT_MEMORY_BUDGET = 64L * 1024L * 1024L;
+
+    private static final ImageCache            INSTANCE              = new ImageCache();
+
+    private final NFastStringMap<String>       m_messages            = new NFastStringMap<String>();
+
+    private final LinkedHashMap<String, Entry> m_url_hmap            = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+    private final NFastStringMap<Entry>        m_key_hmap            = new NFastStringMap<Entry>();
 
-    private final NFastStringMap<String>       m_messages = new NFastStringMap<String>();
+    private int                                m_counting            = -1;
 
-    private final NFastStringMap<ImageElement> m_url_hmap = new NFastStringMap<ImageElement>();
+    private Runnable                           m_callback            = null;
 
-    private final NFastStringMap<ImageElement> m_key_hmap = new NFastStringMap<ImageElement>();
+    private EvictionHandler                    m_evicted_handler     = null;
 
-    private int                                m_counting = -1;
+    private long                               m_budget              = DEFAULT_MEMORY_BUDGET;
 
-    private Runnable                           m_callback = null;
+    private long                               m_bytes               = 0L;
+
+    private long                               m_hits                = 0L;
+
+    private long                               m_miss                = 0L;
+
+    private long                               m_evicted             = 0L;
 
     public static final ImageCache get()
     {
@@ -61,13 +85,13 @@ public final class ImageCache
             @Override
             public final void onImageElementLoad(final ImageElement elem)
             {
-                done(key, url, elem, "success");
+                done(key, url, null, elem, "success");
             }
 
             @Override
             public final void onImageElementError(final String message)
             {
-                done(key, url, null, message);
+                done(key, url, null, null, message);
             }
         };
         return this;
@@ -86,46 +110,328 @@ public final class ImageCache
             @Override
             public final void onImageElementLoad(final ImageElement elem)
             {
-                done(key, resource.getName(), elem, "success");
+                done(key, resource.getName(), resource, elem, "success");
             }
 
             @Override
             public final void onImageElementError(final String message)
             {
-                done(key, resource.getName(), null, message);
+                done(key, resource.getName(), resource, null, message);
             }
         };
         return this;
     }
 
-    private final void done(String key, String url, ImageElement image, String message)
+    private final void done(final String key, final String url, final ImageResource resource, final ImageElement image, final String message)
     {
-        if (null != image)
+        put(key, url, resource, image, message, false);
+
+        m_counting--;
+
+        if ((null != m_callback) && (m_counting == 0))
+        {
+            m_callback.run();
+        }
+    }
+
+    private final Entry put(final String key, final String url, final ImageResource resource, final ImageElement image, final String message, final boolean acquire)
+    {
+        Entry entry = m_url_hmap.get(url);
+
+        if (null == entry)
+        {
+            entry = (null != key) ? m_key_hmap.get(key) : null;
+
+            if ((null == entry) || (false == url.equals(entry.m_url)))
+            {
+                entry = new Entry(url, resource);
+            }
+        }
+        if ((null != image) && (null == entry.m_image))
+        {
+            entry.m_image = image;
+
+            entry.m_bytes = 4L * image.getWidth() * image.getHeight();
+
+            m_bytes += entry.m_bytes;
+
+            m_url_hmap.put(url, entry);
+        }
+        else if ((null != image) && (image != entry.m_image))
         {
-            m_key_hmap.put(key, image);
+            // loaded twice, only the cached element is kept
 
-            m_url_hmap.put(url, image);
+            detach(image);
         }
-        m_messages.put(key, message);
+        if (null != key)
+        {
+            m_key_hmap.put(key, entry);
 
+            m_messages.put(key, message);
+        }
         m_messages.put(url, message);
 
-        m_counting--;
+        if (acquire)
+        {
+            // referenced before trimming, so an image just acquired is never the one evicted
 
-        if ((null != m_callback) && (m_counting == 0))
+            entry.m_refs++;
+        }
+        trim();
+
+        return entry;
+    }
+
+    /**
+     * Returns the image for a key if it is loaded. Images can be evicted, in which case this returns null although the key is known,
+     * use {@link #getImageByKey(String, Handler)} to load it again.
+     *
+     * @param key
+     * @return ImageElement, or null
+     */
+    public final ImageElement getImageByKey(final String key)
+    {
+        return hit(m_key_hmap.get(key));
+    }
+
+    /**
+     * Returns the image for a URL if it is loaded, or null if it is not or was evicted, see {@link #getImageByURL(String, Handler)}.
+     *
+     * @param url
+     * @return ImageElement, or null
+     */
+    public final ImageElement getImageByURL(final String url)
+    {
+        return hit(m_url_hmap.get(url));
+    }
+
+    /**
+     * Gets the image for a key, loading it again if it was evicted.
+     *
+     * @param key
+     * @param handler
+     */
+    public final void getImageByKey(final String key, final Handler handler)
+    {
+        final Entry entry = m_key_hmap.get(key);
+
+        if (null == entry)
         {
-            m_callback.run();
+            m_miss++;
+
+            handler.onImageElementError("ImageCache has no image for " + key);
+        }
+        else if (null != hit(entry))
+        {
+            handler.onImageElementLoad(entry.m_image);
+        }
+        else
+        {
+            load(key, entry.m_url, entry.m_resource, null, false, handler);
+        }
+    }
+
+    /**
+     * Gets the image for a URL, loading it if it is not cached.
+     *
+     * @param url
+     * @param handler
+     */
+    public final void getImageByURL(final String url, final Handler handler)
+    {
+        final ImageElement image = getImageByURL(url);
+
+        if (null != image)
+        {
+            handler.onImageElementLoad(image);
+        }
+        else
+        {
+            load(null, url, null, null, false, handler);
+        }
+    }
+
+    /**
+     * Gets the image for a URL like {@link #getImageByURL(String, Handler)}, and references it so it is not evicted
+     * until {@link #release(String)} is called.
+     *
+     * @param url
+     * @param handler
+     */
+    public final void acquire(final String url, final Handler handler)
+    {
+        acquire(url, null, handler);
+    }
+
+    /**
+     * Gets and references the image for a URL like {@link #acquire(String, Handler)}, with a priority for the {@link ImageLoadQueue} if it must be loaded.
+     *
+     * @param url
+     * @param priority tells the queue whether the image is in view, or null
+     * @param handler
+     */
+    public final void acquire(final String url, final ImageLoadQueue.Priority priority, final Handler handler)
+    {
+        final Entry entry = m_url_hmap.get(url);
+
+        if (null != hit(entry))
+        {
+            entry.m_refs++;
+
+            handler.onImageElementLoad(entry.m_image);
+        }
+        else
+        {
+            load(null, url, null, priority, true, handler);
+        }
+    }
+
+    /**
+     * References an image already loaded, i.e. when a {@link com.ait.lienzo.client.core.shape.Picture} is attached again. If the URL
+     * was evicted meanwhile the image is cached again, since the caller still holds it.
+     *
+     * @param url
+     * @param image
+     */
+    public final void retain(final String url, final ImageElement image)
+    {
+        Entry entry = m_url_hmap.get(url);
+
+        if ((null == entry) || (null == entry.m_image))
+        {
+            put(null, url, null, image, "success", true);
+        }
+        else
+        {
+            entry.m_refs++;
+        }
+    }
+
+    /**
+     * Drops a reference taken with {@link #acquire(String, Handler)} or {@link #retain(String, ImageElement)}.
+     *
+     * @param url
+     */
+    public final void release(final String url)
+    {
+        final Entry entry = m_url_hmap.get(url);
+
+        if ((null != entry) && (entry.m_refs > 0))
+        {
+            entry.m_refs--;
+
+            trim();
+        }
+    }
+
+    private final void load(final String key, final String url, final ImageResource resource, final ImageLoadQueue.Priority priority, final boolean acquire, final Handler handler)
+    {
+        if (null != resource)
+        {
+            new ImageLoader(resource)
+            {
+                @Override
+                public final void onImageElementLoad(final ImageElement elem)
+                {
+                    loaded(key, url, resource, elem, acquire, handler);
+                }
+
+                @Override
+                public final void onImageElementError(final String message)
+                {
+                    handler.onImageElementError(message);
+                }
+            };
+        }
+        else
+        {
+            new ImageLoader(url, priority)
+            {
+                @Override
+                public final void onImageElementLoad(final ImageElement elem)
+                {
+                    loaded(key, url, resource, elem, acquire, handler);
+                }
+
+                @Override
+                public final void onImageElementError(final String message)
+                {
+                    m_messages.put(url, message);
+
+                    handler.onImageElementError(message);
+                }
+            };
+        }
+    }
+
+    private final void loaded(final String key, final String url, final ImageResource resource, final ImageElement elem, final boolean acquire, final Handler handler)
+    {
+        final Entry entry = put(key, url, resource, elem, "success", acquire);
+
+        handler.onImageElementLoad(null != entry.m_image ? entry.m_image : elem);
+    }
+
+    private final ImageElement hit(final Entry entry)
+    {
+        if ((null != entry) && (null != entry.m_image))
+        {
+            m_hits++;
+
+            // touch the entry, so it is the most recently used
+
+            m_url_hmap.get(entry.m_url);
+
+            return entry.m_image;
         }
+        m_miss++;
+
+        return null;
     }
 
-    public final ImageElement getImageByKey(String key)
+    private final void trim()
     {
-        return m_key_hmap.get(key);
+        if (m_bytes <= m_budget)
+        {
+            return;
+        }
+        final Iterator<Entry> iter = m_url_hmap.values().iterator();
+
+        while ((m_bytes > m_budget) && (iter.hasNext()))
+        {
+            final Entry entry = iter.next();
+
+            if (entry.m_refs < 1)
+            {
+                iter.remove();
+
+                evict(entry);
+            }
+        }
     }
 
-    public final ImageElement getImageByURL(String url)
+    private final void evict(final Entry entry)
     {
-        return m_url_hmap.get(url);
+        m_bytes -= entry.m_bytes;
+
+        m_evicted++;
+
+        detach(entry.m_image);
+
+        entry.m_image = null;
+
+        entry.m_bytes = 0L;
+
+        if (null != m_evicted_handler)
+        {
+            m_evicted_handler.onImageEvicted(entry.m_url);
+        }
+    }
+
+    private static final void detach(final ImageElement image)
+    {
+        // the loader keeps a hidden Image widget in the root panel, which must be removed for the element to be collected
+
+        ImageLoader.detach(image);
     }
 
     public final String getMessage(String name)
@@ -176,4 +482,91 @@ public final class ImageCache
             m_callback = callback;
         }
     }
+
+    public final ImageCache setMemoryBudget(final long budget)
+    {
+        m_budget = Math.max(0L, budget);
+
+        trim();
+
+        return this;
+    }
+
+    public final long getMemoryBudget()
+    {
+        return m_budget;
+    }
+
+    /**
+     * Returns the estimated bytes of the cached images, referenced or not.
+     */
+    public final long getMemoryUsage()
+    {
+        return m_bytes;
+    }
+
+    public final int getImageCount()
+    {
+        return m_url_hmap.size();
+    }
+
+    public final long getHitCount()
+    {
+        return m_hits;
+    }
+
+    public final long getMissCount()
+    {
+        return m_miss;
+    }
+
+    public final long getEvictionCount()
+    {
+        return m_evicted;
+    }
+
+    /**
+     * Sets the handler notified of each evicted image, or null for none.
+     *
+     * @param handler
+     * @return this ImageCache
+     */
+    public final ImageCache setEvictionHandler(final EvictionHandler handler)
+    {
+        m_evicted_handler = handler;
+
+        return this;
+    }
+
+    public interface Handler
+    {
+        public void onImageElementLoad(ImageElement image);
+
+        public void onImageElementError(String message);
+    }
+
+    public interface EvictionHandler
+    {
+        public void onImageEvicted(String url);
+    }
+
+    private static final class Entry
+    {
+        private final String        m_url;
+
+        private final ImageResource m_resource;
+
+        private ImageElement        m_image = null;
+
+        private long                m_bytes = 0L;
+
+        private int                 m_refs  = 0;
+
+        private Entry(final String url, final ImageResource resource)
+        {
+            m_url = url;
+
+            m_resource = resource;
+        }
+    }
 }
@@ -0,0 +1,393 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.image;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import com.ait.lienzo.client.core.image.filter.ImageDataFilter;
+import com.ait.lienzo.client.core.image.filter.ImageDataFilterChain;
+import com.ait.lienzo.client.core.util.ScratchPad;
+import com.ait.lienzo.client.core.util.ScratchPadPool;
+import com.google.gwt.json.client.JSONObject;
+
+/**
+ * ImageFilterCache is a shared cache of filtered images, so {@link ImageProxy} instances that draw the same image region
+ * at the same size through the same filters share one filtered {@link ScratchPad} instead of each filtering their own copy.
+ * <p>
+ * Entries are keyed by the image source, the clip and destination sizes, and the JSON of the filters. An entry is kept
+ * while any proxy holds it, and released entries stay idle for reuse until the bytes of all entries exceed the memory budget,
+ * when the least recently used idle entries are dropped and their pads given back to the {@link ScratchPadPool}.
+ */
+public final class ImageFilterCache
+{
+    public static final long                   DEFAULT_MEMORY_BUDGET = 32L * 1024L * 1024L;
+
+    private static final int                   MAXIMUM_SOURCE_KEY    = 256;
+
+    private static final ImageFilterCache      INSTANCE              = new ImageFilterCache();
+
+    private final LinkedHashMap<String, Entry> m_entries             = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+    private long                               m_budget              = DEFAULT_MEMORY_BUDGET;
+
+    private long                               m_bytes               = 0L;
+
+    private long                               m_hits                = 0L;
+
+    private long                               m_miss                = 0L;
+
+    private long                               m_evicted             = 0L;
+
+    public static final ImageFilterCache get()
+    {
+        return INSTANCE;
+    }
+
+    private ImageFilterCache()
+    {
+        ScratchPadPool.get().addHolder(new ScratchPadPool.Holder()
+        {
+            @Override
+            public void trim(final long bytes)
+            {
+                ImageFilterCache.this.trim(m_bytes - bytes);
+            }
+        });
+    }
+
+    /**
+     * Returns a short stand in for an image source URL, to build keys from. Long URLs, i.e. "data:" URLs, are reduced
+     * to their start, their length and two hashes of the whole URL, so keys do not copy the whole image. Callers
+     * should keep the result for as long as the source is unchanged, since hashing reads the whole URL.
+     *
+     * @param src the image source URL
+     * @return String
+     */
+    static final String getSourceKey(final String src)
+    {
+        if ((null == src) || (src.length() <= MAXIMUM_SOURCE_KEY))
+        {
+            return src;
+        }
+        int hash = 0x811c9dc5;
+
+        final int size = src.length();
+
+        for (int i = 0; i < size; i++)
+        {
+            hash = (hash ^ src.charAt(i)) * 0x01000193;
+        }
+        return src.substring(0, 64) + "#" + size + "#" + Integer.toHexString(src.hashCode()) + Integer.toHexString(hash);
+    }
+
+    /**
+     * Returns the key of a filtered image, or null if the filters can not be fingerprinted, i.e. a filter without JSON.
+     *
+     * @param src the image source key, see {@link #getSourceKey(String)}
+     * @param bounds the clip x, y, width and height, then the destination width and height
+     * @param filter the filters, or null for none
+     * @return String
+     */
+    static final String getKey(final String src, final int[] bounds, final ImageDataFilter<?> filter)
+    {
+        if (null == src)
+        {
+            return null;
+        }
+        final String fingerprint = getFingerprint(filter);
+
+        if (null == fingerprint)
+        {
+            return null;
+        }
+        final StringBuilder builder = new StringBuilder(src.length() + fingerprint.length() + 48);
+
+        for (int i = 0; i < bounds.length; i++)
+        {
+            builder.append(bounds[i]).append(',');
+        }
+        return builder.append(fingerprint).append('@').append(src).toString();
+    }
+
+    private static final String getFingerprint(final ImageDataFilter<?> filter)
+    {
+        if ((null == filter) || (false == filter.isActive()))
+        {
+            return "";
+        }
+        if (filter instanceof ImageDataFilterChain)
+        {
+            // the chain's JSON leaves out filters that have none, which would make different chains look the same
+
+            for (ImageDataFilter<?> each : ((ImageDataFilterChain) filter).getFilters())
+            {
+                if ((null != each) && (each.isActive()) && (null == each.toJSONObject()))
+                {
+                    return null;
+                }
+            }
+        }
+        final JSONObject json = filter.toJSONObject();
+
+        if (null == json)
+        {
+            return null;
+        }
+        return json.toString();
+    }
+
+    /**
+     * Returns the entry for the key with a reference added, or null if it is not cached.
+     *
+     * @param key
+     * @return Entry
+     */
+    final Entry acquire(final String key)
+    {
+        final Entry entry = m_entries.get(key);
+
+        if (null == entry)
+        {
+            m_miss++;
+
+            return null;
+        }
+        m_hits++;
+
+        entry.m_refs++;
+
+        return entry;
+    }
+
+    /**
+     * Returns whether the key is cached, without counting a hit or a miss.
+     *
+     * @param key
+     * @return boolean
+     */
+    final boolean contains(final String key)
+    {
+        return ((null != key) && (m_entries.containsKey(key)));
+    }
+
+    /**
+     * Wraps a filtered pad in an entry with one reference. If the key is not null the entry is shared with later callers of {@link #acquire(String)}.
+     *
+     * @param key the key, or null for an entry private to the caller
+     * @param spad a pad acquired from the {@link ScratchPadPool}, now owned by the entry
+     * @return Entry
+     */
+    final Entry create(final String key, final ScratchPad spad)
+    {
+        final Entry entry = new Entry(key, spad);
+
+        if (null != key)
+        {
+            final Entry prev = m_entries.put(key, entry);
+
+            if (null != prev)
+            {
+                // a pad still held is now private to its holders, and given back once they let go
+
+                detach(prev);
+            }
+            m_bytes += entry.getBytes();
+
+            trim();
+        }
+        return entry;
+    }
+
+    /**
+     * Drops a reference to an entry. A private entry gives its pad back right away, a shared one stays idle for reuse.
+     *
+     * @param entry
+     */
+    final void release(final Entry entry)
+    {
+        if ((null == entry) || (entry.m_refs < 1))
+        {
+            return;
+        }
+        entry.m_refs--;
+
+        if (entry.m_refs > 0)
+        {
+            return;
+        }
+        if (null == entry.m_key)
+        {
+            ScratchPadPool.get().release(entry.m_spad);
+        }
+        else
+        {
+            trim();
+        }
+    }
+
+    public final ImageFilterCache setMemoryBudget(final long budget)
+    {
+        m_budget = Math.max(0L, budget);
+
+        trim();
+
+        return this;
+    }
+
+    public final long getMemoryBudget()
+    {
+        return m_budget;
+    }
+
+    /**
+     * Returns the bytes of the shared entries, both held and idle.
+     */
+    public final long getMemoryUsage()
+    {
+        return m_bytes;
+    }
+
+    public final int getEntryCount()
+    {
+        return m_entries.size();
+    }
+
+    public final long getHitCount()
+    {
+        return m_hits;
+    }
+
+    public final long getMissCount()
+    {
+        return m_miss;
+    }
+
+    public final long getEvictionCount()
+    {
+        return m_evicted;
+    }
+
+    /**
+     * Drops all the idle entries.
+     *
+     * @return this ImageFilterCache
+     */
+    public final ImageFilterCache clear()
+    {
+        final Iterator<Entry> iter = m_entries.values().iterator();
+
+        while (iter.hasNext())
+        {
+            final Entry entry = iter.next();
+
+            if (entry.m_refs < 1)
+            {
+                iter.remove();
+
+                m_bytes -= entry.getBytes();
+
+                ScratchPadPool.get().release(entry.m_spad);
+            }
+        }
+        return this;
+    }
+
+    private final void trim()
+    {
+        trim(m_budget);
+    }
+
+    private final void trim(final long limit)
+    {
+        if (m_bytes <= limit)
+        {
+            return;
+        }
+        final Iterator<Entry> iter = m_entries.values().iterator();
+
+        while ((m_bytes > limit) && (iter.hasNext()))
+        {
+            final Entry entry = iter.next();
+
+            if (entry.m_refs < 1)
+            {
+                iter.remove();
+
+                m_bytes -= entry.getBytes();
+
+                ScratchPadPool.get().release(entry.m_spad);
+
+                m_evicted++;
+            }
+        }
+    }
+
+    private final void detach(final Entry entry)
+    {
+        m_bytes -= entry.getBytes();
+
+        entry.m_key = null;
+
+        if (entry.m_refs < 1)
+        {
+            ScratchPadPool.get().release(entry.m_spad);
+        }
+    }
+
+    /**
+     * A filtered image and the number of {@link ImageProxy} instances drawing it.
+     */
+    static final class Entry
+    {
+        private final ScratchPad m_spad;
+
+        private String           m_key;
+
+        private int              m_refs = 1;
+
+        private Entry(final String key, final ScratchPad spad)
+        {
+            m_key = key;
+
+            m_spad = spad;
+        }
+
+        final ScratchPad getScratchPad()
+        {
+            return m_spad;
+        }
+
+        final String getKey()
+        {
+            return m_key;
+        }
+
+        /**
+         * Returns whether the pad is only drawn by its one holder, and so may be filtered again in place.
+         */
+        final boolean isPrivate()
+        {
+            return ((null == m_key) && (1 == m_refs));
+        }
+
+        private final long getBytes()
+        {
+            return 4L * m_spad.getWidth() * m_spad.getHeight();
+        }
+    }
+}
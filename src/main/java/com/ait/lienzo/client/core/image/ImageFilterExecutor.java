@@ -0,0 +1,215 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.image;
+
+import com.ait.lienzo.client.core.image.filter.ImageDataFilterJob;
+import com.ait.lienzo.client.core.image.filter.ImageDataTiledFilter;
+import com.ait.lienzo.client.core.types.ImageData;
+import com.ait.tooling.nativetools.client.collection.NFastArrayList;
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+
+/**
+ * ImageFilterExecutor runs {@link ImageDataFilterJob} instances across animation frames, so filtering a large image with
+ * an {@link ImageDataTiledFilter} does not freeze the page.
+ * <p>
+ * Each frame, the pending jobs are stepped in turn until the frame budget is spent. A job is cancelled, without notice to
+ * its listener, once its listener reports it is no longer current, i.e. when the filter parameters changed while it ran.
+ */
+public final class ImageFilterExecutor
+{
+    public static final double               DEFAULT_FRAME_BUDGET = 8;
+
+    public static final int                  DEFAULT_MIN_PIXELS   = 512 * 512;
+
+    private static final ImageFilterExecutor INSTANCE             = new ImageFilterExecutor();
+
+    private final NFastArrayList<Task>       m_tasks              = new NFastArrayList<Task>();
+
+    private final AnimationCallback          m_frame;
+
+    private double                           m_budget             = DEFAULT_FRAME_BUDGET;
+
+    private int                              m_pixels             = DEFAULT_MIN_PIXELS;
+
+    private boolean                          m_queued             = false;
+
+    private int                              m_next               = 0;
+
+    public static final ImageFilterExecutor get()
+    {
+        return INSTANCE;
+    }
+
+    private ImageFilterExecutor()
+    {
+        m_frame = new AnimationCallback()
+        {
+            @Override
+            public void execute(final double timestamp)
+            {
+                m_queued = false;
+
+                doFrame();
+            }
+        };
+    }
+
+    /**
+     * Queues a job, stepped from the next animation frame on.
+     *
+     * @param job
+     * @param listener
+     * @return the task, which can be cancelled
+     */
+    public final Task submit(final ImageDataFilterJob job, final Listener listener)
+    {
+        final Task task = new Task(job, listener);
+
+        m_tasks.add(task);
+
+        schedule();
+
+        return task;
+    }
+
+    /**
+     * Sets the milliseconds of each animation frame spent filtering.
+     *
+     * @param budget
+     * @return this ImageFilterExecutor
+     */
+    public final ImageFilterExecutor setFrameBudget(final double budget)
+    {
+        m_budget = Math.max(1, budget);
+
+        return this;
+    }
+
+    public final double getFrameBudget()
+    {
+        return m_budget;
+    }
+
+    /**
+     * Sets the number of pixels from which {@link ImageProxy} filters an image across frames, smaller images are filtered at once.
+     *
+     * @param pixels
+     * @return this ImageFilterExecutor
+     */
+    public final ImageFilterExecutor setMinimumPixels(final int pixels)
+    {
+        m_pixels = Math.max(0, pixels);
+
+        return this;
+    }
+
+    public final int getMinimumPixels()
+    {
+        return m_pixels;
+    }
+
+    public final int getPendingCount()
+    {
+        return m_tasks.size();
+    }
+
+    private final void schedule()
+    {
+        if ((false == m_queued) && (m_tasks.size() > 0))
+        {
+            m_queued = true;
+
+            AnimationScheduler.get().requestAnimationFrame(m_frame);
+        }
+    }
+
+    private final void doFrame()
+    {
+        final double until = System.currentTimeMillis() + m_budget;
+
+        // round robin from where the last frame stopped, so one large job does not starve the others
+
+        while ((m_tasks.size() > 0) && (System.currentTimeMillis() < until))
+        {
+            if (m_next >= m_tasks.size())
+            {
+                m_next = 0;
+            }
+            final Task task = m_tasks.get(m_next);
+
+            if ((task.m_cancel) || (false == task.m_listener.isCurrent()))
+            {
+                task.m_cancel = true;
+
+                m_tasks.remove(task);
+
+                continue;
+            }
+            if (task.m_job.step(until))
+            {
+                m_tasks.remove(task);
+
+                task.m_listener.onFiltered(task.m_job.getResult());
+            }
+            else
+            {
+                m_next++;
+            }
+        }
+        schedule();
+    }
+
+    /**
+     * Receives the result of a job.
+     */
+    public interface Listener
+    {
+        /**
+         * Returns whether the job is still wanted, checked before each step.
+         */
+        public boolean isCurrent();
+
+        public void onFiltered(ImageData result);
+    }
+
+    public static final class Task
+    {
+        private final ImageDataFilterJob m_job;
+
+        private final Listener           m_listener;
+
+        private boolean                  m_cancel = false;
+
+        private Task(final ImageDataFilterJob job, final Listener listener)
+        {
+            m_job = job;
+
+            m_listener = listener;
+        }
+
+        public final void cancel()
+        {
+            m_cancel = true;
+        }
+
+        public final boolean isCancelled()
+        {
+            return m_cancel;
+        }
+    }
+}
@@ -0,0 +1,433 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.image;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.dom.client.ImageElement;
+
+/**
+ * ImageLoadQueue runs the URL loads of every {@link ImageLoader}.
+ * <p>
+ * Loads of a URL already queued or loading are coalesced onto the one request. The first loader gets the loaded element,
+ * the others a copy of it, which the browser fills from the same loaded image, so each owner can detach its element on its own.
+ * At most {@link #getMaximumActiveLoads()} requests load at once, data URLs excepted since they do not touch the network.
+ * Queued requests start in the order they were made, except those with a loader whose {@link Priority} says it is in view,
+ * which go first. Priorities are looked at once per batch of new requests, after the current event, so shapes created in
+ * the same event are attached to their layers by then.
+ */
+public final class ImageLoadQueue
+{
+    public static final int                 DEFAULT_MAXIMUM_ACTIVE_LOADS = 6;
+
+    private static final ImageLoadQueue     INSTANCE                     = new ImageLoadQueue();
+
+    private final HashMap<String, Request>  m_loading                    = new HashMap<String, Request>();
+
+    private ArrayList<Request>              m_queue                      = new ArrayList<Request>();
+
+    private int                             m_maximum                    = DEFAULT_MAXIMUM_ACTIVE_LOADS;
+
+    private int                             m_active                     = 0;
+
+    private boolean                         m_sorted                     = true;
+
+    private boolean                         m_scheduled                  = false;
+
+    private long                            m_requests                   = 0L;
+
+    private long                            m_coalesced                  = 0L;
+
+    private long                            m_loaded                     = 0L;
+
+    private long                            m_errors                     = 0L;
+
+    private long                            m_wait_time                  = 0L;
+
+    private long                            m_load_time                  = 0L;
+
+    private long                            m_load_most                  = 0L;
+
+    private final ScheduledCommand          m_dispatch                   = new ScheduledCommand()
+    {
+        @Override
+        public final void execute()
+        {
+            m_scheduled = false;
+
+            dispatch();
+        }
+    };
+
+    public static final ImageLoadQueue get()
+    {
+        return INSTANCE;
+    }
+
+    private ImageLoadQueue()
+    {
+    }
+
+    final void load(final String url, final Priority priority, final ImageLoader loader)
+    {
+        m_requests++;
+
+        Request request = m_loading.get(url);
+
+        if (null != request)
+        {
+            m_coalesced++;
+
+            request.add(loader, priority);
+
+            if ((null != priority) && (false == request.m_active))
+            {
+                m_sorted = false;
+            }
+            return;
+        }
+        request = new Request(url, System.currentTimeMillis());
+
+        request.add(loader, priority);
+
+        m_loading.put(url, request);
+
+        if (loader.isValidDataURL(url))
+        {
+            start(request, false);
+
+            return;
+        }
+        m_queue.add(request);
+
+        if (null != priority)
+        {
+            m_sorted = false;
+        }
+        schedule();
+    }
+
+    /**
+     * Looks at the priorities of the queued requests again before the next one starts, i.e. after the viewport was scrolled or zoomed.
+     *
+     * @return this ImageLoadQueue
+     */
+    public final ImageLoadQueue reprioritize()
+    {
+        if (false == m_queue.isEmpty())
+        {
+            m_sorted = false;
+
+            schedule();
+        }
+        return this;
+    }
+
+    private final void schedule()
+    {
+        if (false == m_scheduled)
+        {
+            m_scheduled = true;
+
+            Scheduler.get().scheduleDeferred(m_dispatch);
+        }
+    }
+
+    private final void dispatch()
+    {
+        if ((m_active >= m_maximum) || (m_queue.isEmpty()))
+        {
+            return;
+        }
+        if (false == m_sorted)
+        {
+            sort();
+        }
+        int take = 0;
+
+        while ((m_active < m_maximum) && (take < m_queue.size()))
+        {
+            start(m_queue.get(take++), true);
+        }
+        m_queue.subList(0, take).clear();
+    }
+
+    private final void sort()
+    {
+        final ArrayList<Request> sort = new ArrayList<Request>(m_queue.size());
+
+        final ArrayList<Request> rest = new ArrayList<Request>();
+
+        for (Request request : m_queue)
+        {
+            if (request.isInViewport())
+            {
+                sort.add(request);
+            }
+            else
+            {
+                rest.add(request);
+            }
+        }
+        sort.addAll(rest);
+
+        m_queue = sort;
+
+        m_sorted = true;
+    }
+
+    private final void start(final Request request, final boolean counted)
+    {
+        request.m_active = true;
+
+        request.m_started = System.currentTimeMillis();
+
+        if (counted)
+        {
+            m_active++;
+        }
+        // the first loader of the URL fetches it for all of them
+
+        request.m_loaders.get(0).fetch(request.m_url, new ImageLoader.Callback()
+        {
+            @Override
+            public void onSuccess(final ImageElement elem)
+            {
+                done(request, counted, elem, null);
+            }
+
+            @Override
+            public void onFailure(final String message)
+            {
+                done(request, counted, null, message);
+            }
+        });
+    }
+
+    private final void done(final Request request, final boolean counted, final ImageElement elem, final String message)
+    {
+        m_loading.remove(request.m_url);
+
+        if (counted)
+        {
+            m_active--;
+        }
+        final long time = System.currentTimeMillis() - request.m_started;
+
+        m_load_time += time;
+
+        m_wait_time += request.m_started - request.m_queued;
+
+        m_load_most = Math.max(m_load_most, time);
+
+        if (null != elem)
+        {
+            m_loaded++;
+        }
+        else
+        {
+            m_errors++;
+        }
+        // start the next request first, so a loader that throws does not stall the queue
+
+        dispatch();
+
+        final int size = request.m_loaders.size();
+
+        for (int i = 0; i < size; i++)
+        {
+            final ImageLoader loader = request.m_loaders.get(i);
+
+            if (null != elem)
+            {
+                loader.onImageElementLoad((i == 0) ? elem : elem.cloneNode(false).<ImageElement> cast());
+            }
+            else
+            {
+                loader.onImageElementError(message);
+            }
+        }
+    }
+
+    public final ImageLoadQueue setMaximumActiveLoads(final int maximum)
+    {
+        m_maximum = Math.max(1, maximum);
+
+        dispatch();
+
+        return this;
+    }
+
+    public final int getMaximumActiveLoads()
+    {
+        return m_maximum;
+    }
+
+    /**
+     * Returns the number of requests loading now, data URLs excepted.
+     */
+    public final int getActiveCount()
+    {
+        return m_active;
+    }
+
+    public final int getQueuedCount()
+    {
+        return m_queue.size();
+    }
+
+    /**
+     * Returns the number of loads asked for, coalesced or not.
+     */
+    public final long getRequestCount()
+    {
+        return m_requests;
+    }
+
+    /**
+     * Returns the number of loads that joined a request for the same URL already queued or loading.
+     */
+    public final long getCoalescedCount()
+    {
+        return m_coalesced;
+    }
+
+    public final long getLoadedCount()
+    {
+        return m_loaded;
+    }
+
+    public final long getErrorCount()
+    {
+        return m_errors;
+    }
+
+    /**
+     * Returns the average milliseconds a finished request waited in the queue before it started loading.
+     */
+    public final double getAverageWaitTime()
+    {
+        final long count = m_loaded + m_errors;
+
+        if (count < 1)
+        {
+            return 0;
+        }
+        return ((double) m_wait_time) / count;
+    }
+
+    /**
+     * Returns the average milliseconds from the start of a load to its outcome.
+     */
+    public final double getAverageLoadTime()
+    {
+        final long count = m_loaded + m_errors;
+
+        if (count < 1)
+        {
+            return 0;
+        }
+        return ((double) m_load_time) / count;
+    }
+
+    /**
+     * Returns the most milliseconds any load took from its start to its outcome.
+     */
+    public final long getMaximumLoadTime()
+    {
+        return m_load_most;
+    }
+
+    /**
+     * Resets the counters and times, not the queue.
+     *
+     * @return this ImageLoadQueue
+     */
+    public final ImageLoadQueue resetMetrics()
+    {
+        m_requests = 0L;
+
+        m_coalesced = 0L;
+
+        m_loaded = 0L;
+
+        m_errors = 0L;
+
+        m_wait_time = 0L;
+
+        m_load_time = 0L;
+
+        m_load_most = 0L;
+
+        return this;
+    }
+
+    /**
+     * Tells the queue whether the image a loader is for is in view.
+     */
+    public interface Priority
+    {
+        public boolean isInViewport();
+    }
+
+    private static final class Request
+    {
+        private final String                  m_url;
+
+        private final long                    m_queued;
+
+        private final ArrayList<ImageLoader>  m_loaders   = new ArrayList<ImageLoader>(1);
+
+        private final ArrayList<Priority>     m_priority  = new ArrayList<Priority>(1);
+
+        private long                          m_started   = 0L;
+
+        private boolean                       m_active    = false;
+
+        private Request(final String url, final long queued)
+        {
+            m_url = url;
+
+            m_queued = queued;
+        }
+
+        private final void add(final ImageLoader loader, final Priority priority)
+        {
+            m_loaders.add(loader);
+
+            if (null != priority)
+            {
+                m_priority.add(priority);
+            }
+        }
+
+        private final boolean isInViewport()
+        {
+            for (Priority priority : m_priority)
+            {
+                if (priority.isInViewport())
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
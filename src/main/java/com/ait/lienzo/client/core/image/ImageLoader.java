@@ -25,9 +25,35 @@ import com.google.gwt.resources.client.ImageResource;
 import com.google.gwt.user.client.ui.Image;
 import com.google.gwt.user.client.ui.RootPanel;
 
+/**
+ * ImageLoader loads an image element from a URL or an {@link ImageResource}.
+ * <p>
+ * URL loads go through the {@link ImageLoadQueue}, which loads a URL once for all its loaders, giving each its own element,
+ * and limits how many loads run at once.
+ */
 public abstract class ImageLoader
 {
     public ImageLoader(final String url)
+    {
+        this(url, null);
+    }
+
+    /**
+     * Loads the URL through the {@link ImageLoadQueue}.
+     *
+     * @param url
+     * @param priority tells the queue whether the image is in view, or null
+     */
+    public ImageLoader(final String url, final ImageLoadQueue.Priority priority)
+    {
+        ImageLoadQueue.get().load(url, priority, this);
+    }
+
+    /**
+     * Loads the image element for the {@link ImageLoadQueue}, on behalf of every loader of the URL. This loader's
+     * {@link #isValidDataURL(String)} and {@link #isValidSVG(String)} decide how the URL is loaded.
+     */
+    final void fetch(final String url, final Callback callback)
     {
         final Image image = new Image();
 
@@ -46,7 +72,7 @@ public abstract class ImageLoader
             @Override
             public final void onLoad(final LoadEvent event)
             {
-                doImageElementLoadAndRetry(element, image, crossOrigin, url);
+                doImageElementLoadAndRetry(element, image, crossOrigin, url, callback);
             }
         });
         image.addErrorHandler(new ErrorHandler()
@@ -56,7 +82,7 @@ public abstract class ImageLoader
             {
                 RootPanel.get().remove(image);
 
-                onImageElementError("Image " + url + " failed to load");
+                callback.onFailure("Image " + url + " failed to load");
             }
         });
         RootPanel.get().add(image);
@@ -71,7 +97,7 @@ public abstract class ImageLoader
         }
     }
 
-    private final void doImageElementLoadAndRetry(final ImageElement elem, final Image image, final String orig, final String url)
+    private static final void doImageElementLoadAndRetry(final ImageElement elem, final Image image, final String orig, final String url, final Callback callback)
     {
         final int w = Math.max(image.getWidth(), elem.getWidth());
 
@@ -84,7 +110,9 @@ public abstract class ImageLoader
                 @Override
                 public void onSuccess(final ImageElement e)
                 {
-                    onImageElementLoad(e);
+                    setWidget(e, image);
+
+                    callback.onSuccess(e);
                 }
 
                 @Override
@@ -92,7 +120,7 @@ public abstract class ImageLoader
                 {
                     RootPanel.get().remove(image);
 
-                    onImageElementError("Image " + url + " failed to load");
+                    callback.onFailure("Image " + url + " failed to load");
                 }
             });
         }
@@ -102,7 +130,9 @@ public abstract class ImageLoader
 
             elem.setHeight(h);
 
-            onImageElementLoad(elem);
+            setWidget(elem, image);
+
+            callback.onSuccess(elem);
         }
     }
 
@@ -133,6 +163,8 @@ public abstract class ImageLoader
             @Override
             public final void onLoad(final LoadEvent event)
             {
+                setWidget(element, image);
+
                 onImageElementLoad(element);
             }
         });
@@ -151,7 +183,7 @@ public abstract class ImageLoader
         RootPanel.get().add(image);
     }
 
-    private final native void load(String url, String orig, JSImageCallback self)
+    private static final native void load(String url, String orig, JSImageCallback self)
     /*-{
 		var image = new $wnd.Image();
 		image.onload = function() {
@@ -175,7 +207,33 @@ public abstract class ImageLoader
 		image.src = url;
     }-*/;
 
-    private final native void setCrossOrigin(ImageElement element, String value)
+    /**
+     * Removes the hidden Image widget a loaded element was added to the root panel with, so the element can be collected.
+     */
+    static final void detach(final ImageElement element)
+    {
+        final Image image = getWidget(element);
+
+        if (null != image)
+        {
+            setWidget(element, null);
+
+            RootPanel.get().remove(image);
+        }
+        element.removeFromParent();
+    }
+
+    private static final native void setWidget(ImageElement element, Image image)
+    /*-{
+		element.__lienzo_image_widget = image;
+    }-*/;
+
+    private static final native Image getWidget(ImageElement element)
+    /*-{
+		return element.__lienzo_image_widget || null;
+    }-*/;
+
+    private static final native void setCrossOrigin(ImageElement element, String value)
     /*-{
 		element.crossOrigin = value;
     }-*/;
@@ -184,6 +242,16 @@ public abstract class ImageLoader
 
     public abstract void onImageElementError(String message);
 
+    /**
+     * Receives the outcome of {@link ImageLoader#fetch(String, Callback)}.
+     */
+    interface Callback
+    {
+        public void onSuccess(ImageElement elem);
+
+        public void onFailure(String message);
+    }
+
     private interface JSImageCallback
     {
         public void onSuccess(ImageElement e);
@@ -19,20 +19,23 @@ package com.ait.lienzo.client.core.image;
 import java.util.Collection;
 
 import com.ait.lienzo.client.core.Context2D;
+import com.ait.lienzo.client.core.config.LienzoCore;
 import com.ait.lienzo.client.core.image.filter.ImageDataFilter;
 import com.ait.lienzo.client.core.image.filter.ImageDataFilterChain;
 import com.ait.lienzo.client.core.image.filter.ImageDataFilterable;
-import com.ait.lienzo.client.core.image.filter.RGBIgnoreAlphaImageDataFilter;
+import com.ait.lienzo.client.core.image.filter.ImageDataTiledFilter;
 import com.ait.lienzo.client.core.shape.AbstractImageShape;
 import com.ait.lienzo.client.core.shape.Layer;
-import com.ait.lienzo.client.core.shape.json.IFactory;
+import com.ait.lienzo.client.core.shape.Node;
+import com.ait.lienzo.client.core.shape.Viewport;
 import com.ait.lienzo.client.core.types.BoundingBox;
+import com.ait.lienzo.client.core.types.BoundingPoints;
 import com.ait.lienzo.client.core.types.ImageData;
+import com.ait.lienzo.client.core.types.Transform;
 import com.ait.lienzo.client.core.util.ScratchPad;
-import com.ait.lienzo.shared.core.types.ImageFilterType;
+import com.ait.lienzo.client.core.util.ScratchPadPool;
 import com.ait.lienzo.shared.core.types.ImageSelectionMode;
 import com.google.gwt.dom.client.ImageElement;
-import com.google.gwt.json.client.JSONObject;
 import com.google.gwt.resources.client.ImageResource;
 
 /**
@@ -40,15 +43,21 @@ import com.google.gwt.resources.client.ImageResource;
  */
 public class ImageProxy<T extends AbstractImageShape<T>> implements ImageDataFilterable<ImageProxy<T>>
 {
+    private static final int           MINIMUM_PYRAMID_SIZE = 64;
+
+    private static int                 s_pyramids           = 0;
+
     private T                          m_image;
 
     private ImageElement               m_jsimg;
 
-    private final ScratchPad           m_normalImage = new ScratchPad(0, 0);
+    private ScratchPad                 m_filterImage        = null;
+
+    private ImageFilterCache.Entry     m_filterEntry        = null;
 
-    private final ScratchPad           m_filterImage = new ScratchPad(0, 0);
+    private ImageFilterExecutor.Task   m_task               = null;
 
-    private final ScratchPad           m_selectImage = new ScratchPad(0, 0);
+    private ImageAlphaMask             m_alphaMask          = null;
 
     private int                        m_clip_xpos;
 
@@ -62,23 +71,37 @@ public class ImageProxy<T extends AbstractImageShape<T>> implements ImageDataFil
 
     private int                        m_dest_high;
 
-    private boolean                    m_is_done     = false;
+    private boolean                    m_is_done            = false;
+
+    private boolean                    m_retained           = false;
+
+    private String                     m_cache_url          = null;
+
+    private String                     m_src_key            = null;
 
-    private boolean                    m_x_forms     = false;
+    private boolean                    m_refilter           = false;
 
-    private boolean                    m_fastout     = false;
+    private boolean                    m_x_forms            = false;
 
-    private String                     m_message     = "";
+    private boolean                    m_fastout            = false;
 
-    private String                     m_k_color     = null;
+    private String                     m_message            = "";
+
+    private String                     m_k_color            = null;
 
     private ImageShapeLoadedHandler<T> m_handler;
 
-    private ImageDataFilter<?>         m_ignores     = new ClearFilter();
+    private final ImageDataFilterChain m_filters            = new ImageDataFilterChain();
+
+    private ImageClipBounds            m_obounds            = null;
+
+    private final String               m_pyramid            = "#" + (++s_pyramids);
 
-    private final ImageDataFilterChain m_filters     = new ImageDataFilterChain();
+    private String                     m_fast_key           = null;
 
-    private ImageClipBounds            m_obounds     = null;
+    private double                     m_level_scale        = 0;
+
+    private int                        m_level              = 0;
 
     /**
      * Creates an ImageProxy for the specified {@link AbstractImageShape}.
@@ -106,11 +129,40 @@ public class ImageProxy<T extends AbstractImageShape<T>> implements ImageDataFil
 
         m_dest_high = m_obounds.getDestHigh();
 
-        new ImageLoader(url)
+        releaseImage();
+
+        m_cache_url = url;
+
+        ImageCache.get().acquire(url, new ImageLoadQueue.Priority()
+        {
+            @Override
+            public final boolean isInViewport()
+            {
+                return isImageInViewport();
+            }
+        }, new ImageCache.Handler()
         {
             @Override
             public final void onImageElementLoad(final ImageElement elem)
             {
+                if (false == url.equals(m_cache_url))
+                {
+                    // another image was loaded meanwhile
+
+                    ImageCache.get().release(url);
+
+                    return;
+                }
+                if (null != m_image.getParent())
+                {
+                    m_retained = true;
+                }
+                else
+                {
+                    // detached while loading, the reference is taken again if the shape is attached
+
+                    ImageCache.get().release(url);
+                }
                 doInitialize(elem);
             }
 
@@ -119,11 +171,15 @@ public class ImageProxy<T extends AbstractImageShape<T>> implements ImageDataFil
             {
                 doneLoading(false, message);
             }
-        };
+        });
     }
 
     public final void load(final ImageResource resource)
     {
+        releaseImage();
+
+        m_cache_url = null;
+
         m_obounds = m_image.getImageClipBounds();
 
         m_clip_xpos = m_obounds.getClipXPos();
@@ -154,10 +210,56 @@ public class ImageProxy<T extends AbstractImageShape<T>> implements ImageDataFil
         };
     }
 
+    /**
+     * Returns whether the image shape is visible and its bounds, as far as they are known before the image loads, are in its viewport.
+     */
+    private final boolean isImageInViewport()
+    {
+        if (false == m_image.isVisible())
+        {
+            return false;
+        }
+        final Layer layer = m_image.getLayer();
+
+        if ((null == layer) || (false == layer.isVisible()))
+        {
+            return false;
+        }
+        final Viewport viewport = layer.getViewport();
+
+        if (null == viewport)
+        {
+            return false;
+        }
+        final BoundingPoints points = m_image.getComputedBoundingPoints();
+
+        if (null == points)
+        {
+            return false;
+        }
+        final BoundingBox bbox = points.getBoundingBox();
+
+        if (null == bbox)
+        {
+            return false;
+        }
+        final Transform transform = viewport.getTransform();
+
+        final BoundingBox view = (null != transform) ? transform.transform(bbox) : bbox;
+
+        return view.intersects(new BoundingBox(0, 0, viewport.getWidth(), viewport.getHeight()));
+    }
+
     private final void doInitialize(final ImageElement image)
     {
         m_jsimg = image;
 
+        m_src_key = ImageFilterCache.getSourceKey(image.getSrc());
+
+        m_fast_key = null;
+
+        m_level_scale = 0;
+
         if (m_clip_wide == 0)
         {
             m_clip_wide = m_jsimg.getWidth();
@@ -178,25 +280,13 @@ public class ImageProxy<T extends AbstractImageShape<T>> implements ImageDataFil
         {
             m_fastout = true;
 
+            doReleaseImages();
+
             doneLoading(true, "loaded " + m_image.getURL());
         }
         else
         {
-            m_fastout = false;
-
-            m_normalImage.setPixelSize(m_dest_wide, m_dest_high);
-
-            m_filterImage.setPixelSize(m_dest_wide, m_dest_high);
-
-            m_selectImage.setPixelSize(m_dest_wide, m_dest_high);
-
-            m_normalImage.clear();
-
-            m_normalImage.getContext().drawImage(m_jsimg, m_clip_xpos, m_clip_ypos, m_clip_wide, m_clip_high, 0, 0, m_dest_wide, m_dest_high);
-
-            m_x_forms = m_filters.isTransforming();
-
-            doFiltering(m_normalImage, m_filterImage, m_filters);
+            doFilterImage();
 
             if ((false == m_image.isListening()) || (ImageSelectionMode.SELECT_BOUNDS == m_image.getImageSelectionMode()))
             {
@@ -204,7 +294,7 @@ public class ImageProxy<T extends AbstractImageShape<T>> implements ImageDataFil
             }
             else
             {
-                doFiltering(m_filterImage, m_selectImage, m_ignores);
+                doSelectFiltering();
 
                 doneLoading(true, "loaded " + m_image.getURL());
             }
@@ -212,38 +302,92 @@ public class ImageProxy<T extends AbstractImageShape<T>> implements ImageDataFil
     }
 
     /**
-     * Returns whether the image has been loaded and whether the
-     * selection layer image has been prepared (if needed.)
-     * 
-     * @return
+     * References the loaded image in the {@link ImageCache} again, i.e. when the image shape is attached to a parent.
      */
-    public boolean isLoaded()
+    public void retainImage()
     {
-        return m_is_done;
+        if ((false == m_retained) && (null != m_cache_url) && (null != m_jsimg))
+        {
+            m_retained = true;
+
+            ImageCache.get().retain(m_cache_url, m_jsimg);
+        }
+        doRefilterCheck();
     }
 
-    public final void setColorKey(final String ckey)
+    /**
+     * Drops the reference to the loaded image in the {@link ImageCache}, i.e. when the image shape is removed from its parent,
+     * so the cache may evict it. The filter image is given back to the {@link ImageFilterCache} too, and any filtering in
+     * progress cancelled. The image can still be drawn, it is filtered again first, from the cache if still there.
+     */
+    public void releaseImage()
     {
-        if (null == ckey)
+        if (m_retained)
         {
-            m_k_color = ckey;
+            m_retained = false;
 
-            m_ignores = new ClearFilter();
+            ImageCache.get().release(m_cache_url);
         }
-        else if (false == ckey.equals(m_k_color))
+        if ((null != m_filterEntry) || (null != m_task))
         {
-            m_k_color = ckey;
+            doCancelFiltering();
+
+            ImageFilterCache.get().release(m_filterEntry);
 
-            m_ignores = new RGBIgnoreAlphaImageDataFilter(m_k_color);
+            m_filterEntry = null;
+
+            m_filterImage = null;
+
+            m_refilter = true;
         }
-        else
+    }
+
+    /**
+     * Gets back the filter image given up by {@link #releaseImage()}.
+     */
+    private final void doRefilterCheck()
+    {
+        if ((false == m_refilter) || (null == m_jsimg))
         {
             return;
         }
-        if (isLoaded())
+        m_refilter = false;
+
+        if ((false == (m_filters.isActive())) && (ImageSelectionMode.SELECT_BOUNDS == m_image.getImageSelectionMode()))
+        {
+            m_fastout = true;
+
+            doReleaseImages();
+        }
+        else
+        {
+            doFilterImage();
+        }
+    }
+
+    /**
+     * Returns whether the image has been loaded and whether the
+     * selection layer image has been prepared (if needed.)
+     * 
+     * @return
+     */
+    public boolean isLoaded()
+    {
+        return m_is_done;
+    }
+
+    public final void setColorKey(final String ckey)
+    {
+        if ((null == ckey) ? (null == m_k_color) : ckey.equals(m_k_color))
         {
-            doFiltering(m_filterImage, m_selectImage, m_ignores);
+            return;
+        }
+        m_k_color = ckey;
+
+        // the mask is filled with the color key when drawn, so only the selection layer needs redrawing
 
+        if ((isLoaded()) && (null != m_alphaMask))
+        {
             if (m_image.isVisible())
             {
                 final Layer layer = m_image.getLayer();
@@ -286,86 +430,216 @@ public class ImageProxy<T extends AbstractImageShape<T>> implements ImageDataFil
         }
     }
 
+    /**
+     * Filters the image again, i.e. after the filters or their parameters changed, and notifies the handler once done.
+     * <p>
+     * Large images with an {@link ImageDataTiledFilter} are filtered across animation frames by the {@link ImageFilterExecutor},
+     * drawing the previous image meanwhile. A later call, or a change of the filter parameters before it is done, cancels it.
+     *
+     * @param handler
+     */
     public void reFilter(final ImageShapeFilteredHandler<T> handler)
     {
+        doCancelFiltering();
+
         if ((false == (m_filters.isActive())) && (ImageSelectionMode.SELECT_BOUNDS == m_image.getImageSelectionMode()))
         {
             m_fastout = true;
 
+            doReleaseImages();
+
             handler.onImageShapeFiltered(m_image);
         }
-        else
+        else if (false == doTiledFiltering(handler))
         {
-            if (m_fastout)
-            {
-                m_normalImage.setPixelSize(m_dest_wide, m_dest_high);
+            m_fastout = false;
+
+            boolean did_xform = m_x_forms;
 
-                m_filterImage.setPixelSize(m_dest_wide, m_dest_high);
+            m_x_forms = m_filters.isTransforming();
 
-                m_selectImage.setPixelSize(m_dest_wide, m_dest_high);
+            doNormalFiltering(m_filters);
 
-                m_normalImage.clear();
+            doneFiltering(did_xform, handler);
+        }
+    }
 
-                m_normalImage.getContext().drawImage(m_jsimg, m_clip_xpos, m_clip_ypos, m_clip_wide, m_clip_high, 0, 0, m_dest_wide, m_dest_high);
+    private final void doneFiltering(final boolean did_xform, final ImageShapeFilteredHandler<T> handler)
+    {
+        if ((m_image.isListening()) && (ImageSelectionMode.SELECT_BOUNDS != m_image.getImageSelectionMode()) && (did_xform || m_x_forms) && (null != m_alphaMask))
+        {
+            doSelectFiltering();
+        }
+        if (null != handler)
+        {
+            handler.onImageShapeFiltered(m_image);
+        }
+        else if (m_image.isVisible())
+        {
+            final Layer layer = m_image.getLayer();
 
-                m_fastout = false;
+            if (null != layer)
+            {
+                layer.batch();
             }
-            boolean did_xform = m_x_forms;
+        }
+    }
 
-            m_x_forms = m_filters.isTransforming();
+    /**
+     * Filters the image with the current filters once it is loaded, resized or attached again. Like {@link #reFilter(ImageShapeFilteredHandler)},
+     * large images with an {@link ImageDataTiledFilter} are filtered across animation frames, the image being drawn unfiltered
+     * meanwhile and its Layer redrawn once done.
+     */
+    private final void doFilterImage()
+    {
+        doCancelFiltering();
 
-            doFiltering(m_normalImage, m_filterImage, m_filters);
+        m_fastout = false;
 
-            if ((false == m_image.isListening()) || (ImageSelectionMode.SELECT_BOUNDS == m_image.getImageSelectionMode()))
+        m_x_forms = m_filters.isTransforming();
+
+        if (false == doTiledFiltering(null))
+        {
+            doNormalFiltering(m_filters);
+        }
+    }
+
+    /**
+     * Starts filtering the image across animation frames if it is large enough, and not already filtered with these filters.
+     * Without a handler the filter image no longer matches the image bounds, so it is dropped and the image drawn unfiltered.
+     *
+     * @return false if the image should be filtered at once
+     */
+    private final boolean doTiledFiltering(final ImageShapeFilteredHandler<T> handler)
+    {
+        if (((m_dest_wide * m_dest_high) < ImageFilterExecutor.get().getMinimumPixels()) || (false == isTiled(m_filters)))
+        {
+            return false;
+        }
+        final String key = getFilterKey(m_filters);
+
+        if ((null != key) && (((null != m_filterEntry) && (key.equals(m_filterEntry.getKey()))) || (ImageFilterCache.get().contains(key))))
+        {
+            return false;
+        }
+        final ImageData source;
+
+        final ScratchPad normal = ScratchPadPool.get().acquire(m_dest_wide, m_dest_high);
+
+        try
+        {
+            normal.getContext().drawImage(m_jsimg, m_clip_xpos, m_clip_ypos, m_clip_wide, m_clip_high, 0, 0, m_dest_wide, m_dest_high);
+
+            source = normal.getContext().getImageData(0, 0, m_dest_wide, m_dest_high);
+
+            ScratchPadPool.get().release(normal);
+        }
+        catch (RuntimeException e)
+        {
+            // a tainted image is left to the normal filtering, which reports the failure
+
+            ScratchPadPool.get().discard(normal);
+
+            return false;
+        }
+        if ((null == handler) || (null == m_filterImage))
+        {
+            doReleaseImages();
+
+            m_fastout = true;
+        }
+        m_task = ImageFilterExecutor.get().submit(m_filters.start(source), new ImageFilterExecutor.Listener()
+        {
+            @Override
+            public boolean isCurrent()
             {
-                handler.onImageShapeFiltered(m_image);
+                final String now = getFilterKey(m_filters);
+
+                return (null == key) ? (null == now) : key.equals(now);
             }
-            else if (did_xform || m_x_forms)
+
+            @Override
+            public void onFiltered(final ImageData result)
             {
-                doFiltering(m_filterImage, m_selectImage, m_ignores);
+                m_task = null;
 
-                handler.onImageShapeFiltered(m_image);
+                doTiledFiltered(key, result, handler);
             }
-            else
+        });
+        return true;
+    }
+
+    private final void doTiledFiltered(final String key, final ImageData result, final ImageShapeFilteredHandler<T> handler)
+    {
+        final ScratchPad target = ScratchPadPool.get().acquire(m_dest_wide, m_dest_high);
+
+        target.getContext().putImageData(result, 0, 0);
+
+        ImageFilterCache.get().release(m_filterEntry);
+
+        m_filterEntry = ImageFilterCache.get().create(key, target);
+
+        m_filterImage = target;
+
+        m_fastout = false;
+
+        final boolean did_xform = m_x_forms;
+
+        m_x_forms = m_filters.isTransforming();
+
+        doneFiltering(did_xform, handler);
+    }
+
+    private final void doCancelFiltering()
+    {
+        if (null != m_task)
+        {
+            m_task.cancel();
+
+            m_task = null;
+        }
+    }
+
+    private static final boolean isTiled(final ImageDataFilterChain chain)
+    {
+        if (chain.isActive())
+        {
+            for (ImageDataFilter<?> filter : chain.getFilters())
             {
-                handler.onImageShapeFiltered(m_image);
+                if ((null != filter) && (filter.isActive()) && (filter instanceof ImageDataTiledFilter))
+                {
+                    return true;
+                }
             }
         }
+        return false;
     }
 
     public void unFilter(final ImageShapeFilteredHandler<T> handler)
     {
+        doCancelFiltering();
+
         if ((false == (m_filters.isActive())) && (ImageSelectionMode.SELECT_BOUNDS == m_image.getImageSelectionMode()))
         {
             m_fastout = true;
 
+            doReleaseImages();
+
             handler.onImageShapeFiltered(m_image);
         }
         else
         {
-            if (m_fastout)
-            {
-                m_normalImage.setPixelSize(m_dest_wide, m_dest_high);
-
-                m_filterImage.setPixelSize(m_dest_wide, m_dest_high);
-
-                m_selectImage.setPixelSize(m_dest_wide, m_dest_high);
-
-                m_normalImage.clear();
-
-                m_normalImage.getContext().drawImage(m_jsimg, m_clip_xpos, m_clip_ypos, m_clip_wide, m_clip_high, 0, 0, m_dest_wide, m_dest_high);
+            m_fastout = false;
 
-                m_fastout = false;
-            }
-            doFiltering(m_normalImage, m_filterImage, null);
+            doNormalFiltering(null);
 
             if ((false == m_image.isListening()) || (ImageSelectionMode.SELECT_BOUNDS == m_image.getImageSelectionMode()))
             {
                 handler.onImageShapeFiltered(m_image);
             }
-            else if (m_x_forms)
+            else if ((m_x_forms) && (null != m_alphaMask))
             {
-                doFiltering(m_filterImage, m_selectImage, m_ignores);
+                doSelectFiltering();
 
                 handler.onImageShapeFiltered(m_image);
             }
@@ -460,6 +734,10 @@ public class ImageProxy<T extends AbstractImageShape<T>> implements ImageDataFil
         {
             m_obounds = bounds;
 
+            m_fast_key = null;
+
+            m_level_scale = 0;
+
             m_clip_xpos = m_obounds.getClipXPos();
 
             m_clip_ypos = m_obounds.getClipYPos();
@@ -491,31 +769,130 @@ public class ImageProxy<T extends AbstractImageShape<T>> implements ImageDataFil
             if ((false == (m_filters.isActive())) && (ImageSelectionMode.SELECT_BOUNDS == m_image.getImageSelectionMode()))
             {
                 m_fastout = true;
+
+                doReleaseImages();
             }
             else
             {
-                m_fastout = false;
+                doFilterImage();
 
-                m_normalImage.setPixelSize(m_dest_wide, m_dest_high);
+                if ((m_image.isListening()) && (ImageSelectionMode.SELECT_NON_TRANSPARENT == m_image.getImageSelectionMode()))
+                {
+                    doSelectFiltering();
+                }
+                else
+                {
+                    m_alphaMask = null;
+                }
+            }
+        }
+    }
 
-                m_filterImage.setPixelSize(m_dest_wide, m_dest_high);
+    /**
+     * Draws the clipped image into a pooled pad and filters it into the filter image. The unfiltered pad is only
+     * needed while filtering, so it goes straight back to the {@link ScratchPadPool}.
+     * <p>
+     * The filter image is shared through the {@link ImageFilterCache} with every proxy drawing the same image region through the same filters.
+     */
+    private final void doNormalFiltering(final ImageDataFilter<?> filter)
+    {
+        final ImageFilterCache cache = ImageFilterCache.get();
 
-                m_selectImage.setPixelSize(m_dest_wide, m_dest_high);
+        final String key = getFilterKey(filter);
 
-                m_normalImage.clear();
+        if (null != key)
+        {
+            if ((null != m_filterEntry) && (key.equals(m_filterEntry.getKey())))
+            {
+                return;
+            }
+            final ImageFilterCache.Entry entry = cache.acquire(key);
 
-                m_normalImage.getContext().drawImage(m_jsimg, m_clip_xpos, m_clip_ypos, m_clip_wide, m_clip_high, 0, 0, m_dest_wide, m_dest_high);
+            if (null != entry)
+            {
+                cache.release(m_filterEntry);
 
-                m_x_forms = m_filters.isTransforming();
+                m_filterEntry = entry;
 
-                doFiltering(m_normalImage, m_filterImage, m_filters);
+                m_filterImage = entry.getScratchPad();
 
-                if ((m_image.isListening()) && (ImageSelectionMode.SELECT_NON_TRANSPARENT == m_image.getImageSelectionMode()))
-                {
-                    doFiltering(m_filterImage, m_selectImage, m_ignores);
-                }
+                return;
+            }
+        }
+        // a pad only this proxy draws can be filtered again in place, a shared one must be left to the others
+
+        final boolean reuse = ((null == key) && (null != m_filterEntry) && (m_filterEntry.isPrivate()) && (isImagePad(m_filterEntry.getScratchPad())));
+
+        final ScratchPad target = reuse ? m_filterEntry.getScratchPad() : ScratchPadPool.get().acquire(m_dest_wide, m_dest_high);
+
+        final ScratchPad normal = ScratchPadPool.get().acquire(m_dest_wide, m_dest_high);
+
+        try
+        {
+            normal.getContext().drawImage(m_jsimg, m_clip_xpos, m_clip_ypos, m_clip_wide, m_clip_high, 0, 0, m_dest_wide, m_dest_high);
+
+            doFiltering(normal, target, filter);
+
+            ScratchPadPool.get().release(normal);
+        }
+        catch (RuntimeException e)
+        {
+            // getImageData() fails on a pad tainted by a cross-origin image, which must never be handed out again
+
+            ScratchPadPool.get().discard(normal);
+
+            if (false == reuse)
+            {
+                ScratchPadPool.get().release(target);
             }
+            throw e;
+        }
+        if (false == reuse)
+        {
+            // only shared once filtered, so a failure never leaves a blank image in the cache
+
+            cache.release(m_filterEntry);
+
+            m_filterEntry = cache.create(key, target);
+        }
+        else
+        {
+            // filtered again in place, so the levels of the private pyramid are stale
+
+            ImagePyramidCache.get().remove(m_pyramid);
         }
+        m_filterImage = target;
+    }
+
+    /**
+     * Builds the selection mask from the filter image. It is also built on demand the first time the image is drawn for selection.
+     */
+    private final void doSelectFiltering()
+    {
+        doRefilterCheck();
+
+        m_alphaMask = new ImageAlphaMask(m_fastout ? getNormalImageData() : m_filterImage.getContext().getImageData(0, 0, m_dest_wide, m_dest_high));
+    }
+
+    private final void doReleaseImages()
+    {
+        ImageFilterCache.get().release(m_filterEntry);
+
+        m_filterEntry = null;
+
+        m_filterImage = null;
+
+        m_alphaMask = null;
+    }
+
+    private final String getFilterKey(final ImageDataFilter<?> filter)
+    {
+        return ImageFilterCache.getKey(m_src_key, new int[] { m_clip_xpos, m_clip_ypos, m_clip_wide, m_clip_high, m_dest_wide, m_dest_high }, filter);
+    }
+
+    private final boolean isImagePad(final ScratchPad spad)
+    {
+        return ((null != spad) && (spad.getWidth() == ScratchPadPool.getSizeClass(m_dest_wide)) && (spad.getHeight() == ScratchPadPool.getSizeClass(m_dest_high)));
     }
 
     private final void doFiltering(final ScratchPad source, final ScratchPad target, final ImageDataFilter<?> filter)
@@ -546,6 +923,8 @@ public class ImageProxy<T extends AbstractImageShape<T>> implements ImageDataFil
     {
         if (isLoaded())
         {
+            doRefilterCheck();
+
             doUpdateCheck();
 
             if (context.isSelection())
@@ -564,21 +943,133 @@ public class ImageProxy<T extends AbstractImageShape<T>> implements ImageDataFil
                 }
                 else
                 {
-                    context.drawImage(m_selectImage.getElement(), 0, 0);
+                    if (null == m_alphaMask)
+                    {
+                        doSelectFiltering();
+                    }
+                    context.setFillColor(m_image.getColorKey());
+
+                    m_alphaMask.fill(context);
                 }
             }
             else
             {
-                if (m_fastout)
+                final ImagePyramidCache.Level level = getPyramidLevel();
+
+                if (null != level)
+                {
+                    context.drawImage(level.getScratchPad().getElement(), 0, 0, level.getWidth(), level.getHeight(), 0, 0, m_dest_wide, m_dest_high);
+                }
+                else if (m_fastout)
                 {
                     context.drawImage(m_jsimg, m_clip_xpos, m_clip_ypos, m_clip_wide, m_clip_high, 0, 0, m_dest_wide, m_dest_high);
                 }
                 else
                 {
-                    context.drawImage(m_filterImage.getElement(), 0, 0);
+                    context.drawImage(m_filterImage.getElement(), 0, 0, m_dest_wide, m_dest_high, 0, 0, m_dest_wide, m_dest_high);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the {@link ImagePyramidCache} level to draw when the image is on screen at half its size or less, or null to draw the image itself.
+     */
+    private final ImagePyramidCache.Level getPyramidLevel()
+    {
+        if ((m_dest_wide < MINIMUM_PYRAMID_SIZE) && (m_dest_high < MINIMUM_PYRAMID_SIZE))
+        {
+            return null;
+        }
+        final double scale = getScreenScale();
+
+        if (scale != m_level_scale)
+        {
+            m_level_scale = scale;
+
+            m_level = ImagePyramidCache.getLevel(m_dest_wide, m_dest_high, scale);
+        }
+        final int level = m_level;
+
+        if (level < 1)
+        {
+            return null;
+        }
+        if (m_fastout)
+        {
+            if (null == m_fast_key)
+            {
+                final String key = getFilterKey(null);
+
+                m_fast_key = (null != key) ? key : m_pyramid;
+            }
+            return ImagePyramidCache.get().getLevel(m_fast_key, m_jsimg, m_dest_wide, m_dest_high, level, new ImagePyramidCache.Source()
+            {
+                @Override
+                public final void draw(final Context2D context, final int wide, final int high)
+                {
+                    context.drawImage(m_jsimg, m_clip_xpos, m_clip_ypos, m_clip_wide, m_clip_high, 0, 0, wide, high);
                 }
+            });
+        }
+        final ScratchPad base = m_filterImage;
+
+        return ImagePyramidCache.get().getLevel(getPyramidKey(), base, m_dest_wide, m_dest_high, level, new ImagePyramidCache.Source()
+        {
+            @Override
+            public final void draw(final Context2D context, final int wide, final int high)
+            {
+                context.drawImage(base.getElement(), 0, 0, m_dest_wide, m_dest_high, 0, 0, wide, high);
+            }
+        });
+    }
+
+    /**
+     * Returns the device pixels per pixel of the image on screen. Only the Viewport transform is read while no node above
+     * the image is rotated, scaled or sheared, otherwise the whole absolute transform is built.
+     */
+    private final double getScreenScale()
+    {
+        Transform xfrm = null;
+
+        for (Node<?> node = m_image; null != node; node = node.getParent())
+        {
+            final Viewport viewport = node.asViewport();
+
+            if (null != viewport)
+            {
+                xfrm = viewport.getTransform();
+
+                break;
+            }
+            if (node.getAttributes().hasComplexTransformAttributes())
+            {
+                xfrm = m_image.getAbsoluteTransform();
+
+                break;
             }
         }
+        if (null == xfrm)
+        {
+            return LienzoCore.get().getDeviceScale();
+        }
+        final double sx = Math.sqrt((xfrm.getScaleX() * xfrm.getScaleX()) + (xfrm.getShearY() * xfrm.getShearY()));
+
+        final double sy = Math.sqrt((xfrm.getShearX() * xfrm.getShearX()) + (xfrm.getScaleY() * xfrm.getScaleY()));
+
+        return Math.max(sx, sy) * LienzoCore.get().getDeviceScale();
+    }
+
+    /**
+     * Returns the pyramid key of the filter image, its {@link ImageFilterCache} key if shared, otherwise one private to this proxy.
+     */
+    private final String getPyramidKey()
+    {
+        if ((null != m_filterEntry) && (null != m_filterEntry.getKey()))
+        {
+            return m_filterEntry.getKey();
+        }
+        return m_pyramid;
     }
 
     public String getLoadedMessage()
@@ -598,17 +1089,37 @@ public class ImageProxy<T extends AbstractImageShape<T>> implements ImageDataFil
         {
             return null;
         }
+        doRefilterCheck();
+
         if (m_fastout)
         {
-            ScratchPad temp = new ScratchPad(m_dest_wide, m_dest_high);
+            return getNormalImageData();
+        }
+        else
+        {
+            return m_filterImage.getContext().getImageData(0, 0, m_dest_wide, m_dest_high);
+        }
+    }
 
+    private final ImageData getNormalImageData()
+    {
+        final ScratchPad temp = ScratchPadPool.get().acquire(m_dest_wide, m_dest_high);
+
+        try
+        {
             temp.getContext().drawImage(m_jsimg, m_clip_xpos, m_clip_ypos, m_clip_wide, m_clip_high, 0, 0, m_dest_wide, m_dest_high);
 
-            return temp.getContext().getImageData(0, 0, m_dest_wide, m_dest_high);
+            final ImageData data = temp.getContext().getImageData(0, 0, m_dest_wide, m_dest_high);
+
+            ScratchPadPool.get().release(temp);
+
+            return data;
         }
-        else
+        catch (RuntimeException e)
         {
-            return m_filterImage.getContext().getImageData(0, 0, m_dest_wide, m_dest_high);
+            ScratchPadPool.get().discard(temp);
+
+            throw e;
         }
     }
 
@@ -624,6 +1135,8 @@ public class ImageProxy<T extends AbstractImageShape<T>> implements ImageDataFil
         {
             return null;
         }
+        doRefilterCheck();
+
         if ((m_fastout) || (false == filtered))
         {
             final ScratchPad temp = new ScratchPad(m_jsimg.getWidth(), m_jsimg.getHeight());
@@ -634,7 +1147,13 @@ public class ImageProxy<T extends AbstractImageShape<T>> implements ImageDataFil
         }
         else
         {
-            return m_filterImage.toDataURL();
+            // pooled pads may be larger than the image, so copy the image region into an exact size pad
+
+            final ScratchPad temp = new ScratchPad(m_dest_wide, m_dest_high);
+
+            temp.getContext().drawImage(m_filterImage.getElement(), 0, 0, m_dest_wide, m_dest_high, 0, 0, m_dest_wide, m_dest_high);
+
+            return temp.toDataURL();
         }
     }
 
@@ -670,53 +1189,28 @@ public class ImageProxy<T extends AbstractImageShape<T>> implements ImageDataFil
         return new BoundingBox(0, 0, m_dest_wide, m_dest_high);
     }
 
-    private static final class ClearFilter implements ImageDataFilter<ClearFilter>
+    /**
+     * Returns whether the point, in the image's coordinates, selects the image. For {@link ImageSelectionMode#SELECT_NON_TRANSPARENT}
+     * this reads the alpha mask of the filtered image, so it matches what the selection layer would find at the point.
+     *
+     * @param x
+     * @param y
+     * @return boolean
+     */
+    public boolean isSelectableAt(final double x, final double y)
     {
-        @Override
-        public String toJSONString()
-        {
-            return null;
-        }
-
-        @Override
-        public JSONObject toJSONObject()
-        {
-            return null;
-        }
-
-        @Override
-        public IFactory<?> getFactory()
-        {
-            return null;
-        }
-
-        @Override
-        public ImageData filter(ImageData source, boolean copy)
-        {
-            return source;
-        }
-
-        @Override
-        public boolean isTransforming()
+        if ((false == isLoaded()) || (x < 0) || (y < 0) || (x >= m_dest_wide) || (y >= m_dest_high))
         {
             return false;
         }
-
-        @Override
-        public boolean isActive()
+        if ((m_fastout) || (ImageSelectionMode.SELECT_BOUNDS == m_image.getImageSelectionMode()))
         {
             return true;
         }
-
-        @Override
-        public void setActive(boolean active)
-        {
-        }
-
-        @Override
-        public ImageFilterType getType()
+        if (null == m_alphaMask)
         {
-            return null;
+            doSelectFiltering();
         }
+        return m_alphaMask.isSet((int) x, (int) y);
     }
 }
@@ -0,0 +1,367 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.image;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import com.ait.lienzo.client.core.Context2D;
+import com.ait.lienzo.client.core.util.ScratchPad;
+import com.ait.lienzo.client.core.util.ScratchPadPool;
+
+/**
+ * ImagePyramidCache is a shared cache of mip-map pyramids, so an {@link ImageProxy} drawn far smaller than its size
+ * draws a prepared smaller copy of its image instead of downscaling the whole image on every draw.
+ * <p>
+ * Level n of a pyramid is the image at half the size of level n - 1, level 0 being the image itself, which is not kept here.
+ * Levels are built on demand, each from the one above it, so every step halves. Pyramids are keyed like the
+ * {@link ImageFilterCache}, so proxies sharing a filtered image share its pyramid. Once the bytes of all levels would
+ * exceed the memory budget the least recently used pyramids are dropped, and a level that still does not fit is not built.
+ */
+public final class ImagePyramidCache
+{
+    public static final long                     DEFAULT_MEMORY_BUDGET = 32L * 1024L * 1024L;
+
+    public static final int                      MAXIMUM_LEVEL         = 8;
+
+    private static final ImagePyramidCache       INSTANCE              = new ImagePyramidCache();
+
+    private final LinkedHashMap<String, Pyramid> m_pyramids            = new LinkedHashMap<String, Pyramid>(16, 0.75f, true);
+
+    private long                                 m_budget              = DEFAULT_MEMORY_BUDGET;
+
+    private long                                 m_bytes               = 0L;
+
+    private long                                 m_hits                = 0L;
+
+    private long                                 m_miss                = 0L;
+
+    private long                                 m_evicted             = 0L;
+
+    private Pyramid                              m_building            = null;
+
+    public static final ImagePyramidCache get()
+    {
+        return INSTANCE;
+    }
+
+    private ImagePyramidCache()
+    {
+        ScratchPadPool.get().addHolder(new ScratchPadPool.Holder()
+        {
+            @Override
+            public void trim(final long bytes)
+            {
+                ImagePyramidCache.this.trim(m_bytes - bytes, m_building);
+            }
+        });
+    }
+
+    /**
+     * Returns the pyramid level for an image drawn at the given scale: the smallest level still at least as large as the image on screen.
+     *
+     * @param wide the width of level 0
+     * @param high the height of level 0
+     * @param scale the device pixels per pixel of level 0
+     * @return int
+     */
+    static final int getLevel(final int wide, final int high, final double scale)
+    {
+        if ((scale >= 0.5) || (scale <= 0))
+        {
+            return 0;
+        }
+        int level = Math.min(MAXIMUM_LEVEL, (int) Math.floor(-Math.log(scale) / Math.log(2)));
+
+        while ((level > 0) && (((wide >> level) < 1) || ((high >> level) < 1)))
+        {
+            level--;
+        }
+        return level;
+    }
+
+    /**
+     * Returns a level of the pyramid for the key, building it and the levels above it if needed. A pyramid built from another
+     * base or size is dropped first, so a key whose image changed in place is rebuilt.
+     *
+     * @param key identifies the image
+     * @param base the pad or element the image is drawn from, compared by identity
+     * @param wide the width of level 0
+     * @param high the height of level 0
+     * @param level the level, at least 1
+     * @param source draws level 0 scaled into a context, for building level 1
+     * @return Level, or null if it does not fit the memory budget
+     */
+    final Level getLevel(final String key, final Object base, final int wide, final int high, final int level, final Source source)
+    {
+        Pyramid pyramid = m_pyramids.get(key);
+
+        if ((null != pyramid) && ((pyramid.m_base != base) || (pyramid.m_wide != wide) || (pyramid.m_high != high)))
+        {
+            m_pyramids.remove(key);
+
+            drop(pyramid);
+
+            pyramid = null;
+        }
+        if (null == pyramid)
+        {
+            pyramid = new Pyramid(base, wide, high);
+
+            m_pyramids.put(key, pyramid);
+        }
+        if (level <= pyramid.m_levels.size())
+        {
+            m_hits++;
+
+            return pyramid.m_levels.get(level - 1);
+        }
+        m_miss++;
+
+        // the pool may ask for pads back while acquiring, but not for the levels this pyramid is built from
+
+        m_building = pyramid;
+
+        for (int n = pyramid.m_levels.size() + 1; n <= level; n++)
+        {
+            final int lw = Math.max(1, wide >> n);
+
+            final int lh = Math.max(1, high >> n);
+
+            final long bytes = 4L * ScratchPadPool.getSizeClass(lw) * ScratchPadPool.getSizeClass(lh);
+
+            trim(m_budget - bytes, pyramid);
+
+            if ((m_bytes + bytes) > m_budget)
+            {
+                m_building = null;
+
+                return null;
+            }
+            final ScratchPad spad = ScratchPadPool.get().acquire(lw, lh);
+
+            final Context2D context = spad.getContext();
+
+            if (null == context)
+            {
+                ScratchPadPool.get().release(spad);
+
+                m_building = null;
+
+                return null;
+            }
+            context.setImageSmoothingEnabled(true);
+
+            if (1 == n)
+            {
+                source.draw(context, lw, lh);
+            }
+            else
+            {
+                final Level prev = pyramid.m_levels.get(n - 2);
+
+                context.drawImage(prev.m_spad.getElement(), 0, 0, prev.m_wide, prev.m_high, 0, 0, lw, lh);
+            }
+            pyramid.m_levels.add(new Level(spad, lw, lh));
+
+            pyramid.m_bytes += bytes;
+
+            m_bytes += bytes;
+        }
+        m_building = null;
+
+        return pyramid.m_levels.get(level - 1);
+    }
+
+    /**
+     * Drops the pyramid for the key, i.e. when its image was changed in place.
+     *
+     * @param key
+     */
+    final void remove(final String key)
+    {
+        final Pyramid pyramid = m_pyramids.remove(key);
+
+        if (null != pyramid)
+        {
+            drop(pyramid);
+        }
+    }
+
+    public final ImagePyramidCache setMemoryBudget(final long budget)
+    {
+        m_budget = Math.max(0L, budget);
+
+        trim(m_budget, null);
+
+        return this;
+    }
+
+    public final long getMemoryBudget()
+    {
+        return m_budget;
+    }
+
+    public final long getMemoryUsage()
+    {
+        return m_bytes;
+    }
+
+    public final int getPyramidCount()
+    {
+        return m_pyramids.size();
+    }
+
+    public final long getHitCount()
+    {
+        return m_hits;
+    }
+
+    public final long getMissCount()
+    {
+        return m_miss;
+    }
+
+    public final long getEvictionCount()
+    {
+        return m_evicted;
+    }
+
+    /**
+     * Drops all the pyramids.
+     *
+     * @return this ImagePyramidCache
+     */
+    public final ImagePyramidCache clear()
+    {
+        for (Pyramid pyramid : m_pyramids.values())
+        {
+            drop(pyramid);
+        }
+        m_pyramids.clear();
+
+        return this;
+    }
+
+    private final void trim(final long limit, final Pyramid keep)
+    {
+        final Iterator<Pyramid> iter = m_pyramids.values().iterator();
+
+        while ((m_bytes > limit) && (iter.hasNext()))
+        {
+            final Pyramid pyramid = iter.next();
+
+            if (pyramid != keep)
+            {
+                iter.remove();
+
+                drop(pyramid);
+
+                m_evicted++;
+            }
+        }
+    }
+
+    private final void drop(final Pyramid pyramid)
+    {
+        for (Level level : pyramid.m_levels)
+        {
+            // levels drawn straight from an element were never read back, so they are not trusted to be untainted
+
+            if (pyramid.m_base instanceof ScratchPad)
+            {
+                ScratchPadPool.get().release(level.m_spad);
+            }
+            else
+            {
+                ScratchPadPool.get().discard(level.m_spad);
+            }
+        }
+        m_bytes -= pyramid.m_bytes;
+
+        pyramid.m_levels.clear();
+
+        pyramid.m_bytes = 0L;
+    }
+
+    /**
+     * Draws level 0 of a pyramid scaled into a context.
+     */
+    interface Source
+    {
+        void draw(Context2D context, int wide, int high);
+    }
+
+    /**
+     * A level of a pyramid, the image at its size in the top left of a pooled pad.
+     */
+    static final class Level
+    {
+        private final ScratchPad m_spad;
+
+        private final int        m_wide;
+
+        private final int        m_high;
+
+        private Level(final ScratchPad spad, final int wide, final int high)
+        {
+            m_spad = spad;
+
+            m_wide = wide;
+
+            m_high = high;
+        }
+
+        final ScratchPad getScratchPad()
+        {
+            return m_spad;
+        }
+
+        final int getWidth()
+        {
+            return m_wide;
+        }
+
+        final int getHeight()
+        {
+            return m_high;
+        }
+    }
+
+    private static final class Pyramid
+    {
+        private final Object           m_base;
+
+        private final int              m_wide;
+
+        private final int              m_high;
+
+        private final ArrayList<Level> m_levels = new ArrayList<Level>(2);
+
+        private long                   m_bytes  = 0L;
+
+        private Pyramid(final Object base, final int wide, final int high)
+        {
+            m_base = base;
+
+            m_wide = wide;
+
+            m_high = high;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.image;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+
+import com.ait.lienzo.client.core.Context2D;
+import com.ait.lienzo.client.core.types.BoundingBox;
+import com.ait.lienzo.client.core.types.SpriteBehaviorMap;
+import com.ait.lienzo.client.core.util.ScratchPad;
+import com.google.gwt.dom.client.CanvasElement;
+import com.google.gwt.dom.client.ImageElement;
+
+/**
+ * SpriteAtlas packs the frames of many small sprite sheets into one backing canvas, so the
+ * {@link com.ait.lienzo.client.core.shape.Sprite} instances drawing them all draw from the same image.
+ * <p>
+ * Each sheet is packed once per key. Only the frames its behaviors use are copied, each once, onto
+ * shelves sorted by height, and a behavior map with the frames moved to where they were packed is kept
+ * for the key. The atlas never evicts, a sheet that does not fit in the space left is simply not packed.
+ *
+ * @see com.ait.lienzo.client.core.shape.Sprite#setSpriteAtlas(SpriteAtlas)
+ */
+public final class SpriteAtlas
+{
+    public static final int                          DEFAULT_SIZE = 2048;
+
+    private static final int                         GUTTER       = 1;
+
+    private final ScratchPad                         m_spad;
+
+    private final HashMap<String, SpriteBehaviorMap> m_sheets     = new HashMap<String, SpriteBehaviorMap>();
+
+    private int                                      m_left       = 0;
+
+    private int                                      m_top        = 0;
+
+    private int                                      m_shelf      = 0;
+
+    private long                                     m_area       = 0L;
+
+    public SpriteAtlas()
+    {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Constructor. Creates a SpriteAtlas.
+     *
+     * @param size the width and height of the backing canvas, in pixels
+     */
+    public SpriteAtlas(final int size)
+    {
+        m_spad = new ScratchPad(Math.max(16, size), Math.max(16, size));
+    }
+
+    /**
+     * Packs the frames of a loaded sprite sheet, unless a sheet was already packed for the key.
+     *
+     * @param key identifies the sheet and its behavior map
+     * @param sheet the loaded sprite sheet
+     * @param bmap the frames of the sheet
+     * @return the behavior map with the frames in the atlas, or null if the frames do not fit
+     */
+    public final SpriteBehaviorMap add(final String key, final ImageElement sheet, final SpriteBehaviorMap bmap)
+    {
+        SpriteBehaviorMap packed = m_sheets.get(key);
+
+        if (null != packed)
+        {
+            return packed;
+        }
+        final Context2D context = m_spad.getContext();
+
+        if (null == context)
+        {
+            return null;
+        }
+        final HashMap<String, Frame> frames = new HashMap<String, Frame>();
+
+        for (String behavior : bmap.getBehaviors())
+        {
+            for (BoundingBox bbox : bmap.getFramesForBehavior(behavior))
+            {
+                final String name = getFrameKey(bbox);
+
+                if (false == frames.containsKey(name))
+                {
+                    frames.put(name, new Frame(bbox));
+                }
+            }
+        }
+        final ArrayList<Frame> sort = new ArrayList<Frame>(frames.values());
+
+        Collections.sort(sort, new Comparator<Frame>()
+        {
+            @Override
+            public int compare(final Frame a, final Frame b)
+            {
+                return b.m_high - a.m_high;
+            }
+        });
+        final int left = m_left;
+
+        final int top = m_top;
+
+        final int shelf = m_shelf;
+
+        for (Frame frame : sort)
+        {
+            if (false == place(frame))
+            {
+                // give back the space taken by the frames placed so far
+
+                m_left = left;
+
+                m_top = top;
+
+                m_shelf = shelf;
+
+                return null;
+            }
+        }
+        for (Frame frame : sort)
+        {
+            if ((frame.m_wide < 1) || (frame.m_high < 1))
+            {
+                continue;
+            }
+            context.drawImage(sheet, frame.m_bbox.getX(), frame.m_bbox.getY(), frame.m_wide, frame.m_high, frame.m_x, frame.m_y, frame.m_wide, frame.m_high);
+
+            m_area += ((long) frame.m_wide) * frame.m_high;
+        }
+        packed = null;
+
+        for (String behavior : bmap.getBehaviors())
+        {
+            final BoundingBox[] boxes = bmap.getFramesForBehavior(behavior);
+
+            final BoundingBox[] moved = new BoundingBox[boxes.length];
+
+            for (int i = 0; i < boxes.length; i++)
+            {
+                final Frame frame = frames.get(getFrameKey(boxes[i]));
+
+                moved[i] = new BoundingBox(frame.m_x, frame.m_y, frame.m_x + boxes[i].getWidth(), frame.m_y + boxes[i].getHeight());
+            }
+            if (null == packed)
+            {
+                packed = new SpriteBehaviorMap(behavior, moved);
+            }
+            else
+            {
+                packed.addBehavior(behavior, moved);
+            }
+        }
+        if (null != packed)
+        {
+            m_sheets.put(key, packed);
+        }
+        return packed;
+    }
+
+    /**
+     * Returns the behavior map of the frames packed for the key, or null if the key was not packed.
+     *
+     * @param key
+     * @return SpriteBehaviorMap
+     */
+    public final SpriteBehaviorMap get(final String key)
+    {
+        return m_sheets.get(key);
+    }
+
+    public final CanvasElement getElement()
+    {
+        return m_spad.getElement();
+    }
+
+    public final int getSize()
+    {
+        return m_spad.getWidth();
+    }
+
+    public final int getSheetCount()
+    {
+        return m_sheets.size();
+    }
+
+    /**
+     * Returns the pixels covered by packed frames, gutters excluded.
+     */
+    public final long getPackedArea()
+    {
+        return m_area;
+    }
+
+    private final boolean place(final Frame frame)
+    {
+        final int size = m_spad.getWidth();
+
+        if ((frame.m_wide > size) || (frame.m_high > size))
+        {
+            return false;
+        }
+        if ((m_left + frame.m_wide) > size)
+        {
+            m_left = 0;
+
+            m_top += m_shelf;
+
+            m_shelf = 0;
+        }
+        if ((m_top + frame.m_high) > size)
+        {
+            return false;
+        }
+        frame.m_x = m_left;
+
+        frame.m_y = m_top;
+
+        m_left += frame.m_wide + GUTTER;
+
+        m_shelf = Math.max(m_shelf, frame.m_high + GUTTER);
+
+        return true;
+    }
+
+    private static final String getFrameKey(final BoundingBox bbox)
+    {
+        return bbox.getX() + "," + bbox.getY() + "," + bbox.getWidth() + "," + bbox.getHeight();
+    }
+
+    private static final class Frame
+    {
+        private final BoundingBox m_bbox;
+
+        private final int         m_wide;
+
+        private final int         m_high;
+
+        private int               m_x = 0;
+
+        private int               m_y = 0;
+
+        private Frame(final BoundingBox bbox)
+        {
+            m_bbox = bbox;
+
+            m_wide = (int) Math.ceil(bbox.getWidth());
+
+            m_high = (int) Math.ceil(bbox.getHeight());
+        }
+    }
+}
@@ -24,7 +24,7 @@ import com.ait.lienzo.shared.core.types.ImageFilterType;
 import com.google.gwt.canvas.dom.client.CanvasPixelArray;
 import com.google.gwt.json.client.JSONObject;
 
-public abstract class AbstractConvolveImageDataFilter<T extends AbstractConvolveImageDataFilter<T>> extends AbstractImageDataFilter<T>
+public abstract class AbstractConvolveImageDataFilter<T extends AbstractConvolveImageDataFilter<T>> extends AbstractImageDataFilter<T> implements ImageDataTiledFilter
 {
     protected AbstractConvolveImageDataFilter(final ImageFilterType type, final double... matrix)
     {
@@ -104,6 +104,30 @@ public abstract class AbstractConvolveImageDataFilter<T extends AbstractConvolve
         return result;
     }
 
+    @Override
+    public ImageDataFilterJob start(final ImageData source)
+    {
+        if ((null == source) || (false == isActive()))
+        {
+            return ImageDataFilterJob.done(source);
+        }
+        final CanvasPixelArray data = source.getData();
+
+        if (null == data)
+        {
+            return ImageDataFilterJob.done(source);
+        }
+        final FilterConvolveMatrix matrix = getMatrix();
+
+        if (matrix.size() < 1)
+        {
+            return ImageDataFilterJob.done(source);
+        }
+        final ImageData result = source.create();
+
+        return ImageDataFilterJob.make(result, FilterCommonOps.getConvolveSteps(data, result.getData(), matrix, source.getWidth(), source.getHeight(), ImageDataFilterJob.getBandSize(source.getWidth())));
+    }
+
     protected static abstract class ConvolveImageDataFilterFactory<T extends AbstractConvolveImageDataFilter<T>> extends ImageDataFilterFactory<T>
     {
         protected ConvolveImageDataFilterFactory(final ImageFilterType type)
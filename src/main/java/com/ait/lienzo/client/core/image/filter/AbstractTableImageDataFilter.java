@@ -23,7 +23,7 @@ import com.ait.lienzo.shared.core.types.ImageFilterType;
 import com.google.gwt.canvas.dom.client.CanvasPixelArray;
 import com.google.gwt.json.client.JSONObject;
 
-public abstract class AbstractTableImageDataFilter<T extends AbstractTableImageDataFilter<T>> extends AbstractImageDataFilter<T>
+public abstract class AbstractTableImageDataFilter<T extends AbstractTableImageDataFilter<T>> extends AbstractImageDataFilter<T> implements ImageDataPixelFilter
 {
     protected AbstractTableImageDataFilter(final ImageFilterType type)
     {
@@ -69,6 +69,18 @@ public abstract class AbstractTableImageDataFilter<T extends AbstractTableImageD
 
     protected abstract FilterTableArray getTable();
 
+    @Override
+    public FilterTableArray getPixelTable()
+    {
+        return getTable();
+    }
+
+    @Override
+    public FilterPixelFunction getPixelFunction()
+    {
+        return null;
+    }
+
     protected static abstract class TableImageDataFilterFactory<T extends AbstractTableImageDataFilter<T>> extends ImageDataFilterFactory<T>
     {
         protected TableImageDataFilterFactory(final ImageFilterType type)
@@ -24,7 +24,7 @@ import com.ait.lienzo.shared.core.types.ImageFilterType;
 import com.google.gwt.canvas.dom.client.CanvasPixelArray;
 import com.google.gwt.json.client.JSONObject;
 
-public abstract class AbstractValueTableImageDataFilter<T extends AbstractValueTableImageDataFilter<T>> extends AbstractValueImageDataFilter<T>
+public abstract class AbstractValueTableImageDataFilter<T extends AbstractValueTableImageDataFilter<T>> extends AbstractValueImageDataFilter<T> implements ImageDataPixelFilter
 {
     protected AbstractValueTableImageDataFilter(final ImageFilterType type, final double value)
     {
@@ -70,6 +70,18 @@ public abstract class AbstractValueTableImageDataFilter<T extends AbstractValueT
 
     protected abstract FilterTableArray getTable(double value);
 
+    @Override
+    public FilterTableArray getPixelTable()
+    {
+        return getTable(getValue());
+    }
+
+    @Override
+    public FilterPixelFunction getPixelFunction()
+    {
+        return null;
+    }
+
     protected static abstract class ValueTableImageDataFilterFactory<T extends AbstractValueTableImageDataFilter<T>> extends ImageDataFilterFactory<T>
     {
         protected ValueTableImageDataFilterFactory(final ImageFilterType type)
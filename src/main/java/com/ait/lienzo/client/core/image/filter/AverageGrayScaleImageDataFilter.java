@@ -28,8 +28,17 @@ import com.google.gwt.json.client.JSONObject;
 /**
  * A class that allows for easy creation of Gray Scale Filters.
  */
-public class AverageGrayScaleImageDataFilter extends AbstractImageDataFilter<AverageGrayScaleImageDataFilter>
+public class AverageGrayScaleImageDataFilter extends AbstractImageDataFilter<AverageGrayScaleImageDataFilter> implements ImageDataPixelFilter
 {
+    private final static FilterPixelFunction CONSTANT_FUNCTION = function();
+
+    private final static native FilterPixelFunction function()
+    /*-{
+		return function(px) {
+			px[0] = px[1] = px[2] = (((px[0] + px[1] + px[2]) / 3.0) + 0.5) | 0;
+		};
+    }-*/;
+
     public AverageGrayScaleImageDataFilter()
     {
         super(ImageFilterType.AverageGrayScaleImageDataFilterType);
@@ -73,6 +82,18 @@ public class AverageGrayScaleImageDataFilter extends AbstractImageDataFilter<Ave
 		}
     }-*/;
 
+    @Override
+    public FilterTableArray getPixelTable()
+    {
+        return null;
+    }
+
+    @Override
+    public FilterPixelFunction getPixelFunction()
+    {
+        return CONSTANT_FUNCTION;
+    }
+
     @Override
     public IFactory<AverageGrayScaleImageDataFilter> getFactory()
     {
@@ -28,7 +28,7 @@ import com.google.gwt.json.client.JSONObject;
 /**
  * A class that allows for easy creation of Brightness Filters.
  */
-public class BrightnessImageDataFilter extends AbstractValueImageDataFilter<BrightnessImageDataFilter>
+public class BrightnessImageDataFilter extends AbstractValueImageDataFilter<BrightnessImageDataFilter> implements ImageDataPixelFilter
 {
     public BrightnessImageDataFilter()
     {
@@ -99,6 +99,28 @@ public class BrightnessImageDataFilter extends AbstractValueImageDataFilter<Brig
     	}
     }-*/;
 
+    @Override
+    public FilterTableArray getPixelTable()
+    {
+        return getTable_(getValue());
+    }
+
+    @Override
+    public FilterPixelFunction getPixelFunction()
+    {
+        return null;
+    }
+
+    private final native FilterTableArray getTable_(double value)
+    /*-{
+		var v = (value * 255) + 0.5;
+		var table = [];
+		for (var i = 0; i < 256; i++) {
+			table[i] = Math.max(Math.min(i + v, 255), 0) | 0;
+		}
+		return table;
+    }-*/;
+
     @Override
     public IFactory<BrightnessImageDataFilter> getFactory()
     {
@@ -65,6 +65,20 @@ public interface ImageDataFilter<T extends ImageDataFilter<T>> extends IJSONSeri
         }
     }
 
+    public static final class FilterPixelFunction extends JavaScriptObject
+    {
+        protected FilterPixelFunction()
+        {
+        }
+    }
+
+    public static final class FilterStepFunction extends JavaScriptObject
+    {
+        protected FilterStepFunction()
+        {
+        }
+    }
+
     public static final class FilterConvolveMatrix extends NFastDoubleArrayJSO
     {
         protected FilterConvolveMatrix()
@@ -18,6 +18,8 @@ package com.ait.lienzo.client.core.image.filter;
 
 import java.util.Collection;
 
+import com.ait.lienzo.client.core.image.filter.ImageDataFilter.FilterPixelFunction;
+import com.ait.lienzo.client.core.image.filter.ImageDataFilter.FilterTableArray;
 import com.ait.lienzo.client.core.shape.json.IFactory;
 import com.ait.lienzo.client.core.shape.json.JSONDeserializer;
 import com.ait.lienzo.client.core.shape.json.validators.ValidationContext;
@@ -25,10 +27,13 @@ import com.ait.lienzo.client.core.shape.json.validators.ValidationException;
 import com.ait.lienzo.client.core.types.ImageData;
 import com.ait.lienzo.shared.core.types.ImageFilterType;
 import com.ait.tooling.nativetools.client.collection.NFastArrayList;
+import com.google.gwt.canvas.dom.client.CanvasPixelArray;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
 import com.google.gwt.json.client.JSONArray;
 import com.google.gwt.json.client.JSONObject;
 
-public class ImageDataFilterChain extends AbstractImageDataFilter<ImageDataFilterChain> implements ImageDataFilterable<ImageDataFilterChain>
+public class ImageDataFilterChain extends AbstractImageDataFilter<ImageDataFilterChain> implements ImageDataFilterable<ImageDataFilterChain>, ImageDataTiledFilter
 {
     private NFastArrayList<ImageDataFilter<?>> m_filters = new NFastArrayList<ImageDataFilter<?>>();
 
@@ -91,7 +96,7 @@ public class ImageDataFilterChain extends AbstractImageDataFilter<ImageDataFilte
     {
         if (isActive())
         {
-            int size = size();
+            final int size = size();
 
             for (int i = 0; i < size; i++)
             {
@@ -121,14 +126,74 @@ public class ImageDataFilterChain extends AbstractImageDataFilter<ImageDataFilte
         {
             source = source.copy();
         }
-        int size = size();
+        return doFilter(source, 0, size());
+    }
+
+    /**
+     * Starts filtering through the chain in steps. Runs of filters that are not {@link ImageDataTiledFilter} are filtered
+     * whole within a step, fused as in {@link #filter(ImageData, boolean)}, and tiled filters a band at a time.
+     */
+    @Override
+    public ImageDataFilterJob start(final ImageData source)
+    {
+        if ((null == source) || (false == isActive()))
+        {
+            return ImageDataFilterJob.done(source);
+        }
+        return new ChainFilterJob(source);
+    }
+
+    private final ImageData doFilter(ImageData source, final int beg, final int end)
+    {
+        final NFastArrayList<ImageDataFilter<?>> fused = new NFastArrayList<ImageDataFilter<?>>();
+
+        final JsArray<JavaScriptObject> stages = JsArray.createArray().cast();
 
-        for (int i = 0; i < size; i++)
+        FilterTableArray table = null;
+
+        for (int i = beg; i < end; i++)
         {
             ImageDataFilter<?> filter = m_filters.get(i);
 
             if ((null != filter) && (filter.isActive()))
             {
+                // consecutive pixel filters are fused into one pass, tables are composed into one table
+
+                if (filter instanceof ImageDataPixelFilter)
+                {
+                    final ImageDataPixelFilter pixel = (ImageDataPixelFilter) filter;
+
+                    final FilterTableArray ptab = pixel.getPixelTable();
+
+                    if (null != ptab)
+                    {
+                        table = FilterCommonOps.composeTables(table, ptab);
+
+                        fused.add(filter);
+
+                        continue;
+                    }
+                    final FilterPixelFunction func = pixel.getPixelFunction();
+
+                    if (null != func)
+                    {
+                        if (null != table)
+                        {
+                            stages.push(table);
+
+                            table = null;
+                        }
+                        stages.push(func);
+
+                        fused.add(filter);
+
+                        continue;
+                    }
+                }
+                source = doFilterPixels(source, fused, stages, table);
+
+                table = null;
+
                 ImageData imdata = filter.filter(source, false);
 
                 if (null != imdata)
@@ -137,9 +202,118 @@ public class ImageDataFilterChain extends AbstractImageDataFilter<ImageDataFilte
                 }
             }
         }
+        return doFilterPixels(source, fused, stages, table);
+    }
+
+    private final ImageData doFilterPixels(ImageData source, final NFastArrayList<ImageDataFilter<?>> fused, final JsArray<JavaScriptObject> stages, final FilterTableArray table)
+    {
+        if (null != table)
+        {
+            stages.push(table);
+        }
+        final int size = fused.size();
+
+        if (size > 0)
+        {
+            final CanvasPixelArray data = source.getData();
+
+            if ((1 == size) || (null == data))
+            {
+                for (int i = 0; i < size; i++)
+                {
+                    ImageData imdata = fused.get(i).filter(source, false);
+
+                    if (null != imdata)
+                    {
+                        source = imdata;
+                    }
+                }
+            }
+            else if ((1 == stages.length()) && (null != table))
+            {
+                FilterCommonOps.doFilterTable(data, table, source.getWidth(), source.getHeight());
+            }
+            else
+            {
+                FilterCommonOps.doFilterPixels(data, stages, FilterCommonOps.getLength(source));
+            }
+            fused.clear();
+
+            stages.setLength(0);
+        }
         return source;
     }
 
+    private static final boolean isTiled(final ImageDataFilter<?> filter)
+    {
+        return ((null != filter) && (filter.isActive()) && (filter instanceof ImageDataTiledFilter));
+    }
+
+    private final class ChainFilterJob extends ImageDataFilterJob
+    {
+        private ImageData          m_result;
+
+        private ImageDataFilterJob m_child = null;
+
+        private int                m_index = 0;
+
+        private ChainFilterJob(final ImageData source)
+        {
+            m_result = source;
+        }
+
+        @Override
+        public final boolean step(final double until)
+        {
+            final int size = size();
+
+            while (m_index < size)
+            {
+                if (null != m_child)
+                {
+                    if (false == m_child.step(until))
+                    {
+                        return false;
+                    }
+                    m_result = m_child.getResult();
+
+                    m_child = null;
+
+                    m_index++;
+                }
+                else if (isTiled(m_filters.get(m_index)))
+                {
+                    m_child = ((ImageDataTiledFilter) m_filters.get(m_index)).start(m_result);
+
+                    continue;
+                }
+                else
+                {
+                    int end = m_index + 1;
+
+                    while ((end < size) && (false == isTiled(m_filters.get(end))))
+                    {
+                        end++;
+                    }
+                    m_result = doFilter(m_result, m_index, end);
+
+                    m_index = end;
+                }
+                if (System.currentTimeMillis() >= until)
+                {
+                    break;
+                }
+            }
+            return (m_index >= size);
+        }
+
+        @Override
+        public final ImageData getResult()
+        {
+            return m_result;
+        }
+    }
+
     private final void add(ImageDataFilter<?> filter)
     {
         if (null != filter)
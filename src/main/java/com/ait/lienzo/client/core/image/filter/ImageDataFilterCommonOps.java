@@ -17,11 +17,14 @@
 package com.ait.lienzo.client.core.image.filter;
 
 import com.ait.lienzo.client.core.image.filter.ImageDataFilter.FilterConvolveMatrix;
+import com.ait.lienzo.client.core.image.filter.ImageDataFilter.FilterPixelFunction;
+import com.ait.lienzo.client.core.image.filter.ImageDataFilter.FilterStepFunction;
 import com.ait.lienzo.client.core.image.filter.ImageDataFilter.FilterTableArray;
 import com.ait.lienzo.client.core.image.filter.ImageDataFilter.FilterTransformFunction;
 import com.ait.lienzo.client.core.types.ImageData;
 import com.google.gwt.canvas.dom.client.CanvasPixelArray;
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
 
 public class ImageDataFilterCommonOps extends JavaScriptObject
 {
@@ -122,12 +125,354 @@ public class ImageDataFilterCommonOps extends JavaScriptObject
                 data[i + 2] = table[data[i + 2]];
             }
         };
+        this.composeTables = function(a, b) {
+            var table = new Uint8ClampedArray(256);
+            for(var i = 0; i < 256; i++) {
+                table[i] = b[a ? a[i] : i];
+            }
+            return table;
+        };
+        this.filterPixels = function(data, stages, length) {
+            var size = stages.length;
+            var px = new Uint8ClampedArray(4);
+            for(var i = 0; i < length; i += 4) {
+                px[0] = data[  i  ];
+                px[1] = data[i + 1];
+                px[2] = data[i + 2];
+                px[3] = data[i + 3];
+                for (var s = 0; s < size; s++) {
+                    var stage = stages[s];
+                    if (typeof stage === 'function') {
+                        stage(px);
+                    } else {
+                        px[0] = stage[px[0]];
+                        px[1] = stage[px[1]];
+                        px[2] = stage[px[2]];
+                    }
+                }
+                data[  i  ] = px[0];
+                data[i + 1] = px[1];
+                data[i + 2] = px[2];
+                data[i + 3] = px[3];
+            }
+        };
         this.filterConvolve = function(data, buff, matrix, w, h) {
+            var job = this.convolveJob(data, buff, matrix, w, h);
+            job.rows(0, h);
+            job.done();
+        };
+        this.convolveJob = function(data, buff, matrix, w, h) {
+            var self = this;
+            var k = this.compileConvolve(matrix);
+            if (!k) {
+                return {
+                    rows : function(beg, end) {
+                        self.filterConvolveRows(data, buff, matrix, w, h, beg, end);
+                    },
+                    done : function() {
+                    }
+                };
+            }
+            if (!k.sep) {
+                return {
+                    rows : function(beg, end) {
+                        self.filterConvolve2D(data, buff, k, w, h, beg, end);
+                    },
+                    done : function() {
+                    }
+                };
+            }
+            // the horizontal pass keeps only the rows the vertical pass still needs, in a ring
+            var ring = this.acquireScratch(w * 3 * k.size);
+            var next = 0;
+            return {
+                rows : function(beg, end) {
+                    for (var y = beg; y < end; y++) {
+                        var need = Math.min(h, y + k.half + 1);
+                        if (next < need) {
+                            self.filterConvolveH(data, ring, k, w, next, need);
+                            next = need;
+                        }
+                        self.filterConvolveV(data, ring, buff, k, w, h, y);
+                    }
+                },
+                done : function() {
+                    self.releaseScratch(ring);
+                    ring = null;
+                }
+            };
+        };
+        this.compileConvolve = function(matrix) {
+            var size = Math.round(Math.sqrt(matrix.length));
+            if ((size * size !== matrix.length) || ((size & 1) === 0)) {
+                return null;
+            }
+            var half = size >> 1;
+            var dy = [], dx = [], wt = [];
+            var pv = 0, pr = 0, pc = 0;
+            for (var row = 0; row < size; row++) {
+                for (var col = 0; col < size; col++) {
+                    var f = matrix[row * size + col];
+                    if (f != 0) {
+                        dy.push(row - half);
+                        dx.push(col - half);
+                        wt.push(f);
+                        if (Math.abs(f) > Math.abs(pv)) {
+                            pv = f;
+                            pr = row;
+                            pc = col;
+                        }
+                    }
+                }
+            }
+            var k = {
+                size : size,
+                half : half,
+                dy : dy,
+                dx : dx,
+                wt : this.fixedWeights(wt),
+                sep : null
+            };
+            if ((size < 3) || (pv == 0)) {
+                return k;
+            }
+            // a rank one kernel is the product of a column and a row, so it runs as a horizontal pass then a vertical pass
+            var exact = (k.wt.shift >= 0);
+            var scale = exact ? (1 << k.wt.shift) : 1;
+            var col = [], row = [];
+            for (var i = 0; i < size; i++) {
+                col.push(matrix[i * size + pc] * scale);
+                row.push(matrix[pr * size + i] * scale);
+            }
+            var mul;
+            if (exact) {
+                // integer factors, the common divisor of the column goes back into the row
+                var gc = this.gcdOf(col);
+                var gr = this.gcdOf(row);
+                for (var i = 0; i < size; i++) {
+                    col[i] = col[i] / gc;
+                    row[i] = row[i] / gr;
+                }
+                mul = (pv * scale) / (col[pr] * row[pc]);
+                if (Math.floor(mul) !== mul) {
+                    return k;
+                }
+            } else {
+                mul = 1 / pv;
+            }
+            var hx = [], hw = [], vy = [], vw = [], hsum = 0, vsum = 0;
+            for (var i = 0; i < size; i++) {
+                if (row[i] != 0) {
+                    hx.push(i - half);
+                    hw.push(row[i] * mul);
+                    hsum += Math.abs(row[i] * mul);
+                }
+                if (col[i] != 0) {
+                    vy.push(i - half);
+                    vw.push(col[i]);
+                    vsum += Math.abs(col[i]);
+                }
+            }
+            if ((hw.length + vw.length) >= wt.length) {
+                return k;
+            }
+            if (exact && ((hsum * vsum * 255 * 2) >= 1073741824)) {
+                return k;
+            }
+            for (var r = 0; r < size; r++) {
+                for (var c = 0; c < size; c++) {
+                    var m = col[r] * (row[c] * mul);
+                    var f = matrix[r * size + c] * scale;
+                    if (exact ? (m !== f) : (Math.abs(m - f) > (1e-12 * Math.max(1, Math.abs(pv))))) {
+                        return k;
+                    }
+                }
+            }
+            k.sep = {
+                hx : hx,
+                hw : hw,
+                vy : vy,
+                vw : vw,
+                shift : k.wt.shift
+            };
+            return k;
+        };
+        this.gcdOf = function(list) {
+            var g = 0;
+            for (var i = 0; i < list.length; i++) {
+                var a = Math.abs(list[i]);
+                while (a) {
+                    var t = g % a;
+                    g = a;
+                    a = t;
+                }
+            }
+            return g;
+        };
+        this.fixedWeights = function(wt) {
+            // weights that are exact binary fractions run in integers, with a result identical to the floating point loop
+            for (var shift = 0; shift <= 8; shift++) {
+                var s = 1 << shift;
+                var sum = 0;
+                var iw = [];
+                for (var i = 0; i < wt.length; i++) {
+                    var v = wt[i] * s;
+                    if (Math.floor(v) !== v) {
+                        break;
+                    }
+                    iw.push(v);
+                    sum += Math.abs(v);
+                }
+                if (iw.length === wt.length) {
+                    if ((sum * 255 * 256) < 1073741824) {
+                        return { w : iw, shift : shift };
+                    }
+                    break;
+                }
+            }
+            return { w : wt, shift : -1 };
+        };
+        this.filterConvolve2D = function(data, buff, k, w, h, beg, end) {
+            var dy = k.dy, dx = k.dx, wt = k.wt.w, shift = k.wt.shift, half = k.half, n = wt.length;
+            var rnd = (shift > 0) ? (1 << (shift - 1)) : 0;
+            var off = [];
+            for (var t = 0; t < n; t++) {
+                off.push((dy[t] * w + dx[t]) << 2);
+            }
+            for (var y = beg; y < end; y++) {
+                var inside = (y >= half) && (y < (h - half));
+                for (var x = 0; x < w; x++) {
+                    var p = (y * w + x) << 2;
+                    var r = 0, g = 0, b = 0, f, q;
+                    if (inside && (x >= half) && (x < (w - half))) {
+                        for (var t = 0; t < n; t++) {
+                            q = p + off[t];
+                            f = wt[t];
+                            r += f * data[  q  ];
+                            g += f * data[q + 1];
+                            b += f * data[q + 2];
+                        }
+                    } else {
+                        for (var t = 0; t < n; t++) {
+                            var iy = y + dy[t];
+                            if ((iy < 0) || (iy >= h)) {
+                                iy = y;
+                            }
+                            var ix = x + dx[t];
+                            if ((ix < 0) || (ix >= w)) {
+                                ix = x;
+                            }
+                            q = (iy * w + ix) << 2;
+                            f = wt[t];
+                            r += f * data[  q  ];
+                            g += f * data[q + 1];
+                            b += f * data[q + 2];
+                        }
+                    }
+                    if (shift < 0) {
+                        buff[  p  ] = (r + 0.5) | 0;
+                        buff[p + 1] = (g + 0.5) | 0;
+                        buff[p + 2] = (b + 0.5) | 0;
+                    } else {
+                        buff[  p  ] = (r + rnd) >> shift;
+                        buff[p + 1] = (g + rnd) >> shift;
+                        buff[p + 2] = (b + rnd) >> shift;
+                    }
+                    buff[p + 3] = data[p + 3];
+                }
+            }
+        };
+        this.filterConvolveH = function(data, ring, k, w, beg, end) {
+            var hx = k.sep.hx, hw = k.sep.hw, half = k.half, size = k.size, n = hw.length;
+            for (var y = beg; y < end; y++) {
+                var o = (y % size) * w * 3;
+                for (var x = 0; x < w; x++) {
+                    var p = (y * w + x) << 2;
+                    var r = 0, g = 0, b = 0, f, q;
+                    if ((x >= half) && (x < (w - half))) {
+                        for (var t = 0; t < n; t++) {
+                            q = p + (hx[t] << 2);
+                            f = hw[t];
+                            r += f * data[  q  ];
+                            g += f * data[q + 1];
+                            b += f * data[q + 2];
+                        }
+                    } else {
+                        for (var t = 0; t < n; t++) {
+                            var ix = x + hx[t];
+                            if ((ix < 0) || (ix >= w)) {
+                                ix = x;
+                            }
+                            q = (y * w + ix) << 2;
+                            f = hw[t];
+                            r += f * data[  q  ];
+                            g += f * data[q + 1];
+                            b += f * data[q + 2];
+                        }
+                    }
+                    ring[o++] = r;
+                    ring[o++] = g;
+                    ring[o++] = b;
+                }
+            }
+        };
+        this.filterConvolveV = function(data, ring, buff, k, w, h, y) {
+            var vy = k.sep.vy, vw = k.sep.vw, shift = k.sep.shift, size = k.size, n = vw.length;
+            var rnd = (shift > 0) ? (1 << (shift - 1)) : 0;
+            var off = [];
+            for (var t = 0; t < n; t++) {
+                var iy = y + vy[t];
+                if ((iy < 0) || (iy >= h)) {
+                    iy = y;
+                }
+                off.push((iy % size) * w * 3);
+            }
+            for (var x = 0; x < w; x++) {
+                var p = (y * w + x) << 2;
+                var c = x * 3;
+                var r = 0, g = 0, b = 0, f, q;
+                for (var t = 0; t < n; t++) {
+                    q = off[t] + c;
+                    f = vw[t];
+                    r += f * ring[  q  ];
+                    g += f * ring[q + 1];
+                    b += f * ring[q + 2];
+                }
+                if (shift < 0) {
+                    buff[  p  ] = (r + 0.5) | 0;
+                    buff[p + 1] = (g + 0.5) | 0;
+                    buff[p + 2] = (b + 0.5) | 0;
+                } else {
+                    buff[  p  ] = (r + rnd) >> shift;
+                    buff[p + 1] = (g + rnd) >> shift;
+                    buff[p + 2] = (b + rnd) >> shift;
+                }
+                buff[p + 3] = data[p + 3];
+            }
+        };
+        this.scratch = [];
+        this.acquireScratch = function(size) {
+            for (var i = 0; i < this.scratch.length; i++) {
+                if (this.scratch[i].length >= size) {
+                    return this.scratch.splice(i, 1)[0];
+                }
+            }
+            return new Float64Array(size);
+        };
+        this.releaseScratch = function(buff) {
+            if (buff) {
+                this.scratch.push(buff);
+                if (this.scratch.length > 4) {
+                    this.scratch.shift();
+                }
+            }
+        };
+        this.filterConvolveRows = function(data, buff, matrix, w, h, beg, end) {
             var rows, cols;
             rows = cols = Math.sqrt(matrix.length);
             var row2 = (rows / 2) | 0;
             var col2 = (cols / 2) | 0;
-            for(var y = 0; y < h; y++) {
+            for(var y = beg; y < end; y++) {
                 for (var x = 0; x < w; x++) {
                     var p = (y * w + x) * 4;
                     var r = 0, g = 0, b = 0;
@@ -161,6 +506,20 @@ public class ImageDataFilterCommonOps extends JavaScriptObject
                 }
             }
         };
+        this.bandSteps = function(count, band, run) {
+            var beg = 0;
+            return function(until) {
+                while (beg < count) {
+                    var end = Math.min(beg + band, count);
+                    run(beg, end);
+                    beg = end;
+                    if (Date.now() >= until) {
+                        break;
+                    }
+                }
+                return (beg >= count);
+            };
+        };
         this.linearInterpolate = function(t, a, b) {
             return a + t * (b - a);
         };
@@ -261,7 +620,7 @@ public class ImageDataFilterCommonOps extends JavaScriptObject
     
     public final native boolean hasAlphaChannel(CanvasPixelArray data, int length)
     /*-{
-        this.hasAlphaChannel(data, length);
+        return this.hasAlphaChannel(data, length);
     }-*/;
 
     public final native void dofilterLuminosity(CanvasPixelArray data, int length)
@@ -274,11 +633,44 @@ public class ImageDataFilterCommonOps extends JavaScriptObject
         this.filterTable(data, table, w, h);
     }-*/;
 
+    /**
+     * Returns the table of applying table a then table b, with each step rounded and clamped to a byte like the pixel data.
+     * If a is null, returns b rounded and clamped.
+     */
+    public final native FilterTableArray composeTables(FilterTableArray a, FilterTableArray b)
+    /*-{
+        return this.composeTables(a, b);
+    }-*/;
+
+    /**
+     * Runs each pixel through the stages in order, in a single pass. A stage is a {@link FilterTableArray} for the red, green
+     * and blue channels, or a {@link FilterPixelFunction}.
+     */
+    public final native void doFilterPixels(CanvasPixelArray data, JsArray<JavaScriptObject> stages, int length)
+    /*-{
+        this.filterPixels(data, stages, length);
+    }-*/;
+
     public final native void doFilterConvolve(CanvasPixelArray data, CanvasPixelArray buff, FilterConvolveMatrix matrix, int w, int h)
     /*-{
         this.filterConvolve(data, buff, matrix, w, h);
     }-*/;
 
+    /**
+     * Returns the steps of {@link #doFilterConvolve(CanvasPixelArray, CanvasPixelArray, FilterConvolveMatrix, int, int)}, convolving band rows at a time.
+     * Each band reads the rows around it from the whole source, so the result is identical to convolving in one call.
+     */
+    public final native FilterStepFunction getConvolveSteps(CanvasPixelArray data, CanvasPixelArray buff, FilterConvolveMatrix matrix, int w, int h, int band)
+    /*-{
+        var job = this.convolveJob(data, buff, matrix, w, h);
+        return this.bandSteps(h, band, function(beg, end) {
+            job.rows(beg, end);
+            if (end >= h) {
+                job.done();
+            }
+        });
+    }-*/;
+
     public final native void doFilterTransform(CanvasPixelArray data, CanvasPixelArray buff, FilterTransformFunction transform, int w, int h)
     /*-{
         this.filterTransform(data, buff, transform, w, h);
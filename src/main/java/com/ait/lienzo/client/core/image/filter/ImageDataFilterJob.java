@@ -0,0 +1,130 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.image.filter;
+
+import com.ait.lienzo.client.core.image.filter.ImageDataFilter.FilterStepFunction;
+import com.ait.lienzo.client.core.types.ImageData;
+
+/**
+ * ImageDataFilterJob is a filter pass that runs in steps, see {@link ImageDataTiledFilter}.
+ * <p>
+ * Each call to {@link #step(double)} filters bands of about {@link #TILE_PIXELS} pixels until the time is up, always at least one band.
+ */
+public abstract class ImageDataFilterJob
+{
+    public static final int TILE_PIXELS = 64 * 1024;
+
+    /**
+     * Returns a job that is already done.
+     *
+     * @param result
+     * @return ImageDataFilterJob
+     */
+    public static final ImageDataFilterJob done(final ImageData result)
+    {
+        return new StepFunctionJob(result, null);
+    }
+
+    /**
+     * Returns a job running a step function, which filters until the time given and returns whether it is done.
+     *
+     * @param result the image data holding the result once done
+     * @param steps
+     * @return ImageDataFilterJob
+     */
+    public static final ImageDataFilterJob make(final ImageData result, final FilterStepFunction steps)
+    {
+        return new StepFunctionJob(result, steps);
+    }
+
+    /**
+     * Returns the number of rows, or columns, of the given length in one band.
+     *
+     * @param length
+     * @return int
+     */
+    public static final int getBandSize(final int length)
+    {
+        return Math.max(1, TILE_PIXELS / Math.max(1, length));
+    }
+
+    /**
+     * Filters until the time given, in milliseconds since the epoch.
+     *
+     * @param until
+     * @return whether the job is done
+     */
+    public abstract boolean step(double until);
+
+    /**
+     * Returns the result, which is only complete once {@link #step(double)} returned true.
+     *
+     * @return ImageData
+     */
+    public abstract ImageData getResult();
+
+    /**
+     * Runs the job to the end.
+     *
+     * @return the result
+     */
+    public final ImageData finish()
+    {
+        step(Double.POSITIVE_INFINITY);
+
+        return getResult();
+    }
+
+    private static final class StepFunctionJob extends ImageDataFilterJob
+    {
+        private final ImageData          m_result;
+
+        private final FilterStepFunction m_steps;
+
+        private boolean                  m_done;
+
+        private StepFunctionJob(final ImageData result, final FilterStepFunction steps)
+        {
+            m_result = result;
+
+            m_steps = steps;
+
+            m_done = (null == steps);
+        }
+
+        @Override
+        public final boolean step(final double until)
+        {
+            if (false == m_done)
+            {
+                m_done = step(m_steps, until);
+            }
+            return m_done;
+        }
+
+        @Override
+        public final ImageData getResult()
+        {
+            return m_result;
+        }
+
+        private static final native boolean step(FilterStepFunction steps, double until)
+        /*-{
+			return steps(until);
+        }-*/;
+    }
+}
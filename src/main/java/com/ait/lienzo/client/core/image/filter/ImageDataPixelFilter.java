@@ -0,0 +1,40 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.image.filter;
+
+import com.ait.lienzo.client.core.image.filter.ImageDataFilter.FilterPixelFunction;
+import com.ait.lienzo.client.core.image.filter.ImageDataFilter.FilterTableArray;
+
+/**
+ * ImageDataPixelFilter is implemented by filters that change each pixel in place from its own color only,
+ * so an {@link ImageDataFilterChain} can fuse consecutive ones into a single pass over the pixels.
+ * <p>
+ * A filter either maps the red, green and blue channels through a table, which the chain composes with its neighbors,
+ * or provides a function that filters one pixel, given as a 4 element Uint8ClampedArray of red, green, blue and alpha.
+ */
+public interface ImageDataPixelFilter
+{
+    /**
+     * Returns the 256 entry table applied to the red, green and blue channels, or null if the filter has a {@link #getPixelFunction()}.
+     */
+    public FilterTableArray getPixelTable();
+
+    /**
+     * Returns the function filtering one pixel in place, only used when {@link #getPixelTable()} is null.
+     */
+    public FilterPixelFunction getPixelFunction();
+}
@@ -0,0 +1,35 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.image.filter;
+
+import com.ait.lienzo.client.core.types.ImageData;
+
+/**
+ * ImageDataTiledFilter is implemented by filters that can run a band of the image at a time, so a large image can be filtered
+ * over several animation frames, see {@link com.ait.lienzo.client.core.image.ImageFilterExecutor}.
+ */
+public interface ImageDataTiledFilter
+{
+    /**
+     * Starts filtering the source in place or into a new {@link ImageData}, like {@link ImageDataFilter#filter(ImageData, boolean)} without a copy.
+     * Nothing is filtered until the job is stepped, and the result once done is identical to filtering in one call.
+     *
+     * @param source
+     * @return ImageDataFilterJob
+     */
+    public ImageDataFilterJob start(ImageData source);
+}
@@ -28,8 +28,19 @@ import com.google.gwt.json.client.JSONObject;
 /**
  * A class that allows for easy creation of a Invert Color Image Filter.
  */
-public class InvertColorImageDataFilter extends AbstractImageDataFilter<InvertColorImageDataFilter>
+public class InvertColorImageDataFilter extends AbstractImageDataFilter<InvertColorImageDataFilter> implements ImageDataPixelFilter
 {
+    private final static FilterTableArray CONSTANT_TABLE = table();
+
+    private final static native FilterTableArray table()
+    /*-{
+		var table = [];
+		for (var i = 0; i < 256; i++) {
+			table[i] = 255 - i;
+		}
+		return table;
+    }-*/;
+
     public InvertColorImageDataFilter()
     {
         super(ImageFilterType.InvertColorImageDataFilterType);
@@ -75,6 +86,18 @@ public class InvertColorImageDataFilter extends AbstractImageDataFilter<InvertCo
     	}
     }-*/;
 
+    @Override
+    public FilterTableArray getPixelTable()
+    {
+        return CONSTANT_TABLE;
+    }
+
+    @Override
+    public FilterPixelFunction getPixelFunction()
+    {
+        return null;
+    }
+
     @Override
     public IFactory<InvertColorImageDataFilter> getFactory()
     {
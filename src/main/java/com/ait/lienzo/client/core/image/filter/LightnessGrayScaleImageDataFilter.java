@@ -28,8 +28,20 @@ import com.google.gwt.json.client.JSONObject;
 /**
  * A class that allows for easy creation of a Light Gray Scale Image Filter.
  */
-public class LightnessGrayScaleImageDataFilter extends AbstractImageDataFilter<LightnessGrayScaleImageDataFilter>
+public class LightnessGrayScaleImageDataFilter extends AbstractImageDataFilter<LightnessGrayScaleImageDataFilter> implements ImageDataPixelFilter
 {
+    private final static FilterPixelFunction CONSTANT_FUNCTION = function();
+
+    private final static native FilterPixelFunction function()
+    /*-{
+		return function(px) {
+			var r = px[0];
+			var g = px[1];
+			var b = px[2];
+			px[0] = px[1] = px[2] = ((((Math.max(Math.max(r, g), b) + Math.min(Math.min(r, g), b))) / 2.0) + 0.5) | 0;
+		};
+    }-*/;
+
     public LightnessGrayScaleImageDataFilter()
     {
         super(ImageFilterType.LightnessGrayScaleImageDataFilterType);
@@ -76,6 +88,18 @@ public class LightnessGrayScaleImageDataFilter extends AbstractImageDataFilter<L
     	}
     }-*/;
 
+    @Override
+    public FilterTableArray getPixelTable()
+    {
+        return null;
+    }
+
+    @Override
+    public FilterPixelFunction getPixelFunction()
+    {
+        return CONSTANT_FUNCTION;
+    }
+
     @Override
     public IFactory<LightnessGrayScaleImageDataFilter> getFactory()
     {
@@ -27,8 +27,17 @@ import com.google.gwt.json.client.JSONObject;
 /**
  * A class that allows for easy creation of a Luminosity Gray Scale based Image Filter.
  */
-public class LuminosityGrayScaleImageDataFilter extends AbstractImageDataFilter<LuminosityGrayScaleImageDataFilter>
+public class LuminosityGrayScaleImageDataFilter extends AbstractImageDataFilter<LuminosityGrayScaleImageDataFilter> implements ImageDataPixelFilter
 {
+    private final static FilterPixelFunction CONSTANT_FUNCTION = function();
+
+    private final static native FilterPixelFunction function()
+    /*-{
+		return function(px) {
+			px[0] = px[1] = px[2] = (((px[0] * 0.21) + (px[1] * 0.72) + (px[2] * 0.07)) + 0.5) | 0;
+		};
+    }-*/;
+
     public LuminosityGrayScaleImageDataFilter()
     {
         super(ImageFilterType.LuminosityGrayScaleImageDataFilterType);
@@ -65,6 +74,18 @@ public class LuminosityGrayScaleImageDataFilter extends AbstractImageDataFilter<
         return source;
     }
 
+    @Override
+    public FilterTableArray getPixelTable()
+    {
+        return null;
+    }
+
+    @Override
+    public FilterPixelFunction getPixelFunction()
+    {
+        return CONSTANT_FUNCTION;
+    }
+
     @Override
     public IFactory<LuminosityGrayScaleImageDataFilter> getFactory()
     {
@@ -25,7 +25,7 @@ import com.google.gwt.canvas.dom.client.CanvasPixelArray;
 import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.json.client.JSONObject;
 
-public class StackBlurImageDataFilter extends AbstractValueImageDataFilter<StackBlurImageDataFilter>
+public class StackBlurImageDataFilter extends AbstractValueImageDataFilter<StackBlurImageDataFilter> implements ImageDataTiledFilter
 {
     public StackBlurImageDataFilter(int value)
     {
@@ -81,12 +81,33 @@ public class StackBlurImageDataFilter extends AbstractValueImageDataFilter<Stack
         {
             return source;
         }
-        filter_(data, source.getWidth(), source.getHeight(), (int) getValue(), FilterCommonOps);
+        return start(source).finish();
+    }
+
+    @Override
+    public ImageDataFilterJob start(final ImageData source)
+    {
+        if ((null == source) || (false == isActive()))
+        {
+            return ImageDataFilterJob.done(source);
+        }
+        final CanvasPixelArray data = source.getData();
 
-        return source;
+        if (null == data)
+        {
+            return ImageDataFilterJob.done(source);
+        }
+        final int wide = source.getWidth();
+
+        final int high = source.getHeight();
+
+        return ImageDataFilterJob.make(source, steps_(data, wide, high, (int) getValue(), FilterCommonOps, ImageDataFilterJob.getBandSize(wide), ImageDataFilterJob.getBandSize(high)));
     }
 
-    private final native void filter_(JavaScriptObject data, int width, int height, int radius, ImageDataFilterCommonOps fops)
+    /**
+     * Blurs the rows in place, then the columns, a band at a time. Each row and column starts from its own pixels, so the bands are independent.
+     */
+    private final native FilterStepFunction steps_(JavaScriptObject data, int width, int height, int radius, ImageDataFilterCommonOps fops, int rband, int cband)
     /*-{
         function BlurStack() {
             this.r = 0;
@@ -118,156 +139,165 @@ public class StackBlurImageDataFilter extends AbstractValueImageDataFilter<Stack
         var stackIn = null;
         var stackOut = null;
 
-        yw = yi = 0;
-
         var mul_sum = mul_table[radius];
         var shg_sum = shg_table[radius];
 
-        for (y = 0; y < height; y++) {
-            r_in_sum = g_in_sum = b_in_sum = r_sum = g_sum = b_sum = 0;
+        function rows(beg, end) {
+            yw = beg * width;
+            yi = yw << 2;
+            for (y = beg; y < end; y++) {
+                r_in_sum = g_in_sum = b_in_sum = r_sum = g_sum = b_sum = 0;
 
-            r_out_sum = radiusPlus1 * (pr = data[  yi  ]);
-            g_out_sum = radiusPlus1 * (pg = data[yi + 1]);
-            b_out_sum = radiusPlus1 * (pb = data[yi + 2]);
+                r_out_sum = radiusPlus1 * (pr = data[  yi  ]);
+                g_out_sum = radiusPlus1 * (pg = data[yi + 1]);
+                b_out_sum = radiusPlus1 * (pb = data[yi + 2]);
 
-            r_sum += sumFactor * pr;
-            g_sum += sumFactor * pg;
-            b_sum += sumFactor * pb;
+                r_sum += sumFactor * pr;
+                g_sum += sumFactor * pg;
+                b_sum += sumFactor * pb;
 
-            stack = stackStart;
+                stack = stackStart;
 
-            for (i = 0; i < radiusPlus1; i++) {
-                stack.r = pr;
-                stack.g = pg;
-                stack.b = pb;
-                stack = stack.next;
-            }
-            for (i = 1; i < radiusPlus1; i++) {
-                p = yi + ((widthMinus1 < i ? widthMinus1 : i) << 2);
-                r_sum += (stack.r = (pr = data[  p  ])) * (rbs = radiusPlus1 - i);
-                g_sum += (stack.g = (pg = data[p + 1])) * rbs;
-                b_sum += (stack.b = (pb = data[p + 2])) * rbs;
-                r_in_sum += pr;
-                g_in_sum += pg;
-                b_in_sum += pb;
-                stack = stack.next;
-            }
-            stackIn = stackStart;
-            stackOut = stackEnd;
-            for (x = 0; x < width; x++) {
-                data[  yi  ] = (r_sum * mul_sum) >> shg_sum;
-                data[yi + 1] = (g_sum * mul_sum) >> shg_sum;
-                data[yi + 2] = (b_sum * mul_sum) >> shg_sum;
-                r_sum -= r_out_sum;
-                g_sum -= g_out_sum;
-                b_sum -= b_out_sum;
-                r_out_sum -= stackIn.r;
-                g_out_sum -= stackIn.g;
-                b_out_sum -= stackIn.b;
-
-                p = (yw + ((p = x + radius + 1) < widthMinus1 ? p : widthMinus1)) << 2;
-
-                r_in_sum += (stackIn.r = data[p]);
-                g_in_sum += (stackIn.g = data[p + 1]);
-                b_in_sum += (stackIn.b = data[p + 2]);
-
-                r_sum += r_in_sum;
-                g_sum += g_in_sum;
-                b_sum += b_in_sum;
-
-                stackIn = stackIn.next;
-
-                r_out_sum += (pr = stackOut.r);
-                g_out_sum += (pg = stackOut.g);
-                b_out_sum += (pb = stackOut.b);
-
-                r_in_sum -= pr;
-                g_in_sum -= pg;
-                b_in_sum -= pb;
-
-                stackOut = stackOut.next;
-
-                yi += 4;
+                for (i = 0; i < radiusPlus1; i++) {
+                    stack.r = pr;
+                    stack.g = pg;
+                    stack.b = pb;
+                    stack = stack.next;
+                }
+                for (i = 1; i < radiusPlus1; i++) {
+                    p = yi + ((widthMinus1 < i ? widthMinus1 : i) << 2);
+                    r_sum += (stack.r = (pr = data[  p  ])) * (rbs = radiusPlus1 - i);
+                    g_sum += (stack.g = (pg = data[p + 1])) * rbs;
+                    b_sum += (stack.b = (pb = data[p + 2])) * rbs;
+                    r_in_sum += pr;
+                    g_in_sum += pg;
+                    b_in_sum += pb;
+                    stack = stack.next;
+                }
+                stackIn = stackStart;
+                stackOut = stackEnd;
+                for (x = 0; x < width; x++) {
+                    data[  yi  ] = (r_sum * mul_sum) >> shg_sum;
+                    data[yi + 1] = (g_sum * mul_sum) >> shg_sum;
+                    data[yi + 2] = (b_sum * mul_sum) >> shg_sum;
+                    r_sum -= r_out_sum;
+                    g_sum -= g_out_sum;
+                    b_sum -= b_out_sum;
+                    r_out_sum -= stackIn.r;
+                    g_out_sum -= stackIn.g;
+                    b_out_sum -= stackIn.b;
+
+                    p = (yw + ((p = x + radius + 1) < widthMinus1 ? p : widthMinus1)) << 2;
+
+                    r_in_sum += (stackIn.r = data[p]);
+                    g_in_sum += (stackIn.g = data[p + 1]);
+                    b_in_sum += (stackIn.b = data[p + 2]);
+
+                    r_sum += r_in_sum;
+                    g_sum += g_in_sum;
+                    b_sum += b_in_sum;
+
+                    stackIn = stackIn.next;
+
+                    r_out_sum += (pr = stackOut.r);
+                    g_out_sum += (pg = stackOut.g);
+                    b_out_sum += (pb = stackOut.b);
+
+                    r_in_sum -= pr;
+                    g_in_sum -= pg;
+                    b_in_sum -= pb;
+
+                    stackOut = stackOut.next;
+
+                    yi += 4;
+                }
+                yw += width;
             }
-            yw += width;
         }
-        for (x = 0; x < width; x++) {
-            g_in_sum = b_in_sum = r_in_sum = g_sum = b_sum = r_sum = 0;
-
-            yi = x << 2;
-            r_out_sum = radiusPlus1 * (pr = data[  yi  ]);
-            g_out_sum = radiusPlus1 * (pg = data[yi + 1]);
-            b_out_sum = radiusPlus1 * (pb = data[yi + 2]);
-
-            r_sum += sumFactor * pr;
-            g_sum += sumFactor * pg;
-            b_sum += sumFactor * pb;
-
-            stack = stackStart;
-
-            for (i = 0; i < radiusPlus1; i++) {
-                stack.r = pr;
-                stack.g = pg;
-                stack.b = pb;
-                stack = stack.next;
-            }
-            yp = width;
+        function cols(beg, end) {
+            for (x = beg; x < end; x++) {
+                g_in_sum = b_in_sum = r_in_sum = g_sum = b_sum = r_sum = 0;
+
+                yi = x << 2;
+                r_out_sum = radiusPlus1 * (pr = data[  yi  ]);
+                g_out_sum = radiusPlus1 * (pg = data[yi + 1]);
+                b_out_sum = radiusPlus1 * (pb = data[yi + 2]);
+
+                r_sum += sumFactor * pr;
+                g_sum += sumFactor * pg;
+                b_sum += sumFactor * pb;
+
+                stack = stackStart;
+
+                for (i = 0; i < radiusPlus1; i++) {
+                    stack.r = pr;
+                    stack.g = pg;
+                    stack.b = pb;
+                    stack = stack.next;
+                }
+                yp = width;
 
-            for (i = 1; i <= radius; i++) {
-                yi = (yp + x) << 2;
+                for (i = 1; i <= radius; i++) {
+                    yi = (yp + x) << 2;
 
-                r_sum += (stack.r = (pr = data[  yi  ])) * (rbs = radiusPlus1 - i);
-                g_sum += (stack.g = (pg = data[yi + 1])) * rbs;
-                b_sum += (stack.b = (pb = data[yi + 2])) * rbs;
+                    r_sum += (stack.r = (pr = data[  yi  ])) * (rbs = radiusPlus1 - i);
+                    g_sum += (stack.g = (pg = data[yi + 1])) * rbs;
+                    b_sum += (stack.b = (pb = data[yi + 2])) * rbs;
 
-                r_in_sum += pr;
-                g_in_sum += pg;
-                b_in_sum += pb;
+                    r_in_sum += pr;
+                    g_in_sum += pg;
+                    b_in_sum += pb;
 
-                stack = stack.next;
+                    stack = stack.next;
 
-                if (i < heightMinus1) {
-                    yp += width;
+                    if (i < heightMinus1) {
+                        yp += width;
+                    }
                 }
-            }
-            yi = x;
-            stackIn = stackStart;
-            stackOut = stackEnd;
-            for (y = 0; y < height; y++) {
-                p = yi << 2;
-                data[  p  ] = (r_sum * mul_sum) >> shg_sum;
-                data[p + 1] = (g_sum * mul_sum) >> shg_sum;
-                data[p + 2] = (b_sum * mul_sum) >> shg_sum;
+                yi = x;
+                stackIn = stackStart;
+                stackOut = stackEnd;
+                for (y = 0; y < height; y++) {
+                    p = yi << 2;
+                    data[  p  ] = (r_sum * mul_sum) >> shg_sum;
+                    data[p + 1] = (g_sum * mul_sum) >> shg_sum;
+                    data[p + 2] = (b_sum * mul_sum) >> shg_sum;
 
-                r_sum -= r_out_sum;
-                g_sum -= g_out_sum;
-                b_sum -= b_out_sum;
+                    r_sum -= r_out_sum;
+                    g_sum -= g_out_sum;
+                    b_sum -= b_out_sum;
 
-                r_out_sum -= stackIn.r;
-                g_out_sum -= stackIn.g;
-                b_out_sum -= stackIn.b;
+                    r_out_sum -= stackIn.r;
+                    g_out_sum -= stackIn.g;
+                    b_out_sum -= stackIn.b;
 
-                p = (x + (((p = y + radiusPlus1) < heightMinus1 ? p : heightMinus1) * width)) << 2;
+                    p = (x + (((p = y + radiusPlus1) < heightMinus1 ? p : heightMinus1) * width)) << 2;
 
-                r_sum += (r_in_sum += (stackIn.r = data[  p  ]));
-                g_sum += (g_in_sum += (stackIn.g = data[p + 1]));
-                b_sum += (b_in_sum += (stackIn.b = data[p + 2]));
+                    r_sum += (r_in_sum += (stackIn.r = data[  p  ]));
+                    g_sum += (g_in_sum += (stackIn.g = data[p + 1]));
+                    b_sum += (b_in_sum += (stackIn.b = data[p + 2]));
 
-                stackIn = stackIn.next;
+                    stackIn = stackIn.next;
 
-                r_out_sum += (pr = stackOut.r);
-                g_out_sum += (pg = stackOut.g);
-                b_out_sum += (pb = stackOut.b);
+                    r_out_sum += (pr = stackOut.r);
+                    g_out_sum += (pg = stackOut.g);
+                    b_out_sum += (pb = stackOut.b);
 
-                r_in_sum -= pr;
-                g_in_sum -= pg;
-                b_in_sum -= pb;
+                    r_in_sum -= pr;
+                    g_in_sum -= pg;
+                    b_in_sum -= pb;
 
-                stackOut = stackOut.next;
+                    stackOut = stackOut.next;
 
-                yi += width;
+                    yi += width;
+                }
             }
         }
+        var rsteps = fops.bandSteps(height, rband, rows);
+        var csteps = fops.bandSteps(width, cband, cols);
+        return function(until) {
+            return rsteps(until) && csteps(until);
+        };
     }-*/;
 
     @Override
@@ -19,13 +19,21 @@ package com.ait.lienzo.client.core.mediator;
 import com.ait.lienzo.client.core.event.NodeMouseDownEvent;
 import com.ait.lienzo.client.core.event.NodeMouseMoveEvent;
 import com.ait.lienzo.client.core.event.NodeMouseUpEvent;
+import com.ait.lienzo.client.core.shape.Layer;
 import com.ait.lienzo.client.core.types.Point2D;
 import com.ait.lienzo.client.core.types.Transform;
+import com.ait.tooling.nativetools.client.collection.NFastArrayList;
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
 import com.google.gwt.event.shared.GwtEvent;
 
 /**
  * MousePanMediator provides pan behavior similar to dragging the mouse in Google Maps.
  * Only the zoomable Layers are affected.
+ * <p>
+ * When blit panning is enabled, each mouse move shifts the existing Layer canvases by the pan delta
+ * and only renders the newly exposed edges (see {@link Layer#drawPanned()}).
+ * The full redraw is deferred until the pan ends.
  * 
  * @see Mediators
  * 
@@ -33,11 +41,29 @@ import com.google.gwt.event.shared.GwtEvent;
  */
 public class MousePanMediator extends AbstractMediator
 {
-    private Point2D   m_last             = new Point2D();
+    private Point2D                 m_last             = new Point2D();
 
-    private boolean   m_dragging         = false;
+    private boolean                 m_dragging         = false;
 
-    private Transform m_inverseTransform = null;
+    private Transform               m_inverseTransform = null;
+
+    private boolean                 m_blitting         = false;
+
+    private boolean                 m_scheduled        = false;
+
+    private final AnimationCallback m_blitter          = new AnimationCallback()
+    {
+        @Override
+        public void execute(final double time)
+        {
+            m_scheduled = false;
+
+            if (m_dragging)
+            {
+                drawPanned();
+            }
+        }
+    };
 
     public MousePanMediator()
     {
@@ -48,10 +74,41 @@ public class MousePanMediator extends AbstractMediator
         setEventFilter(EventFilter.and(filters));
     }
 
+    /**
+     * Sets whether panning shifts the already rendered Layer canvases and only draws
+     * the newly exposed edges, deferring the full redraw until the pan ends.
+     * The default value is false.
+     * 
+     * @param blitting
+     */
+    public void setBlitPanning(final boolean blitting)
+    {
+        m_blitting = blitting;
+    }
+
+    public boolean isBlitPanning()
+    {
+        return m_blitting;
+    }
+
     @Override
     public void cancel()
     {
+        final boolean blitted = (m_dragging && m_blitting);
+
         m_dragging = false;
+
+        if (blitted)
+        {
+            if (isBatchDraw())
+            {
+                getViewport().getScene().batch();
+            }
+            else
+            {
+                getViewport().getScene().draw();
+            }
+        }
     }
 
     @Override
@@ -118,7 +175,23 @@ public class MousePanMediator extends AbstractMediator
 
         m_last = curr;
 
-        if (isBatchDraw())
+        if (m_blitting)
+        {
+            if (isBatchDraw())
+            {
+                if (false == m_scheduled)
+                {
+                    m_scheduled = true;
+
+                    AnimationScheduler.get().requestAnimationFrame(m_blitter);
+                }
+            }
+            else
+            {
+                drawPanned();
+            }
+        }
+        else if (isBatchDraw())
         {
             getViewport().getScene().batch();
         }
@@ -132,4 +205,24 @@ public class MousePanMediator extends AbstractMediator
     {
         cancel();
     }
+
+    private final void drawPanned()
+    {
+        final NFastArrayList<Layer> layers = getViewport().getScene().getChildNodes();
+
+        if (null != layers)
+        {
+            final int size = layers.size();
+
+            for (int i = 0; i < size; i++)
+            {
+                final Layer layer = layers.get(i);
+
+                if (null != layer)
+                {
+                    layer.drawPanned();
+                }
+            }
+        }
+    }
 }
@@ -64,6 +64,23 @@ public abstract class AbstractImageShape<T extends AbstractImageShape<T>> extend
         return m_proxy;
     }
 
+    @Override
+    protected void setParent(final Node<?> parent)
+    {
+        super.setParent(parent);
+
+        // a detached image shape no longer keeps its image in the ImageCache
+
+        if (null == parent)
+        {
+            m_proxy.releaseImage();
+        }
+        else
+        {
+            m_proxy.retainImage();
+        }
+    }
+
     @Override
     protected void setColorKey(final String ckey)
     {
@@ -159,6 +176,18 @@ public abstract class AbstractImageShape<T extends AbstractImageShape<T>> extend
         return m_proxy.getImageData();
     }
 
+    /**
+     * Returns whether the point, in this shape's coordinates, selects this image, following its {@link ImageSelectionMode}.
+     *
+     * @param x
+     * @param y
+     * @return boolean
+     */
+    public boolean isSelectableAt(final double x, final double y)
+    {
+        return m_proxy.isSelectableAt(x, y);
+    }
+
     public String toDataURL(final boolean filtered)
     {
         return m_proxy.toDataURL(filtered);
@@ -77,6 +77,8 @@ public class Attributes
 
     private IAttributesChangedBatcher  m_bat;
 
+    private int                        m_changes;
+
     public Attributes(final IJSONSerializable<?> ser)
     {
         m_ser = ser;
@@ -132,8 +134,24 @@ public class Attributes
         }
     }
 
+    /**
+     * Returns the number of attribute changes so far, so values derived from the attributes can be kept until it moves.
+     *
+     * @return int
+     */
+    public final int getChangeCount()
+    {
+        return m_changes;
+    }
+
     private final void checkDispatchAttributesChanged(final String name)
     {
+        m_changes++;
+
+        ChangeJournal.attributeChanged(m_ser, name);
+
+        LayerTileCache.attributeChanged(m_ser);
+
         if ((null != m_man) && (null != m_ser) && (null != m_bat))
         {
             if (m_man.canDispatchAttributesChanged(name))
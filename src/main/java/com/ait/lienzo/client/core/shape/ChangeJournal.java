@@ -0,0 +1,756 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.shape;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+
+import com.ait.lienzo.client.core.shape.json.IContainerFactory;
+import com.ait.lienzo.client.core.shape.json.IFactory;
+import com.ait.lienzo.client.core.shape.json.IJSONSerializable;
+import com.ait.lienzo.client.core.shape.json.JSONDeserializer;
+import com.ait.lienzo.client.core.shape.json.validators.ValidationContext;
+import com.ait.lienzo.client.core.shape.json.validators.ValidationException;
+import com.ait.tooling.nativetools.client.collection.NFastArrayList;
+import com.ait.tooling.nativetools.client.collection.NFastStringMap;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArray;
+import com.google.gwt.core.client.JsArrayString;
+import com.google.gwt.json.client.JSONArray;
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.json.client.JSONString;
+import com.google.gwt.json.client.JSONValue;
+
+/**
+ * ChangeJournal records the edits made to a tree of nodes, i.e. a {@link Layer}, so they can be sent or saved as a delta
+ * instead of serializing the whole tree again.
+ * <p>
+ * While recording, it keeps the names of the attributes changed on each node, and the children added, removed or moved
+ * in z-order, all by node {@link Node#uuid() uuid}. {@link #flush()} turns them into a delta document, whose size follows
+ * the size of the edits: added nodes are serialized when added, changed attributes are read once when flushing.
+ * <p>
+ * A {@link Replica} replays deltas onto another tree, which is built from a {@link #snapshot()} so its nodes have the same uuids.
+ * <pre>
+ * ChangeJournal journal = new ChangeJournal(layer).start();
+ * Replica replica = new Replica(journal.snapshot(), ctx);
+ * ...
+ * replica.apply(journal.flush());
+ * </pre>
+ */
+public final class ChangeJournal
+{
+    private static final ArrayList<ChangeJournal> RECORDING = new ArrayList<ChangeJournal>();
+
+    private final Node<?>                         m_root;
+
+    private final LinkedHashMap<String, Changed>  m_attrs   = new LinkedHashMap<String, Changed>();
+
+    private JsArray<JavaScriptObject>             m_edits   = JsArray.createArray().cast();
+
+    public ChangeJournal(final Node<?> root)
+    {
+        m_root = root;
+    }
+
+    public final Node<?> getRoot()
+    {
+        return m_root;
+    }
+
+    public final ChangeJournal start()
+    {
+        if (false == RECORDING.contains(this))
+        {
+            RECORDING.add(this);
+        }
+        return this;
+    }
+
+    public final ChangeJournal stop()
+    {
+        RECORDING.remove(this);
+
+        return this;
+    }
+
+    public final boolean isRecording()
+    {
+        return RECORDING.contains(this);
+    }
+
+    public final boolean isEmpty()
+    {
+        return ((m_attrs.isEmpty()) && (m_edits.length() < 1));
+    }
+
+    /**
+     * Drops the recorded changes.
+     *
+     * @return this ChangeJournal
+     */
+    public final ChangeJournal clear()
+    {
+        m_attrs.clear();
+
+        m_edits = JsArray.createArray().cast();
+
+        return this;
+    }
+
+    /**
+     * Returns the JSON of the whole tree with the uuid of every node, to build a {@link Replica} from, and drops the recorded changes.
+     *
+     * @return JSONObject
+     */
+    public final JSONObject snapshot()
+    {
+        clear();
+
+        final JavaScriptObject json = serialize(m_root);
+
+        if (null == json)
+        {
+            return null;
+        }
+        return new JSONObject(json);
+    }
+
+    /**
+     * Returns the recorded changes as a delta document, and drops them.
+     * <p>
+     * The document is <code>{"type":"delta","ops":[...]}</code>. Structural operations come first, in the order they
+     * were made, followed by one "set" operation per changed node with the current values of its changed attributes.
+     *
+     * @return JSONObject, or null if nothing changed
+     */
+    public final JSONObject flush()
+    {
+        if (isEmpty())
+        {
+            return null;
+        }
+        final JsArray<JavaScriptObject> ops = m_edits;
+
+        for (Changed changed : m_attrs.values())
+        {
+            if (contains(changed.m_node))
+            {
+                final JsArrayString names = JsArrayString.createArray().cast();
+
+                for (String name : changed.m_names)
+                {
+                    names.push(name);
+                }
+                ops.push(set(changed.m_node.uuid(), changed.m_node.getAttributes().getJSO(), names));
+            }
+        }
+        m_attrs.clear();
+
+        m_edits = JsArray.createArray().cast();
+
+        final JSONObject delta = new JSONObject();
+
+        delta.put("type", new JSONString("delta"));
+
+        delta.put("ops", new JSONArray(ops));
+
+        return delta;
+    }
+
+    static final void attributeChanged(final IJSONSerializable<?> ser, final String name)
+    {
+        if (RECORDING.isEmpty() || (false == (ser instanceof Node)))
+        {
+            return;
+        }
+        final Node<?> node = (Node<?>) ser;
+
+        for (ChangeJournal journal : RECORDING)
+        {
+            if (journal.contains(node))
+            {
+                final String uuid = node.uuid();
+
+                Changed changed = journal.m_attrs.get(uuid);
+
+                if (null == changed)
+                {
+                    journal.m_attrs.put(uuid, changed = new Changed(node));
+                }
+                changed.m_names.add(name);
+            }
+        }
+    }
+
+    static final void childAdded(final Node<?> parent, final Node<?> child)
+    {
+        if (RECORDING.isEmpty())
+        {
+            return;
+        }
+        JavaScriptObject json = null;
+
+        for (ChangeJournal journal : RECORDING)
+        {
+            if (journal.contains(parent))
+            {
+                if (null == json)
+                {
+                    json = serialize(child);
+
+                    if (null == json)
+                    {
+                        return;
+                    }
+                }
+                journal.m_edits.push(edit("add", parent.uuid(), null, json));
+            }
+        }
+    }
+
+    static final void childRemoved(final Node<?> parent, final Node<?> child)
+    {
+        record(parent, "remove", child.uuid());
+    }
+
+    static final void childrenCleared(final Node<?> parent)
+    {
+        record(parent, "clear", null);
+    }
+
+    static final void childMoved(final Node<?> parent, final Node<?> child, final String move)
+    {
+        record(parent, move, child.uuid());
+    }
+
+    private static final void record(final Node<?> parent, final String op, final String uuid)
+    {
+        if (RECORDING.isEmpty())
+        {
+            return;
+        }
+        for (ChangeJournal journal : RECORDING)
+        {
+            if (journal.contains(parent))
+            {
+                journal.m_edits.push(edit(op, parent.uuid(), uuid, null));
+            }
+        }
+    }
+
+    private final boolean contains(final Node<?> node)
+    {
+        for (Node<?> look = node; null != look; look = look.getParent())
+        {
+            if (look == m_root)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Serializes a node like {@link Node#toJSONObject()}, detached from the live attributes and with the uuid of every node.
+     */
+    private static final JavaScriptObject serialize(final Node<?> node)
+    {
+        final JSONObject json = node.toJSONObject();
+
+        if (null == json)
+        {
+            return null;
+        }
+        final JavaScriptObject copy = detach(json.getJavaScriptObject());
+
+        identify(node, copy);
+
+        return copy;
+    }
+
+    private static final void identify(final Node<?> node, final JavaScriptObject json)
+    {
+        setUUID(json, node.uuid());
+
+        final ContainerNode<?, ?> cont = node.asContainerNode();
+
+        if (null != cont)
+        {
+            final JsArray<JavaScriptObject> jarr = getChildren(json);
+
+            final NFastArrayList<? extends IDrawable<?>> list = cont.getChildNodes();
+
+            // children that could not be serialized are skipped, in which case the lists don't line up
+
+            if ((null != jarr) && (null != list) && (jarr.length() == list.size()))
+            {
+                final int size = list.size();
+
+                for (int i = 0; i < size; i++)
+                {
+                    identify(list.get(i).asNode(), jarr.get(i));
+                }
+            }
+        }
+    }
+
+    private static final native JavaScriptObject detach(JavaScriptObject json)
+    /*-{
+		return JSON.parse(JSON.stringify(json));
+    }-*/;
+
+    private static final native void setUUID(JavaScriptObject json, String uuid)
+    /*-{
+		json.uuid = uuid;
+    }-*/;
+
+    private static final native String getUUID(JavaScriptObject json)
+    /*-{
+		var uuid = json.uuid;
+
+		if ((typeof uuid) === 'string') {
+			return uuid;
+		}
+		return null;
+    }-*/;
+
+    private static final native JsArray<JavaScriptObject> getChildren(JavaScriptObject json)
+    /*-{
+		var children = json.children;
+
+		if (Array.isArray(children)) {
+			return children;
+		}
+		return null;
+    }-*/;
+
+    private static final native JavaScriptObject edit(String op, String parent, String uuid, JavaScriptObject node)
+    /*-{
+		var edit = {
+			op : op,
+			parent : parent
+		};
+		if (uuid) {
+			edit.uuid = uuid;
+		}
+		if (node) {
+			edit.node = node;
+		}
+		return edit;
+    }-*/;
+
+    private static final native JavaScriptObject set(String uuid, JavaScriptObject attrs, JsArrayString names)
+    /*-{
+		var values = {}, removed = [];
+
+		for (var i = 0; i < names.length; i++) {
+			var name = names[i];
+
+			var v = attrs[name];
+
+			if ((v === undefined) || ((typeof v) === 'function')) {
+				removed.push(name);
+			} else {
+				values[name] = JSON.parse(JSON.stringify(v));
+			}
+		}
+		return {
+			op : "set",
+			uuid : uuid,
+			attributes : values,
+			removed : removed
+		};
+    }-*/;
+
+    private static final class Changed
+    {
+        private final Node<?>               m_node;
+
+        private final LinkedHashSet<String> m_names = new LinkedHashSet<String>();
+
+        private Changed(final Node<?> node)
+        {
+            m_node = node;
+        }
+    }
+
+    /**
+     * Replica replays the deltas from a {@link ChangeJournal} onto a tree built from the journal's {@link ChangeJournal#snapshot()}.
+     * <p>
+     * Attribute changes are applied through {@link Attributes}, so attributes changed handlers fire, and each changed node is
+     * {@link IDrawable#refresh() refreshed}. Like adding to a container, applying a delta does not draw, call {@link Layer#batch()} afterwards.
+     */
+    public static final class Replica
+    {
+        private final Node<?>                 m_root;
+
+        private final NFastStringMap<Node<?>> m_nodes = new NFastStringMap<Node<?>>();
+
+        /**
+         * Builds the tree of this replica from a {@link ChangeJournal#snapshot()}, giving each node the uuid it has in the snapshot.
+         *
+         * @param snapshot
+         * @param ctx
+         * @throws ValidationException
+         */
+        public Replica(final JSONObject snapshot, final ValidationContext ctx) throws ValidationException
+        {
+            final IJSONSerializable<?> made = JSONDeserializer.get().fromJSON(snapshot, ctx);
+
+            if (made instanceof Node)
+            {
+                m_root = (Node<?>) made;
+
+                assign(m_root, snapshot.getJavaScriptObject());
+
+                index(m_root);
+            }
+            else
+            {
+                m_root = null;
+            }
+        }
+
+        public final Node<?> getRoot()
+        {
+            return m_root;
+        }
+
+        /**
+         * Returns the node in this replica with the given uuid.
+         *
+         * @param uuid
+         * @return Node, or null
+         */
+        public final Node<?> find(final String uuid)
+        {
+            if (null == uuid)
+            {
+                return null;
+            }
+            return m_nodes.get(uuid);
+        }
+
+        /**
+         * Applies a delta document from {@link ChangeJournal#flush()}.
+         *
+         * @param delta
+         * @return false if some operations referred to nodes this replica does not have, the others are still applied
+         */
+        public final boolean apply(final JSONObject delta)
+        {
+            if (null == delta)
+            {
+                return true;
+            }
+            final JSONValue oval = delta.get("ops");
+
+            if ((null == oval) || (null == oval.isArray()))
+            {
+                return false;
+            }
+            final JSONArray ops = oval.isArray();
+
+            final int size = ops.size();
+
+            boolean done = true;
+
+            for (int i = 0; i < size; i++)
+            {
+                final JSONObject op = ops.get(i).isObject();
+
+                if ((null == op) || (false == applyOperation(op)))
+                {
+                    done = false;
+                }
+            }
+            return done;
+        }
+
+        private final boolean applyOperation(final JSONObject op)
+        {
+            final String type = getString(op, "op");
+
+            if ("set".equals(type))
+            {
+                return set(find(getString(op, "uuid")), op);
+            }
+            final Node<?> parent = find(getString(op, "parent"));
+
+            if ((null == parent) || (null == parent.asContainer()))
+            {
+                return false;
+            }
+            if ("add".equals(type))
+            {
+                return add(parent, op);
+            }
+            if ("clear".equals(type))
+            {
+                final NFastArrayList<? extends IDrawable<?>> list = parent.asContainerNode().getChildNodes();
+
+                if (null != list)
+                {
+                    final int size = list.size();
+
+                    for (int i = 0; i < size; i++)
+                    {
+                        unindex(list.get(i).asNode());
+                    }
+                }
+                parent.asContainer().removeAll();
+
+                return true;
+            }
+            final Node<?> node = find(getString(op, "uuid"));
+
+            if ((null == node) || (node.getParent() != parent))
+            {
+                return false;
+            }
+            if ("remove".equals(type))
+            {
+                unindex(node);
+
+                return node.removeFromParent();
+            }
+            if ("up".equals(type))
+            {
+                node.moveUp();
+            }
+            else if ("down".equals(type))
+            {
+                node.moveDown();
+            }
+            else if ("top".equals(type))
+            {
+                node.moveToTop();
+            }
+            else if ("bottom".equals(type))
+            {
+                node.moveToBottom();
+            }
+            else
+            {
+                return false;
+            }
+            return true;
+        }
+
+        private final boolean add(final Node<?> parent, final JSONObject op)
+        {
+            final JSONValue nval = op.get("node");
+
+            if ((null == nval) || (null == nval.isObject()))
+            {
+                return false;
+            }
+            final IFactory<?> factory = parent.getFactory();
+
+            if (false == (factory instanceof IContainerFactory))
+            {
+                return false;
+            }
+            try
+            {
+                final ValidationContext ctx = new ValidationContext();
+
+                ctx.setValidate(false);
+
+                ctx.setStopOnError(true);
+
+                final IJSONSerializable<?> made = JSONDeserializer.get().fromJSON(nval.isObject(), ctx);
+
+                if (false == (made instanceof Node))
+                {
+                    return false;
+                }
+                final Node<?> node = (Node<?>) made;
+
+                assign(node, nval.isObject().getJavaScriptObject());
+
+                if (((IContainerFactory) factory).addNodeForContainer(parent.asContainer(), node, ctx))
+                {
+                    index(node);
+
+                    return true;
+                }
+            }
+            catch (ValidationException e)
+            {
+                // fall through
+            }
+            return false;
+        }
+
+        private final boolean set(final Node<?> node, final JSONObject op)
+        {
+            if (null == node)
+            {
+                return false;
+            }
+            final Attributes attr = node.getAttributes();
+
+            final JSONValue aval = op.get("attributes");
+
+            if ((null != aval) && (null != aval.isObject()))
+            {
+                final JSONObject values = aval.isObject();
+
+                for (String name : values.keySet())
+                {
+                    final JSONValue value = values.get(name);
+
+                    if ((null == value) || (null != value.isNull()))
+                    {
+                        attr.remove(name);
+                    }
+                    else if (null != value.isNumber())
+                    {
+                        attr.put(name, value.isNumber().doubleValue());
+                    }
+                    else if (null != value.isString())
+                    {
+                        attr.put(name, value.isString().stringValue());
+                    }
+                    else if (null != value.isBoolean())
+                    {
+                        attr.put(name, value.isBoolean().booleanValue());
+                    }
+                    else if (null != value.isArray())
+                    {
+                        attr.put(name, value.isArray().getJavaScriptObject());
+                    }
+                    else if (null != value.isObject())
+                    {
+                        attr.put(name, value.isObject().getJavaScriptObject());
+                    }
+                }
+            }
+            final JSONValue rval = op.get("removed");
+
+            if ((null != rval) && (null != rval.isArray()))
+            {
+                final JSONArray removed = rval.isArray();
+
+                final int size = removed.size();
+
+                for (int i = 0; i < size; i++)
+                {
+                    final JSONString name = removed.get(i).isString();
+
+                    if (null != name)
+                    {
+                        attr.remove(name.stringValue());
+                    }
+                }
+            }
+            node.refresh();
+
+            return true;
+        }
+
+        /**
+         * Gives each node the uuid of the node it was serialized from, walking the JSON and the nodes built from it together.
+         */
+        private static final void assign(final Node<?> node, final JavaScriptObject json)
+        {
+            final String uuid = getUUID(json);
+
+            if (null != uuid)
+            {
+                node.uuid(uuid);
+            }
+            final ContainerNode<?, ?> cont = node.asContainerNode();
+
+            if (null != cont)
+            {
+                final JsArray<JavaScriptObject> jarr = getChildren(json);
+
+                final NFastArrayList<? extends IDrawable<?>> list = cont.getChildNodes();
+
+                // children that could not be built are skipped, in which case the lists don't line up
+
+                if ((null != jarr) && (null != list) && (jarr.length() == list.size()))
+                {
+                    final int size = list.size();
+
+                    for (int i = 0; i < size; i++)
+                    {
+                        assign(list.get(i).asNode(), jarr.get(i));
+                    }
+                }
+            }
+        }
+
+        private final void index(final Node<?> node)
+        {
+            m_nodes.put(node.uuid(), node);
+
+            final ContainerNode<?, ?> cont = node.asContainerNode();
+
+            if (null != cont)
+            {
+                final NFastArrayList<? extends IDrawable<?>> list = cont.getChildNodes();
+
+                if (null != list)
+                {
+                    final int size = list.size();
+
+                    for (int i = 0; i < size; i++)
+                    {
+                        index(list.get(i).asNode());
+                    }
+                }
+            }
+        }
+
+        private final void unindex(final Node<?> node)
+        {
+            m_nodes.remove(node.uuid());
+
+            final ContainerNode<?, ?> cont = node.asContainerNode();
+
+            if (null != cont)
+            {
+                final NFastArrayList<? extends IDrawable<?>> list = cont.getChildNodes();
+
+                if (null != list)
+                {
+                    final int size = list.size();
+
+                    for (int i = 0; i < size; i++)
+                    {
+                        unindex(list.get(i).asNode());
+                    }
+                }
+            }
+        }
+
+        private static final String getString(final JSONObject json, final String name)
+        {
+            final JSONValue value = json.get(name);
+
+            if ((null == value) || (null == value.isString()))
+            {
+                return null;
+            }
+            return value.isString().stringValue();
+        }
+    }
+}
@@ -154,6 +154,10 @@ public abstract class ContainerNode<M extends IDrawable<?>, T extends ContainerN
 
         getStorageEngine().add(child);
 
+        ChangeJournal.childAdded(this, node);
+
+        LayerTileCache.childChanged(this, node);
+
         return cast();
     }
 
@@ -173,6 +177,10 @@ public abstract class ContainerNode<M extends IDrawable<?>, T extends ContainerN
 
         getStorageEngine().remove(child);
 
+        ChangeJournal.childRemoved(this, node);
+
+        LayerTileCache.childRemoved(this, node);
+
         return cast();
     }
 
@@ -188,6 +196,10 @@ public abstract class ContainerNode<M extends IDrawable<?>, T extends ContainerN
     {
         getStorageEngine().clear();
 
+        ChangeJournal.childrenCleared(this);
+
+        LayerTileCache.childrenCleared(this);
+
         return cast();
     }
 
@@ -281,6 +293,10 @@ public abstract class ContainerNode<M extends IDrawable<?>, T extends ContainerN
     {
         getStorageEngine().moveUp(node);
 
+        ChangeJournal.childMoved(this, node.asNode(), "up");
+
+        LayerTileCache.childChanged(this, node.asNode());
+
         return cast();
     }
 
@@ -292,6 +308,10 @@ public abstract class ContainerNode<M extends IDrawable<?>, T extends ContainerN
     {
         getStorageEngine().moveDown(node);
 
+        ChangeJournal.childMoved(this, node.asNode(), "down");
+
+        LayerTileCache.childChanged(this, node.asNode());
+
         return cast();
     }
 
@@ -303,6 +323,10 @@ public abstract class ContainerNode<M extends IDrawable<?>, T extends ContainerN
     {
         getStorageEngine().moveToTop(node);
 
+        ChangeJournal.childMoved(this, node.asNode(), "top");
+
+        LayerTileCache.childChanged(this, node.asNode());
+
         return cast();
     }
 
@@ -314,6 +338,10 @@ public abstract class ContainerNode<M extends IDrawable<?>, T extends ContainerN
     {
         getStorageEngine().moveToBottom(node);
 
+        ChangeJournal.childMoved(this, node.asNode(), "bottom");
+
+        LayerTileCache.childChanged(this, node.asNode());
+
         return cast();
     }
 
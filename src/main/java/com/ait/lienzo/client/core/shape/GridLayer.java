@@ -17,15 +17,20 @@
 package com.ait.lienzo.client.core.shape;
 
 import com.ait.lienzo.client.core.Context2D;
+import com.ait.lienzo.client.core.config.LienzoCore;
 import com.ait.lienzo.client.core.shape.json.JSONDeserializer;
 import com.ait.lienzo.client.core.shape.json.validators.ValidationContext;
 import com.ait.lienzo.client.core.shape.json.validators.ValidationException;
 import com.ait.lienzo.client.core.types.BoundingBox;
 import com.ait.lienzo.client.core.types.DashArray;
+import com.ait.lienzo.client.core.types.PatternGradient;
 import com.ait.lienzo.client.core.types.Point2D;
 import com.ait.lienzo.client.core.types.Point2DArray;
 import com.ait.lienzo.client.core.types.Transform;
+import com.ait.lienzo.client.core.util.ScratchPad;
+import com.ait.lienzo.shared.core.types.FillRepeat;
 import com.ait.lienzo.shared.core.types.NodeType;
+import com.ait.tooling.nativetools.client.collection.NFastStringMap;
 import com.google.gwt.json.client.JSONArray;
 import com.google.gwt.json.client.JSONNull;
 import com.google.gwt.json.client.JSONNumber;
@@ -46,27 +51,42 @@ import com.google.gwt.json.client.JSONValue;
  * The strokeWidth of the lines is impervious to any transforms defined on the Layer or its Viewport,
  * i.e. a 1 pixel line will always show as a 1 pixel line, regardless of how far you zoomed in or out.
  * <p>
+ * By default, one primary grid cell is rendered into a small off-screen canvas per scale level, and the visible area is
+ * filled with it as a pattern. Lines are only stroked one by one when the pattern would alias, i.e. when zoomed far out.
+ * <p>
  * Note that the empty GridLayer constructor does not add any Lines, so you will not see a grid unless you add some Lines.
  * 
  * @since 1.1
  */
 public class GridLayer extends Layer
 {
-    private static final int X           = 0;
+    private static final int                      X                       = 0;
+
+    private static final int                      Y                       = 1;
+
+    private static final int                      PRIMARY_X               = 0;
+
+    private static final int                      PRIMARY_Y               = 1;
+
+    private static final int                      SECONDARY_X             = 2;
+
+    private static final int                      SECONDARY_Y             = 3;
+
+    private static final int                      MINIMUM_PATTERN_SPACING = 3;
 
-    private static final int Y           = 1;
+    private static final int                      MAXIMUM_PATTERN_SIZE    = 1024;
 
-    private static final int PRIMARY_X   = 0;
+    private static final int                      MAXIMUM_PATTERN_CELLS   = 8;
 
-    private static final int PRIMARY_Y   = 1;
+    private static final double                   PATTERN_LEVEL_STEP      = Math.sqrt(2);
 
-    private static final int SECONDARY_X = 2;
+    private double[]                              m_sizes                 = { 10, 10, 5, 5 };
 
-    private static final int SECONDARY_Y = 3;
+    private Line[]                                m_lines                 = new Line[4];
 
-    private double[]         m_sizes     = { 10, 10, 5, 5 };
+    private boolean                               m_pattern               = true;
 
-    private Line[]           m_lines     = new Line[4];
+    private final NFastStringMap<PatternGradient> m_cells                 = new NFastStringMap<PatternGradient>();
 
     // NOTE: we can't put Lines in Attributes
 
@@ -331,6 +351,33 @@ public class GridLayer extends Layer
         m_lines[SECONDARY_Y] = secondaryLineY;
     }
 
+    /**
+     * Returns true if the grid is drawn as a pattern of cached grid cells whenever it would not alias.
+     * The default value is true.
+     * 
+     * @return boolean
+     */
+    public boolean isPatternEnabled()
+    {
+        return m_pattern;
+    }
+
+    /**
+     * Sets whether the grid is drawn as a pattern of cached grid cells whenever it would not alias.
+     * The default value is true.
+     * 
+     * @param enabled
+     * @return this GridLayer
+     */
+    public GridLayer setPatternEnabled(final boolean enabled)
+    {
+        m_pattern = enabled;
+
+        m_cells.clear();
+
+        return this;
+    }
+
     @Override
     protected void drawWithoutTransforms(Context2D context, double alpha, final BoundingBox bounds)
     {
@@ -364,14 +411,151 @@ public class GridLayer extends Layer
 
             t.transform(b, b);
         }
-        double x1 = a.getX();
+        double x1 = Math.min(a.getX(), b.getX());
 
-        double y1 = a.getY();
+        double y1 = Math.min(a.getY(), b.getY());
 
-        double x2 = b.getX();
+        double x2 = Math.max(a.getX(), b.getX());
 
-        double y2 = b.getY();
+        double y2 = Math.max(a.getY(), b.getY());
+
+        if (false == drawPattern(context, alpha, bounds, x1, y1, x2, y2, scaleX, scaleY))
+        {
+            drawLines(context, alpha, bounds, x1, y1, x2, y2, scaleX, scaleY);
+        }
+        // Draw children (if any)
+        super.drawWithoutTransforms(context, alpha, bounds);
+    }
+
+    /**
+     * Fills the visible area with a pattern made of one primary grid cell, rendered at the nearest power of the square root of 2
+     * to the current scale. The cell is cached per scale level, so zooming only strokes the lines again when crossing a level.
+     * 
+     * @return false if the pattern would alias or can't be transformed, and the lines must be drawn instead.
+     */
+    private final boolean drawPattern(final Context2D context, final double alpha, final BoundingBox bounds, final double x1, final double y1, final double x2, final double y2, final double scaleX, final double scaleY)
+    {
+        if ((false == m_pattern) || (context.isSelection()) || (false == LienzoCore.IS_CANVAS_SUPPORTED) || (false == PatternGradient.isTransformSupported()))
+        {
+            return false;
+        }
+        final double sizeX = m_sizes[PRIMARY_X];
+
+        final double sizeY = m_sizes[PRIMARY_Y];
+
+        if ((sizeX <= 0) || (sizeY <= 0) || (scaleX <= 0) || (scaleY <= 0))
+        {
+            return false;
+        }
+        final double ratio = LienzoCore.get().getDeviceScale();
+
+        final double levelX = getPatternLevel(scaleX);
+
+        final double levelY = getPatternLevel(scaleY);
+
+        final double pixelsX = levelX * ratio;
+
+        final double pixelsY = levelY * ratio;
+
+        for (int i = 0; i < 4; i++)
+        {
+            // lines closer than MINIMUM_PATTERN_SPACING pixels would alias in a pattern
+
+            if ((null != m_lines[i]) && (m_sizes[i] * (((i % 2) == X) ? pixelsX : pixelsY) < MINIMUM_PATTERN_SPACING))
+            {
+                return false;
+            }
+        }
+        final int wide = (int) Math.ceil(sizeX * pixelsX);
 
+        final int high = (int) Math.ceil(sizeY * pixelsY);
+
+        if ((wide > MAXIMUM_PATTERN_SIZE) || (high > MAXIMUM_PATTERN_SIZE))
+        {
+            return false;
+        }
+        final String key = getPatternKey(levelX, levelY, alpha);
+
+        PatternGradient pattern = m_cells.get(key);
+
+        if (null == pattern)
+        {
+            final ScratchPad spad = new ScratchPad(wide, high);
+
+            final Context2D cctx = spad.getContext();
+
+            final double kx = wide / sizeX;
+
+            final double ky = high / sizeY;
+
+            // the cell covers [-size/2, size/2) so the primary lines are not cut in half at the edges
+
+            cctx.save();
+
+            cctx.transform(kx, 0, 0, ky, wide / 2.0, high / 2.0);
+
+            drawLines(cctx, alpha, bounds, -sizeX / 2, -sizeY / 2, (sizeX / 2) - (0.5 / kx), (sizeY / 2) - (0.5 / ky), kx / ratio, ky / ratio);
+
+            cctx.restore();
+
+            pattern = new PatternGradient(spad.getElement(), FillRepeat.REPEAT);
+
+            pattern.setTransform(new Transform(sizeX / wide, 0, 0, sizeY / high, -sizeX / 2, -sizeY / 2));
+
+            if (m_cells.size() >= MAXIMUM_PATTERN_CELLS)
+            {
+                m_cells.clear();
+            }
+            m_cells.put(key, pattern);
+        }
+        context.save();
+
+        context.setFillGradient(pattern);
+
+        context.fillRect(x1, y1, x2 - x1, y2 - y1);
+
+        context.restore();
+
+        return true;
+    }
+
+    /**
+     * Returns the scale snapped to the nearest power of the square root of 2, so a cell is drawn at most about 19% larger or smaller than shown.
+     */
+    private static final double getPatternLevel(final double scale)
+    {
+        return Math.pow(PATTERN_LEVEL_STEP, Math.round(Math.log(scale) / Math.log(PATTERN_LEVEL_STEP)));
+    }
+
+    private final String getPatternKey(final double levelX, final double levelY, final double alpha)
+    {
+        final StringBuilder builder = new StringBuilder();
+
+        builder.append(levelX).append(':').append(levelY).append(':').append(alpha);
+
+        for (int i = 0; i < 4; i++)
+        {
+            builder.append(':').append(m_sizes[i]);
+
+            final Line line = m_lines[i];
+
+            if (null != line)
+            {
+                builder.append(':').append(line.getStrokeColor()).append(':').append(line.getStrokeWidth()).append(':').append(line.getAlpha());
+
+                final DashArray dash = line.getDashArray();
+
+                if (null != dash)
+                {
+                    builder.append(':').append(dash.toJSONString());
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private final void drawLines(final Context2D context, final double alpha, final BoundingBox bounds, final double x1, final double y1, final double x2, final double y2, final double scaleX, final double scaleY)
+    {
         for (int direction = X; direction <= Y; direction++)
         {
             boolean vertical = (direction == X);
@@ -485,8 +669,6 @@ public class GridLayer extends Layer
                 }
             }
         }
-        // Draw children (if any)
-        super.drawWithoutTransforms(context, alpha, bounds);
     }
 
     @Override
@@ -33,6 +33,8 @@ import com.ait.lienzo.client.core.types.ImageDataPixelColor;
 import com.ait.lienzo.client.core.types.OnLayerAfterDraw;
 import com.ait.lienzo.client.core.types.OnLayerBeforeDraw;
 import com.ait.lienzo.client.core.types.Transform;
+import com.ait.lienzo.client.core.util.GeometryException;
+import com.ait.lienzo.shared.core.types.CompositeOperation;
 import com.ait.lienzo.shared.core.types.DataURLType;
 import com.ait.lienzo.shared.core.types.LayerClearMode;
 import com.ait.lienzo.shared.core.types.NodeType;
@@ -81,6 +83,10 @@ public class Layer extends ContainerNode<IPrimitive<?>, Layer>
 
     private long                           m_batched         = 0L;
 
+    private Transform                      m_drawn           = null;
+
+    private LayerTileCache                 m_tiles           = null;
+
     private final ColorKeyRotor            m_c_rotor         = new ColorKeyRotor();
 
     private final NFastStringMap<Shape<?>> m_shape_color_map = new NFastStringMap<Shape<?>>();
@@ -430,6 +436,8 @@ public class Layer extends ContainerNode<IPrimitive<?>, Layer>
      */
     void setPixelSize(final int wide, final int high)
     {
+        m_drawn = null;
+
         m_wide = wide;
 
         m_high = high;
@@ -626,6 +634,34 @@ public class Layer extends ContainerNode<IPrimitive<?>, Layer>
         return this;
     }
 
+    /**
+     * Sets the {@link LayerTileCache} used to render this Layer. When set, this Layer is composed from cached tiles
+     * of world space instead of drawing every primitive, which is worthwhile for very large, mostly static content.
+     * The {@link SelectionLayer} is still drawn directly. Pass null to go back to drawing primitives.
+     * 
+     * @param tiles
+     * @return Layer
+     */
+    public Layer setTileCache(final LayerTileCache tiles)
+    {
+        if (null != m_tiles)
+        {
+            m_tiles.detached();
+        }
+        m_tiles = tiles;
+
+        if (null != m_tiles)
+        {
+            m_tiles.attached();
+        }
+        return this;
+    }
+
+    public LayerTileCache getTileCache()
+    {
+        return m_tiles;
+    }
+
     /**
      * Return the {@link CanvasElement}.
      * 
@@ -741,10 +777,20 @@ public class Layer extends ContainerNode<IPrimitive<?>, Layer>
                     {
                         lclp.clip(context);
                     }
-                    drawWithTransforms(context, 1, bbox);
-
+                    if ((null != m_tiles) && (context == getContext()))
+                    {
+                        m_tiles.draw(this, context, transform);
+                    }
+                    else
+                    {
+                        drawWithTransforms(context, 1, bbox);
+                    }
                     context.restore();
 
+                    if (context == getContext())
+                    {
+                        m_drawn = (null != transform) ? transform.copy() : null;
+                    }
                     if (null != m_olad)
                     {
                         m_olad.onLayerAfterDraw(this);
@@ -781,6 +827,237 @@ public class Layer extends ContainerNode<IPrimitive<?>, Layer>
         return this;
     }
 
+    /**
+     * Redraws this layer after the {@link Viewport} transform has only been translated since the last draw,
+     * as when panning. The current canvas content is shifted in place, and only the strips exposed along
+     * the edges are rendered, through a clip rectangle. Falls back to a full {@link #draw()} whenever the
+     * transform changed in any other way, or the shift is not pixel exact or larger than the layer.
+     * <p>
+     * The {@link SelectionLayer} is NOT updated, so call {@link #draw()} once panning ends.
+     * 
+     * @return Layer
+     */
+    public Layer drawPanned()
+    {
+        if ((false == LienzoCore.IS_CANVAS_SUPPORTED) || (false == isVisible()) || (false == isTransformable()) || (isBatchScheduled()))
+        {
+            return this;
+        }
+        final Viewport viewport = getViewport();
+
+        final Transform drawn = m_drawn;
+
+        final Transform transform = (null != viewport) ? viewport.getTransform() : null;
+
+        if ((null == drawn) || (null == transform) || (null != m_tiles) || (null != m_olad) || (false == isClearLayerBeforeDraw()))
+        {
+            return draw();
+        }
+        if ((drawn.getScaleX() != transform.getScaleX()) || (drawn.getScaleY() != transform.getScaleY()) || (drawn.getShearX() != transform.getShearX()) || (drawn.getShearY() != transform.getShearY()))
+        {
+            return draw();
+        }
+        final double dx = transform.getTranslateX() - drawn.getTranslateX();
+
+        final double dy = transform.getTranslateY() - drawn.getTranslateY();
+
+        if ((dx == 0) && (dy == 0))
+        {
+            return this;
+        }
+        final int wide = getWidth();
+
+        final int high = getHeight();
+
+        final double scale = LienzoCore.get().getDeviceScale();
+
+        final double ddx = dx * scale;
+
+        final double ddy = dy * scale;
+
+        if ((Math.abs(dx) >= wide) || (Math.abs(dy) >= high) || (Math.abs(ddx - Math.round(ddx)) > 0.001) || (Math.abs(ddy - Math.round(ddy)) > 0.001))
+        {
+            return draw();
+        }
+        if ((null != m_olbd) && (false == m_olbd.onLayerBeforeDraw(this)))
+        {
+            return this;
+        }
+        final Context2D context = getContext();
+
+        context.save();
+
+        context.setToIdentityTransform();
+
+        context.setGlobalCompositeOperation(CompositeOperation.COPY);
+
+        context.drawImage(getCanvasElement(), Math.round(ddx), Math.round(ddy));
+
+        context.restore();
+
+        final BoundingBox bbox = new BoundingBox();
+
+        context.save();
+
+        context.beginPath();
+
+        if (dx > 0)
+        {
+            addPannedStrip(context, bbox, 0, 0, dx, high);
+        }
+        else if (dx < 0)
+        {
+            addPannedStrip(context, bbox, wide + dx, 0, -dx, high);
+        }
+        if (dy > 0)
+        {
+            addPannedStrip(context, bbox, 0, 0, wide, dy);
+        }
+        else if (dy < 0)
+        {
+            addPannedStrip(context, bbox, 0, high + dy, wide, -dy);
+        }
+        drawClipped(context, transform, viewport, getClippedBounds(transform, bbox, "drawPanned"));
+
+        m_drawn = transform.copy();
+
+        return this;
+    }
+
+    private final void addPannedStrip(final Context2D context, final BoundingBox bbox, final double x, final double y, final double w, final double h)
+    {
+        context.clearRect(x, y, w, h);
+
+        context.rect(x, y, w, h);
+
+        bbox.add(x, y).add(x + w, y + h);
+    }
+
+    /**
+     * Redraws only the given regions of this layer and its {@link SelectionLayer}, as when a few small shapes changed
+     * how they look but not where they are. Each region is cleared and everything intersecting it is drawn again
+     * through a clip. Falls back to {@link #batch()} whenever the canvas does not show the current {@link Viewport}
+     * transform, or the layer is tiled, has an after draw handler, or is not cleared before drawing.
+     *
+     * @param regions the bounds to redraw, in canvas coordinates, i.e. a node's bounds through its absolute transform
+     * @return Layer
+     */
+    public Layer drawDirty(final List<BoundingBox> regions)
+    {
+        if ((false == LienzoCore.IS_CANVAS_SUPPORTED) || (false == isVisible()) || (isBatchScheduled()) || (regions.isEmpty()))
+        {
+            return this;
+        }
+        final Viewport viewport = getViewport();
+
+        final Transform drawn = m_drawn;
+
+        final Transform transform = (null != viewport) ? viewport.getTransform() : null;
+
+        if ((null == drawn) || (null == transform) || (false == isTransformable()) || (null != m_tiles) || (null != m_olad) || (false == isClearLayerBeforeDraw()))
+        {
+            return batch();
+        }
+        if ((drawn.getScaleX() != transform.getScaleX()) || (drawn.getScaleY() != transform.getScaleY()) || (drawn.getShearX() != transform.getShearX()) || (drawn.getShearY() != transform.getShearY()) || (drawn.getTranslateX() != transform.getTranslateX()) || (drawn.getTranslateY() != transform.getTranslateY()))
+        {
+            return batch();
+        }
+        if ((null != m_olbd) && (false == m_olbd.onLayerBeforeDraw(this)))
+        {
+            return this;
+        }
+        final BoundingBox bbox = new BoundingBox();
+
+        final int size = regions.size();
+
+        final double[] rect = new double[size * 4];
+
+        for (int i = 0, j = 0; i < size; i++, j += 4)
+        {
+            final BoundingBox region = regions.get(i);
+
+            // whole pixels, padded for anti-aliasing
+
+            rect[j] = Math.floor(region.getMinX()) - 1;
+
+            rect[j + 1] = Math.floor(region.getMinY()) - 1;
+
+            rect[j + 2] = Math.ceil(region.getMaxX()) + 1 - rect[j];
+
+            rect[j + 3] = Math.ceil(region.getMaxY()) + 1 - rect[j + 1];
+
+            bbox.add(rect[j], rect[j + 1]).add(rect[j] + rect[j + 2], rect[j + 1] + rect[j + 3]);
+        }
+        final BoundingBox bounds = getClippedBounds(transform, bbox, "drawDirty");
+
+        drawDirty(getContext(), rect, transform, viewport, bounds);
+
+        final SelectionLayer selection = getSelectionLayer();
+
+        if (null != selection)
+        {
+            drawDirty(selection.getContext(), rect, transform, viewport, bounds);
+        }
+        return this;
+    }
+
+    private final void drawDirty(final Context2D context, final double[] rect, final Transform transform, final Viewport viewport, final BoundingBox bounds)
+    {
+        context.save();
+
+        context.beginPath();
+
+        for (int j = 0; j < rect.length; j += 4)
+        {
+            context.clearRect(rect[j], rect[j + 1], rect[j + 2], rect[j + 3]);
+
+            context.rect(rect[j], rect[j + 1], rect[j + 2], rect[j + 3]);
+        }
+        drawClipped(context, transform, viewport, bounds);
+    }
+
+    /**
+     * Clips to the path the caller built after a save(), draws the layer through the viewport transform and path clippers, then restores.
+     */
+    private final void drawClipped(final Context2D context, final Transform transform, final Viewport viewport, final BoundingBox bounds)
+    {
+        context.clip();
+
+        context.transform(transform);
+
+        final IPathClipper vclp = viewport.getPathClipper();
+
+        if ((null != vclp) && (vclp.isActive()))
+        {
+            vclp.clip(context);
+        }
+        final IPathClipper lclp = getPathClipper();
+
+        if ((null != lclp) && (lclp.isActive()))
+        {
+            lclp.clip(context);
+        }
+        drawWithTransforms(context, 1, bounds);
+
+        context.restore();
+    }
+
+    /**
+     * Returns the clipped canvas area in layer coordinates, or the storage bounds if the transform cannot be inverted.
+     */
+    private final BoundingBox getClippedBounds(final Transform transform, final BoundingBox bbox, final String caller)
+    {
+        try
+        {
+            return transform.getInverse().transform(bbox);
+        }
+        catch (GeometryException e)
+        {
+            LienzoCore.get().error("Layer." + caller + "() inverse transform failed ", e);
+        }
+        return getStorageBounds();
+    }
+
     /**
      * Performs batch updates to the Layer, that is, drawing is deferred till the next AnimationFrame,
      * to cut down on redraws on rapid event dispatch.
@@ -836,6 +1113,8 @@ public class Layer extends ContainerNode<IPrimitive<?>, Layer>
      */
     public void clear()
     {
+        m_drawn = null;
+
         if (LienzoCore.get().getLayerClearMode() == LayerClearMode.CLEAR)
         {
             final Context2D context = getContext();
@@ -0,0 +1,673 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.shape;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import com.ait.lienzo.client.core.Context2D;
+import com.ait.lienzo.client.core.config.LienzoCore;
+import com.ait.lienzo.client.core.shape.json.IJSONSerializable;
+import com.ait.lienzo.client.core.types.BoundingBox;
+import com.ait.lienzo.client.core.types.BoundingPoints;
+import com.ait.lienzo.client.core.types.Transform;
+import com.ait.lienzo.client.core.util.GeometryException;
+import com.ait.lienzo.client.core.util.ScratchPad;
+import com.ait.lienzo.client.core.util.ScratchPadPool;
+import com.ait.tooling.nativetools.client.collection.NFastArrayList;
+import com.ait.tooling.nativetools.client.collection.NFastStringMap;
+
+/**
+ * LayerTileCache renders a {@link Layer} as fixed size tiles of world space at discrete zoom levels, like a map viewer.
+ * Each tile is rendered once into an off-screen {@link ScratchPad} and kept in a least recently used cache bounded by
+ * a memory budget, so frames are composed from the visible tiles instead of drawing every shape.
+ * <p>
+ * Attribute changes, and primitives added, removed or moved anywhere in the Layer, invalidate their tiles automatically.
+ * The bounds of every primitive are recorded when first composed, and changed primitives are collected until the next
+ * draw, so the tiles under both their old and new bounds are invalidated once per batch of changes. Changes made outside
+ * of attributes, i.e. to a path, can be reported through {@link #invalidate(IPrimitive)}.
+ *
+ * @see Layer#setTileCache(LayerTileCache)
+ */
+public class LayerTileCache
+{
+    public static final int                      DEFAULT_TILE_SIZE     = 256;
+
+    public static final long                     DEFAULT_MEMORY_BUDGET = 64L * 1024L * 1024L;
+
+    private static final int                     MAXIMUM_LEVEL         = 8;
+
+    private static final double                  BOUNDS_PADDING        = 8;
+
+    private static int                           s_attached            = 0;
+
+    private final int                            m_size;
+
+    private final long                           m_budget;
+
+    private long                                 m_used                = 0L;
+
+    private long                                 m_frame               = 0L;
+
+    private long                                 m_hits                = 0L;
+
+    private long                                 m_miss                = 0L;
+
+    private long                                 m_evicted             = 0L;
+
+    private final LinkedHashMap<String, Tile>    m_tiles               = new LinkedHashMap<String, Tile>(64, 0.75f, true);
+
+    private final NFastStringMap<BoundingBox>    m_bounds              = new NFastStringMap<BoundingBox>();
+
+    private final LinkedHashMap<String, Node<?>> m_dirty               = new LinkedHashMap<String, Node<?>>();
+
+    private boolean                              m_primed              = false;
+
+    private boolean                              m_all                 = false;
+
+    private final ScratchPadPool.Holder          m_holder              = new ScratchPadPool.Holder()
+    {
+        @Override
+        public void trim(final long bytes)
+        {
+            evict(m_used - bytes);
+        }
+    };
+
+    public LayerTileCache()
+    {
+        this(DEFAULT_TILE_SIZE, DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * Constructor. Creates a LayerTileCache.
+     *
+     * @param size the width and height of a tile, in pixels
+     * @param budget the maximum number of bytes of tile canvases to keep
+     */
+    public LayerTileCache(final int size, final long budget)
+    {
+        m_size = Math.max(16, size);
+
+        m_budget = Math.max(0L, budget);
+    }
+
+    public final int getTileSize()
+    {
+        return m_size;
+    }
+
+    public final long getMemoryBudget()
+    {
+        return m_budget;
+    }
+
+    public final long getMemoryUsage()
+    {
+        return m_used;
+    }
+
+    public final int getTileCount()
+    {
+        return m_tiles.size();
+    }
+
+    public final long getHitCount()
+    {
+        return m_hits;
+    }
+
+    public final long getMissCount()
+    {
+        return m_miss;
+    }
+
+    public final long getEvictionCount()
+    {
+        return m_evicted;
+    }
+
+    /**
+     * Invalidates the tiles under the previous and current bounds of a primitive.
+     * Call this after changing anything that affects how the primitive is drawn.
+     *
+     * @param prim
+     * @return this LayerTileCache
+     */
+    public LayerTileCache invalidate(final IPrimitive<?> prim)
+    {
+        if (null != prim)
+        {
+            invalidateNode(prim.asNode());
+        }
+        return this;
+    }
+
+    private final void invalidateNode(final Node<?> node)
+    {
+        final String uuid = node.uuid();
+
+        final BoundingBox last = m_bounds.get(uuid);
+
+        if (null != last)
+        {
+            invalidate(last);
+        }
+        final BoundingBox bbox = getPrimitiveBounds(node, node.getParent());
+
+        if (null != bbox)
+        {
+            m_bounds.put(uuid, bbox);
+
+            invalidate(bbox);
+        }
+        else
+        {
+            m_bounds.remove(uuid);
+        }
+        final ContainerNode<?, ?> cont = node.asContainerNode();
+
+        if (null != cont)
+        {
+            recordChildren(cont);
+        }
+    }
+
+    /**
+     * Invalidates every cached tile intersecting the given bounds, in Layer coordinates.
+     *
+     * @param bbox
+     * @return this LayerTileCache
+     */
+    public LayerTileCache invalidate(final BoundingBox bbox)
+    {
+        if ((null != bbox) && (bbox.isValid()))
+        {
+            final Iterator<Tile> iter = m_tiles.values().iterator();
+
+            while (iter.hasNext())
+            {
+                final Tile tile = iter.next();
+
+                if (tile.m_bbox.intersects(bbox))
+                {
+                    iter.remove();
+
+                    release(tile);
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Invalidates all the tiles. Use this when the Layer changes as a whole, i.e. its own transform or clip.
+     *
+     * @return this LayerTileCache
+     */
+    public LayerTileCache invalidateAll()
+    {
+        for (Tile tile : m_tiles.values())
+        {
+            release(tile);
+        }
+        m_tiles.clear();
+
+        return this;
+    }
+
+    /**
+     * Invalidates all the tiles and forgets all recorded primitive bounds.
+     *
+     * @return this LayerTileCache
+     */
+    public LayerTileCache clear()
+    {
+        invalidateAll();
+
+        m_bounds.clear();
+
+        m_dirty.clear();
+
+        m_primed = false;
+
+        m_all = false;
+
+        return this;
+    }
+
+    final void attached()
+    {
+        s_attached++;
+
+        ScratchPadPool.get().addHolder(m_holder);
+
+        clear();
+    }
+
+    final void detached()
+    {
+        s_attached--;
+
+        ScratchPadPool.get().removeHolder(m_holder);
+
+        clear();
+    }
+
+    /**
+     * Called by {@link Attributes} after any attribute of a node changed.
+     */
+    static final void attributeChanged(final IJSONSerializable<?> ser)
+    {
+        if ((s_attached > 0) && (ser instanceof Node))
+        {
+            final Node<?> node = (Node<?>) ser;
+
+            final LayerTileCache tiles = getTileCache(node);
+
+            if (null != tiles)
+            {
+                if (node instanceof Layer)
+                {
+                    tiles.m_all = true;
+                }
+                else
+                {
+                    tiles.m_dirty.put(node.uuid(), node);
+                }
+            }
+        }
+    }
+
+    /**
+     * Called by {@link ContainerNode} after a child was added or moved in z-order.
+     */
+    static final void childChanged(final Node<?> parent, final Node<?> child)
+    {
+        if (s_attached > 0)
+        {
+            final LayerTileCache tiles = getTileCache(parent);
+
+            if (null != tiles)
+            {
+                tiles.m_dirty.put(child.uuid(), child);
+            }
+        }
+    }
+
+    /**
+     * Called by {@link ContainerNode} after a child was removed, so it is no longer attached to the Layer.
+     */
+    static final void childRemoved(final Node<?> parent, final Node<?> child)
+    {
+        if (s_attached > 0)
+        {
+            final LayerTileCache tiles = getTileCache(parent);
+
+            if (null != tiles)
+            {
+                tiles.remove(child, parent);
+            }
+        }
+    }
+
+    /**
+     * Called by {@link ContainerNode} after all children were removed.
+     */
+    static final void childrenCleared(final Node<?> parent)
+    {
+        if (s_attached > 0)
+        {
+            final LayerTileCache tiles = getTileCache(parent);
+
+            if (null != tiles)
+            {
+                if (parent instanceof Layer)
+                {
+                    tiles.clear();
+                }
+                else
+                {
+                    tiles.m_dirty.put(parent.uuid(), parent);
+                }
+            }
+        }
+    }
+
+    private static final LayerTileCache getTileCache(final Node<?> node)
+    {
+        final Layer layer = node.getLayer();
+
+        if (null != layer)
+        {
+            return layer.getTileCache();
+        }
+        return null;
+    }
+
+    private final void remove(final Node<?> node, final Node<?> parent)
+    {
+        final String uuid = node.uuid();
+
+        m_dirty.remove(uuid);
+
+        final BoundingBox last = m_bounds.get(uuid);
+
+        if (null != last)
+        {
+            m_bounds.remove(uuid);
+
+            invalidate(last);
+        }
+        else
+        {
+            invalidate(getPrimitiveBounds(node, parent));
+        }
+        final ContainerNode<?, ?> cont = node.asContainerNode();
+
+        if (null != cont)
+        {
+            final NFastArrayList<? extends IDrawable<?>> list = cont.getChildNodes();
+
+            final int size = list.size();
+
+            for (int i = 0; i < size; i++)
+            {
+                remove(list.get(i).asNode(), node);
+            }
+        }
+    }
+
+    /**
+     * Invalidates the tiles under the nodes changed since the last draw, or records the bounds of every node the first time.
+     */
+    private final void flush(final Layer layer)
+    {
+        if (m_all)
+        {
+            m_all = false;
+
+            invalidateAll();
+        }
+        if (false == m_primed)
+        {
+            m_primed = true;
+
+            m_dirty.clear();
+
+            recordChildren(layer);
+
+            return;
+        }
+        if (m_dirty.isEmpty())
+        {
+            return;
+        }
+        for (Node<?> node : m_dirty.values())
+        {
+            if (layer == node.getLayer())
+            {
+                invalidateNode(node);
+            }
+        }
+        m_dirty.clear();
+    }
+
+    private final void recordChildren(final ContainerNode<?, ?> cont)
+    {
+        final NFastArrayList<? extends IDrawable<?>> list = cont.getChildNodes();
+
+        final int size = list.size();
+
+        for (int i = 0; i < size; i++)
+        {
+            final Node<?> node = list.get(i).asNode();
+
+            final BoundingBox bbox = getPrimitiveBounds(node, cont);
+
+            if (null != bbox)
+            {
+                m_bounds.put(node.uuid(), bbox);
+            }
+            else
+            {
+                m_bounds.remove(node.uuid());
+            }
+            final ContainerNode<?, ?> next = node.asContainerNode();
+
+            if (null != next)
+            {
+                recordChildren(next);
+            }
+        }
+    }
+
+    /**
+     * Composes the visible part of the layer from tiles into the context, which must be
+     * set up with the viewport transform already applied.
+     */
+    final void draw(final Layer layer, final Context2D context, final Transform transform)
+    {
+        final Transform viewport = (null != transform) ? transform : new Transform();
+
+        final double scale = Math.sqrt(Math.abs(viewport.getScaleX() * viewport.getScaleY() - viewport.getShearX() * viewport.getShearY())) * LienzoCore.get().getDeviceScale();
+
+        if (scale <= 0)
+        {
+            return;
+        }
+        final int level = Math.max(-MAXIMUM_LEVEL, Math.min(MAXIMUM_LEVEL, (int) Math.ceil(Math.log(scale) / Math.log(2))));
+
+        final double wide = m_size / Math.pow(2, level);
+
+        BoundingBox view;
+
+        try
+        {
+            view = getVisibleBounds(viewport.getInverse(), layer.getWidth(), layer.getHeight());
+        }
+        catch (GeometryException e)
+        {
+            LienzoCore.get().error("LayerTileCache.draw() inverse transform failed ", e);
+
+            return;
+        }
+        flush(layer);
+
+        m_frame++;
+
+        final int minc = (int) Math.floor(view.getMinX() / wide);
+
+        final int maxc = (int) Math.floor(view.getMaxX() / wide);
+
+        final int minr = (int) Math.floor(view.getMinY() / wide);
+
+        final int maxr = (int) Math.floor(view.getMaxY() / wide);
+
+        for (int r = minr; r <= maxr; r++)
+        {
+            for (int c = minc; c <= maxc; c++)
+            {
+                final Tile tile = getTile(layer, level, c, r, wide);
+
+                if (null != tile)
+                {
+                    context.drawImage(tile.m_spad.getElement(), 0, 0, m_size, m_size, c * wide, r * wide, wide, wide);
+                }
+            }
+        }
+        evict(m_budget);
+    }
+
+    private final Tile getTile(final Layer layer, final int level, final int col, final int row, final double wide)
+    {
+        final String key = level + ":" + col + ":" + row;
+
+        Tile tile = m_tiles.get(key);
+
+        if (null != tile)
+        {
+            m_hits++;
+
+            tile.m_frame = m_frame;
+
+            return tile;
+        }
+        m_miss++;
+
+        final ScratchPad spad = ScratchPadPool.get().acquire(m_size, m_size);
+
+        final Context2D context = spad.getContext();
+
+        if (null == context)
+        {
+            ScratchPadPool.get().release(spad);
+
+            return null;
+        }
+        final BoundingBox bbox = new BoundingBox(col * wide, row * wide, (col + 1) * wide, (row + 1) * wide);
+
+        final double ratio = m_size / wide;
+
+        context.save();
+
+        context.transform(ratio, 0, 0, ratio, -bbox.getMinX() * ratio, -bbox.getMinY() * ratio);
+
+        context.beginPath();
+
+        context.rect(bbox.getMinX(), bbox.getMinY(), wide, wide);
+
+        context.clip();
+
+        layer.drawWithTransforms(context, 1, bbox);
+
+        context.restore();
+
+        tile = new Tile(spad, bbox, m_frame);
+
+        m_tiles.put(key, tile);
+
+        m_used += getTileBytes();
+
+        return tile;
+    }
+
+    /**
+     * Drops the least recently used tiles not drawn in the current frame, until their bytes are within the limit.
+     */
+    private final void evict(final long limit)
+    {
+        if (m_used <= limit)
+        {
+            return;
+        }
+        final Iterator<Tile> iter = m_tiles.values().iterator();
+
+        while ((m_used > limit) && (iter.hasNext()))
+        {
+            final Tile tile = iter.next();
+
+            if (tile.m_frame != m_frame)
+            {
+                iter.remove();
+
+                release(tile);
+
+                m_evicted++;
+            }
+        }
+    }
+
+    private final void release(final Tile tile)
+    {
+        m_used -= getTileBytes();
+
+        ScratchPadPool.get().release(tile.m_spad);
+    }
+
+    private final long getTileBytes()
+    {
+        return 4L * m_size * m_size;
+    }
+
+    private static final BoundingBox getVisibleBounds(final Transform inverse, final int wide, final int high)
+    {
+        return inverse.transform(new BoundingBox(0, 0, wide, high));
+    }
+
+    /**
+     * Returns the bounds of a node in Layer coordinates, through the transforms of the given parent and its ancestors.
+     */
+    private static final BoundingBox getPrimitiveBounds(final Node<?> node, final Node<?> parent)
+    {
+        final BoundingPoints points = node.getBoundingPoints();
+
+        if (null == points)
+        {
+            return null;
+        }
+        if ((null != parent) && (false == (parent instanceof Layer)))
+        {
+            final Transform xfrm = new Transform();
+
+            getParentTransform(parent, xfrm);
+
+            points.transform(xfrm);
+        }
+        final BoundingBox bbox = points.getBoundingBox();
+
+        if (null == bbox)
+        {
+            return null;
+        }
+        return new BoundingBox(bbox.getMinX() - BOUNDS_PADDING, bbox.getMinY() - BOUNDS_PADDING, bbox.getMaxX() + BOUNDS_PADDING, bbox.getMaxY() + BOUNDS_PADDING);
+    }
+
+    private static final void getParentTransform(final Node<?> node, final Transform xfrm)
+    {
+        if ((null == node) || (node instanceof Layer))
+        {
+            return;
+        }
+        getParentTransform(node.getParent(), xfrm);
+
+        final Transform temp = node.getPossibleNodeTransform();
+
+        if (null != temp)
+        {
+            xfrm.multiply(temp);
+        }
+    }
+
+    private static final class Tile
+    {
+        private final ScratchPad  m_spad;
+
+        private final BoundingBox m_bbox;
+
+        private long              m_frame;
+
+        private Tile(final ScratchPad spad, final BoundingBox bbox, final long frame)
+        {
+            m_spad = spad;
+
+            m_bbox = bbox;
+
+            m_frame = frame;
+        }
+    }
+}
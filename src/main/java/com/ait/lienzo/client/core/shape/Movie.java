@@ -16,6 +16,7 @@
 
 package com.ait.lienzo.client.core.shape;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -37,6 +38,7 @@ import com.ait.lienzo.client.core.types.BoundingBox;
 import com.ait.lienzo.client.core.types.MovieEndedHandler;
 import com.ait.lienzo.client.core.types.TextMetrics;
 import com.ait.lienzo.client.core.util.ScratchPad;
+import com.ait.lienzo.client.core.util.ScratchPadPool;
 import com.ait.lienzo.shared.core.types.ColorName;
 import com.ait.lienzo.shared.core.types.ShapeType;
 import com.ait.lienzo.shared.core.types.TextAlign;
@@ -66,31 +68,49 @@ import com.google.gwt.user.client.ui.RootPanel;
  */
 public class Movie extends Shape<Movie>implements ImageDataFilterable<Movie>
 {
-    private static final int           MOVIE_ERROR_HIGH = 360;
+    private static final int           MOVIE_ERROR_HIGH      = 360;
 
-    private static final int           MOVIE_ERROR_WIDE = 640;
+    private static final int           MOVIE_ERROR_WIDE      = 640;
 
-    private boolean                    m_inits          = true;
+    public static final double         DEFAULT_FILTER_BUDGET = 8.0;
 
-    private boolean                    m_ended          = true;
+    private static final int           MAXIMUM_FILTER_SKIP   = 4;
 
-    private boolean                    m_pause          = true;
+    private boolean                    m_inits               = true;
 
-    private boolean                    m_xorig          = false;
+    private boolean                    m_ended               = true;
 
-    private String                     m_error          = null;
+    private boolean                    m_pause               = true;
 
-    private ImageElement               m_postr          = null;
+    private boolean                    m_xorig               = false;
 
-    private MovieEndedHandler          m_onend          = null;
+    private String                     m_error               = null;
 
-    private final Video                m_video          = Video.createIfSupported();
+    private ImageElement               m_postr               = null;
+
+    private MovieEndedHandler          m_onend               = null;
+
+    private final Video                m_video               = Video.createIfSupported();
 
     private final MovieAnimation       m_animate;
 
-    private final ImageDataFilterChain m_filters        = new ImageDataFilterChain();
+    private final ImageDataFilterChain m_filters             = new ImageDataFilterChain();
+
+    private ScratchPad                 m_frame               = null;
+
+    private double                     m_frame_time          = -1;
+
+    private double                     m_filter_cost         = 0;
 
-    private final ScratchPad           m_canvas         = new ScratchPad(0, 0);
+    private double                     m_filter_budget       = DEFAULT_FILTER_BUDGET;
+
+    private int                        m_filter_skip         = 0;
+
+    private long                       m_filtered            = 0L;
+
+    private long                       m_dropped             = 0L;
+
+    private long                       m_skipped             = 0L;
 
     /**
      * Constructor. Creates an instance of a movie.
@@ -306,6 +326,8 @@ public class Movie extends Shape<Movie>implements ImageDataFilterable<Movie>
             }
             if (isEnded())
             {
+                doReleaseFrame();
+
                 if (null != m_postr)
                 {
                     context.save();
@@ -341,28 +363,12 @@ public class Movie extends Shape<Movie>implements ImageDataFilterable<Movie>
 
             if ((false == m_xorig) && (m_filters.isActive()))
             {
-                try
-                {
-                    m_canvas.getContext().drawImage(m_video.getElement(), 0, 0, wide, high);
-
-                    m_canvas.getContext().putImageData(m_filters.filter(m_canvas.getContext().getImageData(0, 0, wide, high), false), 0, 0);
-
-                    context.drawImage(m_canvas.getElement(), 0, 0, wide, high);
-                }
-                catch (Exception e)
-                {
-                    // We should only get an exception here if the URL is cross-origin, and getImageData() is basically a security exception.
-                    // ...or other unknown bad things, either way, turn off filtering. DSJ 7/18/2014
-
-                    context.drawImage(m_video.getElement(), 0, 0, wide, high);
-
-                    m_xorig = true;
-
-                    LienzoCore.get().error("ERROR: In Movie filtering " + m_video.getSrc() + " " + e.getMessage());
-                }
+                drawFiltered(context, wide, high);
             }
             else
             {
+                doReleaseFrame();
+
                 context.drawImage(m_video.getElement(), 0, 0, wide, high);
             }
             context.restore();
@@ -370,6 +376,164 @@ public class Movie extends Shape<Movie>implements ImageDataFilterable<Movie>
         return false;
     }
 
+    /**
+     * Draws the current video frame through the filters. The filtered frame is kept in a pad owned by this movie, and
+     * drawn again without filtering while the video is playing and its time has not changed. While the filter passes
+     * average more than the filter budget, the passes of the frames in between are dropped, and the last filtered
+     * frame drawn instead.
+     */
+    private final void drawFiltered(final Context2D context, final int wide, final int high)
+    {
+        if ((null == m_frame) || (m_frame.getWidth() != wide) || (m_frame.getHeight() != high))
+        {
+            doReleaseFrame();
+
+            m_frame = ScratchPadPool.get().acquire(wide, high);
+        }
+        final double time = m_video.getCurrentTime();
+
+        final boolean live = (m_frame_time >= 0) && (false == isPaused());
+
+        if ((live) && (time == m_frame_time))
+        {
+            context.drawImage(m_frame.getElement(), 0, 0, wide, high, 0, 0, wide, high);
+
+            return;
+        }
+        if ((live) && (m_filter_skip > 0))
+        {
+            m_filter_skip--;
+
+            m_dropped++;
+
+            context.drawImage(m_frame.getElement(), 0, 0, wide, high, 0, 0, wide, high);
+
+            return;
+        }
+        final Context2D temp = m_frame.getContext();
+
+        try
+        {
+            final long beg = System.currentTimeMillis();
+
+            temp.drawImage(m_video.getElement(), 0, 0, wide, high);
+
+            // getImageData always allocates, the pad and the filters' scratch buffers are what is reused from frame to frame
+
+            temp.putImageData(m_filters.filter(temp.getImageData(0, 0, wide, high), false), 0, 0);
+
+            final double cost = System.currentTimeMillis() - beg;
+
+            m_filter_cost = (m_filtered < 1) ? cost : ((m_filter_cost * 0.75) + (cost * 0.25));
+
+            m_filter_skip = (m_filter_cost > m_filter_budget) ? Math.min(MAXIMUM_FILTER_SKIP, ((int) Math.ceil(m_filter_cost / m_filter_budget)) - 1) : 0;
+
+            m_frame_time = time;
+
+            m_filtered++;
+
+            context.drawImage(m_frame.getElement(), 0, 0, wide, high, 0, 0, wide, high);
+        }
+        catch (Exception e)
+        {
+            // a cross-origin frame taints the pad, so it must never be handed out again
+
+            ScratchPadPool.get().discard(m_frame);
+
+            m_frame = null;
+
+            m_frame_time = -1;
+
+            // We should only get an exception here if the URL is cross-origin, and getImageData() is basically a security exception.
+            // ...or other unknown bad things, either way, turn off filtering. DSJ 7/18/2014
+
+            context.drawImage(m_video.getElement(), 0, 0, wide, high);
+
+            m_xorig = true;
+
+            LienzoCore.get().error("ERROR: In Movie filtering " + m_video.getSrc() + " " + e.getMessage());
+        }
+    }
+
+    private final void doReleaseFrame()
+    {
+        if (null != m_frame)
+        {
+            ScratchPadPool.get().release(m_frame);
+
+            m_frame = null;
+        }
+        m_frame_time = -1;
+
+        m_filter_skip = 0;
+    }
+
+    /**
+     * Returns the bounds of this movie in canvas coordinates if it is visible and they intersect its viewport, or null.
+     */
+    private final BoundingBox getVisibleBounds(final Layer layer)
+    {
+        if ((false == isVisible()) || (false == layer.isVisible()))
+        {
+            return null;
+        }
+        final Viewport viewport = layer.getViewport();
+
+        if (null == viewport)
+        {
+            return null;
+        }
+        final BoundingBox bbox = getAbsoluteTransform().transform(new BoundingBox(0, 0, getWidth(), getHeight()));
+
+        if (false == bbox.intersects(new BoundingBox(0, 0, viewport.getWidth(), viewport.getHeight())))
+        {
+            return null;
+        }
+        return bbox;
+    }
+
+    /**
+     * Sets the milliseconds a frame's filter pass may take on average before passes are dropped, drawing the last filtered frame instead.
+     *
+     * @param budget
+     * @return this Movie
+     */
+    public Movie setFilterBudget(final double budget)
+    {
+        m_filter_budget = Math.max(1, budget);
+
+        return this;
+    }
+
+    public double getFilterBudget()
+    {
+        return m_filter_budget;
+    }
+
+    /**
+     * Returns the number of frames run through the filters.
+     */
+    public long getFilteredFrameCount()
+    {
+        return m_filtered;
+    }
+
+    /**
+     * Returns the number of frames whose filter pass was dropped for the budget.
+     */
+    public long getDroppedFilterCount()
+    {
+        return m_dropped;
+    }
+
+    /**
+     * Returns the number of animation frames not redrawn, because the video frame had not changed or the movie was hidden or out of view.
+     */
+    public long getSkippedFrameCount()
+    {
+        return m_skipped;
+    }
+
     @Override
     public Movie setFilters(ImageDataFilter<?> filter, ImageDataFilter<?>... filters)
     {
@@ -765,8 +929,6 @@ public class Movie extends Shape<Movie>implements ImageDataFilterable<Movie>
             m_video.setWidth(wide + "px");
 
             m_video.setHeight(high + "px");
-
-            m_canvas.setPixelSize(wide, high);
         }
     }
 
@@ -775,6 +937,31 @@ public class Movie extends Shape<Movie>implements ImageDataFilterable<Movie>
     {
         JSONObject object = super.toJSONObject();
 
+        final JSONObject filter = getFilterJSONObject();
+
+        if (null != filter)
+        {
+            object.put("filter", filter);
+        }
+        return object;
+    }
+
+    @Override
+    protected JSONObject toCopyJSONObject()
+    {
+        final JSONObject object = super.toCopyJSONObject();
+
+        final JSONObject filter = getFilterJSONObject();
+
+        if (null != filter)
+        {
+            object.put("filter", new JSONObject(clone(filter.getJavaScriptObject())));
+        }
+        return object;
+    }
+
+    private final JSONObject getFilterJSONObject()
+    {
         ImageDataFilterChain chain = m_filters;
 
         if ((null != chain) && (chain.size() > 0))
@@ -799,9 +986,9 @@ public class Movie extends Shape<Movie>implements ImageDataFilterable<Movie>
             }
             filter.put("filters", filters);
 
-            object.put("filter", filter);
+            return filter;
         }
-        return object;
+        return null;
     }
 
     @Override
@@ -820,6 +1007,8 @@ public class Movie extends Shape<Movie>implements ImageDataFilterable<Movie>
 
         private boolean             m_start = true;
 
+        private double              m_time  = -1;
+
         public MovieAnimation(final Movie movie, final Video video)
         {
             super(null);
@@ -868,7 +1057,33 @@ public class Movie extends Shape<Movie>implements ImageDataFilterable<Movie>
         @Override
         public IAnimation doFrame()
         {
-            return draw();
+            final Layer layer = m_movie.getLayer();
+
+            if (null == layer)
+            {
+                return this;
+            }
+            final BoundingBox bbox = m_movie.getVisibleBounds(layer);
+
+            final double time = m_video.getCurrentTime();
+
+            // nothing new to show, or nowhere to show it, the time is kept so the frame is drawn once back in view
+
+            if ((null == bbox) || (time == m_time))
+            {
+                m_movie.m_skipped++;
+
+                return this;
+            }
+            m_time = time;
+
+            final ArrayList<BoundingBox> dirty = new ArrayList<BoundingBox>(1);
+
+            dirty.add(bbox);
+
+            layer.drawDirty(dirty);
+
+            return this;
         }
 
         @Override
@@ -876,6 +1091,8 @@ public class Movie extends Shape<Movie>implements ImageDataFilterable<Movie>
         {
             RootPanel.get().remove(m_video);
 
+            m_time = -1;
+
             if (null != m_watch)
             {
                 m_watch.removeHandler();
@@ -233,6 +233,26 @@ public class MultiPath extends AbstractMultiPathPartShape<MultiPath>
         return object;
     }
 
+    @Override
+    protected JSONObject toCopyJSONObject()
+    {
+        final JSONObject object = super.toCopyJSONObject();
+
+        final NFastArrayList<PathPartList> list = getPathPartListArray();
+
+        final JSONArray path = new JSONArray();
+
+        final int size = list.size();
+
+        for (int i = 0; i < size; i++)
+        {
+            path.set(i, new JSONArray(clone(list.get(i).getJSO())));
+        }
+        object.put("path-list", path);
+
+        return object;
+    }
+
     private final PathPartList getOrIncrementList()
     {
         final NFastArrayList<PathPartList> list = getPathPartListArray();
@@ -76,6 +76,7 @@ import com.ait.lienzo.client.core.event.NodeTouchStartEvent;
 import com.ait.lienzo.client.core.event.NodeTouchStartHandler;
 import com.ait.lienzo.client.core.shape.guides.IGuidePrimitive;
 import com.ait.lienzo.client.core.shape.json.AbstractFactory;
+import com.ait.lienzo.client.core.shape.json.IContainerFactory;
 import com.ait.lienzo.client.core.shape.json.IFactory;
 import com.ait.lienzo.client.core.shape.json.IJSONSerializable;
 import com.ait.lienzo.client.core.shape.json.JSONDeserializer;
@@ -92,6 +93,7 @@ import com.ait.tooling.common.api.java.util.UUID;
 import com.ait.tooling.nativetools.client.NObject;
 import com.ait.tooling.nativetools.client.NObjectJSO;
 import com.ait.tooling.nativetools.client.collection.MetaData;
+import com.ait.tooling.nativetools.client.collection.NFastArrayList;
 import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.event.shared.EventHandler;
 import com.google.gwt.event.shared.GwtEvent;
@@ -99,6 +101,7 @@ import com.google.gwt.event.shared.GwtEvent.Type;
 import com.google.gwt.event.shared.HandlerManager;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.json.client.JSONString;
 import com.google.gwt.json.client.JSONValue;
 
 /**
@@ -257,17 +260,156 @@ public abstract class Node<T extends Node<T>> implements IDrawable<T>
 		return self;
     }-*/;
 
+    /**
+     * Copies this node one node at a time: each node is built by its factory from a clone of its own attributes and meta data,
+     * and the children of a container are copied the same way and added through the container's factory.
+     */
     protected final Node<?> copyUnchecked()
     {
-        return (Node<?>) JSONDeserializer.get().fromString(toJSONString(), false);// don't validate
+        try
+        {
+            final ValidationContext ctx = new ValidationContext();
+
+            ctx.setValidate(false);// don't validate
+
+            ctx.setStopOnError(true);
+
+            return copyNode(ctx);
+        }
+        catch (ValidationException e)
+        {
+            return null;
+        }
+    }
+
+    private final Node<?> copyNode(final ValidationContext ctx) throws ValidationException
+    {
+        final IFactory<?> factory = getFactory();
+
+        if (null == factory)
+        {
+            return null;
+        }
+        final JSONObject json = toCopyJSONObject();
+
+        if (null == json)
+        {
+            return null;
+        }
+        final IJSONSerializable<?> made = factory.create(json, ctx);
+
+        if (false == (made instanceof Node))
+        {
+            return null;
+        }
+        final Node<?> node = (Node<?>) made;
+
+        final ContainerNode<?, ?> cont = asContainerNode();
+
+        if ((null != cont) && (null != node.asContainer()) && (factory instanceof IContainerFactory))
+        {
+            final NFastArrayList<? extends IDrawable<?>> list = cont.getChildNodes();
+
+            if (null != list)
+            {
+                final int size = list.size();
+
+                for (int i = 0; i < size; i++)
+                {
+                    final Node<?> kid = list.get(i).asNode();
+
+                    if (null != kid)
+                    {
+                        final Node<?> copy = kid.copyNode(ctx);
+
+                        if (null != copy)
+                        {
+                            ((IContainerFactory) factory).addNodeForContainer(node.asContainer(), copy, ctx);
+                        }
+                    }
+                }
+            }
+        }
+        if (factory.isPostProcessed())
+        {
+            factory.process(node, ctx);
+        }
+        return node;
+    }
+
+    /**
+     * Returns the JSON this node alone is built from when it is copied, without its children. The attributes and meta data
+     * are cloned, and only their nested arrays and objects, like gradients and {@link com.ait.lienzo.client.core.types.Point2DArray}s, are deep copied.
+     * Nodes that keep more than their attributes, like paths or filters, add it here.
+     *
+     * @return JSONObject
+     */
+    protected JSONObject toCopyJSONObject()
+    {
+        final JSONObject object = new JSONObject();
+
+        object.put("type", new JSONString(getFactory().getTypeName()));
+
+        if (hasMetaData())
+        {
+            final MetaData meta = getMetaData();
+
+            if (false == meta.isEmpty())
+            {
+                object.put("meta", new JSONObject(clone(meta.getJSO())));
+            }
+        }
+        object.put("attributes", new JSONObject(clone(getAttributes().getJSO())));
+
+        return object;
     }
 
+    /**
+     * Deep clones plain objects and arrays, so the copy never shares mutable attribute values like points or gradients
+     * with the original. Functions and host objects such as image elements are immutable as far as nodes go, and are shared.
+     */
+    protected static final native JavaScriptObject clone(JavaScriptObject jso)
+    /*-{
+		var copy = function(v) {
+			if ((v === null) || ((typeof v) !== 'object')) {
+				return v;
+			}
+			if (Array.isArray(v)) {
+				var n = v.length;
+				var a = new Array(n);
+				for (var i = 0; i < n; i++) {
+					a[i] = copy(v[i]);
+				}
+				return a;
+			}
+			if (Object.prototype.toString.call(v) !== '[object Object]') {
+				return v;
+			}
+			var o = {};
+			for (var k in v) {
+				if (Object.prototype.hasOwnProperty.call(v, k)) {
+					o[k] = copy(v[k]);
+				}
+			}
+			return o;
+		};
+		return copy(jso);
+    }-*/;
+
     @Override
     public final String uuid()
     {
         return m_opts.uuid();
     }
 
+    /**
+     * Gives this node the uuid of the node it replicates, see {@link ChangeJournal.Replica}.
+     */
+    final void uuid(final String uuid)
+    {
+        m_opts.uuid_0(uuid);
+    }
+
     /**
      * Serializes this Node as a JSON string.
      * The JSON string can be deserialized with 
@@ -1448,6 +1448,31 @@ public class Picture extends AbstractImageShape<Picture> implements ImageDataFil
         }
         object.put("attributes", attr);
 
+        final JSONObject filter = getFilterJSONObject();
+
+        if (null != filter)
+        {
+            object.put("filter", filter);
+        }
+        return object;
+    }
+
+    @Override
+    protected JSONObject toCopyJSONObject()
+    {
+        final JSONObject object = super.toCopyJSONObject();
+
+        final JSONObject filter = getFilterJSONObject();
+
+        if (null != filter)
+        {
+            object.put("filter", new JSONObject(clone(filter.getJavaScriptObject())));
+        }
+        return object;
+    }
+
+    private final JSONObject getFilterJSONObject()
+    {
         ImageDataFilterChain chain = getImageProxy().getFilterChain();
 
         if ((null != chain) && (chain.size() > 0))
@@ -1472,9 +1497,9 @@ public class Picture extends AbstractImageShape<Picture> implements ImageDataFil
             }
             filter.put("filters", filters);
 
-            object.put("filter", filter);
+            return filter;
         }
-        return object;
+        return null;
     }
 
     /**
@@ -16,7 +16,9 @@
 
 package com.ait.lienzo.client.core.shape;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.ait.lienzo.client.core.Attribute;
 import com.ait.lienzo.client.core.Context2D;
@@ -32,11 +34,13 @@ import com.google.gwt.json.client.JSONObject;
 
 public class SVGPath extends Shape<SVGPath>
 {
-    private static final String[] COMMANDS = { "m", "M", "l", "L", "v", "V", "h", "H", "z", "Z", "c", "C", "q", "Q", "t", "T", "s", "S", "a", "A" };
+    private static final int         PARSED_CAPACITY = 512;
 
-    private String                m_path;
+    private static final ParsedPaths PARSED          = new ParsedPaths(PARSED_CAPACITY);
 
-    private final PathPartList    m_list   = new PathPartList();
+    private String                   m_path;
+
+    private PathPartList             m_list          = new PathPartList();
 
     public SVGPath(final String path)
     {
@@ -55,7 +59,9 @@ public class SVGPath extends Shape<SVGPath>
     @Override
     public BoundingBox getBoundingBox()
     {
-        return m_list.getBoundingBox();
+        // the parsed path may be shared with other SVGPaths, so never hand out its own bounding box
+
+        return new BoundingBox(m_list.getBoundingBox());
     }
 
     @Override
@@ -116,64 +122,70 @@ public class SVGPath extends Shape<SVGPath>
         return true;
     }
 
-    private final void parse(final String path)
+    /**
+     * Returns the parsed form of the path data, shared by every SVGPath using the same data. The list, its
+     * {@link Path2D} and its bounding box are built once, and must be treated as read only.
+     */
+    private static final PathPartList getParsedPath(final String path)
+    {
+        final String key = path.trim();
+
+        PathPartList list = PARSED.get(key);
+
+        if (null == list)
+        {
+            list = new PathPartList();
+
+            parse(list, key);
+
+            list.getBoundingBox();
+
+            PARSED.put(key, list);
+        }
+        return list;
+    }
+
+    /**
+     * Forgets all the shared parsed paths. SVGPaths already created keep the paths they use.
+     */
+    public static final void clearParsedPaths()
     {
-        parse(m_list, path);
+        PARSED.clear();
     }
 
+    /**
+     * Parses SVG path data into the part list in a single pass over the characters, without intermediate strings.
+     * Numbers may be separated by whitespace, commas, a sign, or a second decimal point, and repeated
+     * coordinates continue the previous command, with extra coordinates after a moveto continuing as lineto.
+     *
+     * @param partlist
+     * @param path
+     */
     public static final void parse(final PathPartList partlist, String path)
     {
         partlist.clear();
 
-        path = path.replaceAll("\\s+", " ").trim();
+        path = path.trim();
 
         if (Path2D.isSupported())
         {
             partlist.setPath2D(new Path2D(path));
         }
-        for (int n = 0; n < COMMANDS.length; n++)
-        {
-            path = path.replaceAll(COMMANDS[n] + " ", COMMANDS[n]);
-        }
-        path = path.replaceAll(" ", ",");
-
-        for (int n = 0; n < COMMANDS.length; n++)
-        {
-            path = path.replaceAll(COMMANDS[n], "#" + COMMANDS[n]);
-        }
-        final String[] list = path.split("#");
+        final SVGPathScanner scan = new SVGPathScanner(path);
 
         double cpx = 0;
 
         double cpy = 0;
 
-        for (int n = 1, l = list.length; n < l; n++)
-        {
-            String str = list[n];
-
-            char chr = str.charAt(0);
-
-            str = str.substring(1).replaceAll(",-", "-").replaceAll("-", ",-").replaceAll("e,-", "e-");
-
-            final String[] pts = str.split(",");
+        PathPartEntryJSO prev;
 
-            int beg = 0;
-
-            if ((pts.length > 0) && (pts[0].isEmpty()))
-            {
-                beg = 1;
-            }
-            final NFastDoubleArrayJSO source = NFastDoubleArrayJSO.make();
-
-            for (int i = beg, z = pts.length; i < z; i++)
-            {
-                source.push(Double.valueOf(pts[i]).doubleValue());
-            }
-            PathPartEntryJSO prev;
+        double ctx, cty;
 
-            double ctx, cty;
+        char chr;
 
-            while (source.size() > 0)
+        while ((chr = scan.command()) != 0)
+        {
+            while (scan.hasNumber())
             {
                 int cmd = PathPartEntryJSO.UNDEFINED_PATH_PART;
 
@@ -182,9 +194,9 @@ public class SVGPath extends Shape<SVGPath>
                 switch (chr)
                 {
                     case 'l':
-                        cpx += source.shift();
+                        cpx += scan.next();
 
-                        cpy += source.shift();
+                        cpy += scan.next();
 
                         points.push(cpx);
 
@@ -193,9 +205,9 @@ public class SVGPath extends Shape<SVGPath>
                         cmd = PathPartEntryJSO.LINETO_ABSOLUTE;
                         break;
                     case 'L':
-                        cpx = source.shift();
+                        cpx = scan.next();
 
-                        cpy = source.shift();
+                        cpy = scan.next();
 
                         points.push(cpx);
 
@@ -204,9 +216,9 @@ public class SVGPath extends Shape<SVGPath>
                         cmd = PathPartEntryJSO.LINETO_ABSOLUTE;
                         break;
                     case 'm':
-                        final double dx = source.shift();
+                        final double dx = scan.next();
 
-                        final double dy = source.shift();
+                        final double dy = scan.next();
 
                         cpx += dx;
 
@@ -234,25 +246,21 @@ public class SVGPath extends Shape<SVGPath>
 
                         points.push(cpy);
 
-                        chr = 'l';
-
                         cmd = PathPartEntryJSO.MOVETO_ABSOLUTE;
                         break;
                     case 'M':
-                        cpx = source.shift();
+                        cpx = scan.next();
 
-                        cpy = source.shift();
+                        cpy = scan.next();
 
                         points.push(cpx);
 
                         points.push(cpy);
 
-                        chr = 'L';
-
                         cmd = PathPartEntryJSO.MOVETO_ABSOLUTE;
                         break;
                     case 'h':
-                        cpx += source.shift();
+                        cpx += scan.next();
 
                         points.push(cpx);
 
@@ -261,7 +269,7 @@ public class SVGPath extends Shape<SVGPath>
                         cmd = PathPartEntryJSO.LINETO_ABSOLUTE;
                         break;
                     case 'H':
-                        cpx = source.shift();
+                        cpx = scan.next();
 
                         points.push(cpx);
 
@@ -270,7 +278,7 @@ public class SVGPath extends Shape<SVGPath>
                         cmd = PathPartEntryJSO.LINETO_ABSOLUTE;
                         break;
                     case 'v':
-                        cpy += source.shift();
+                        cpy += scan.next();
 
                         points.push(cpx);
 
@@ -279,7 +287,7 @@ public class SVGPath extends Shape<SVGPath>
                         cmd = PathPartEntryJSO.LINETO_ABSOLUTE;
                         break;
                     case 'V':
-                        cpy = source.shift();
+                        cpy = scan.next();
 
                         points.push(cpx);
 
@@ -288,17 +296,17 @@ public class SVGPath extends Shape<SVGPath>
                         cmd = PathPartEntryJSO.LINETO_ABSOLUTE;
                         break;
                     case 'C':
-                        points.push(source.shift());
+                        points.push(scan.next());
 
-                        points.push(source.shift());
+                        points.push(scan.next());
 
-                        points.push(source.shift());
+                        points.push(scan.next());
 
-                        points.push(source.shift());
+                        points.push(scan.next());
 
-                        cpx = source.shift();
+                        cpx = scan.next();
 
-                        cpy = source.shift();
+                        cpy = scan.next();
 
                         points.push(cpx);
 
@@ -307,17 +315,17 @@ public class SVGPath extends Shape<SVGPath>
                         cmd = PathPartEntryJSO.BEZIER_CURVETO_ABSOLUTE;
                         break;
                     case 'c':
-                        points.push(cpx + source.shift());
+                        points.push(cpx + scan.next());
 
-                        points.push(cpy + source.shift());
+                        points.push(cpy + scan.next());
 
-                        points.push(cpx + source.shift());
+                        points.push(cpx + scan.next());
 
-                        points.push(cpy + source.shift());
+                        points.push(cpy + scan.next());
 
-                        cpx += source.shift();
+                        cpx += scan.next();
 
-                        cpy += source.shift();
+                        cpy += scan.next();
 
                         points.push(cpx);
 
@@ -342,13 +350,13 @@ public class SVGPath extends Shape<SVGPath>
 
                         points.push(cty);
 
-                        points.push(source.shift());
+                        points.push(scan.next());
 
-                        points.push(source.shift());
+                        points.push(scan.next());
 
-                        cpx = source.shift();
+                        cpx = scan.next();
 
-                        cpy = source.shift();
+                        cpy = scan.next();
 
                         points.push(cpx);
 
@@ -373,13 +381,13 @@ public class SVGPath extends Shape<SVGPath>
 
                         points.push(cty);
 
-                        points.push(cpx + source.shift());
+                        points.push(cpx + scan.next());
 
-                        points.push(cpy + source.shift());
+                        points.push(cpy + scan.next());
 
-                        cpx += source.shift();
+                        cpx += scan.next();
 
-                        cpy += source.shift();
+                        cpy += scan.next();
 
                         points.push(cpx);
 
@@ -388,13 +396,13 @@ public class SVGPath extends Shape<SVGPath>
                         cmd = PathPartEntryJSO.BEZIER_CURVETO_ABSOLUTE;
                         break;
                     case 'Q':
-                        points.push(source.shift());
+                        points.push(scan.next());
 
-                        points.push(source.shift());
+                        points.push(scan.next());
 
-                        cpx = source.shift();
+                        cpx = scan.next();
 
-                        cpy = source.shift();
+                        cpy = scan.next();
 
                         points.push(cpx);
 
@@ -403,13 +411,13 @@ public class SVGPath extends Shape<SVGPath>
                         cmd = PathPartEntryJSO.QUADRATIC_CURVETO_ABSOLUTE;
                         break;
                     case 'q':
-                        points.push(cpx + source.shift());
+                        points.push(cpx + scan.next());
 
-                        points.push(cpy + source.shift());
+                        points.push(cpy + scan.next());
 
-                        cpx += source.shift();
+                        cpx += scan.next();
 
-                        cpy += source.shift();
+                        cpy += scan.next();
 
                         points.push(cpx);
 
@@ -430,9 +438,9 @@ public class SVGPath extends Shape<SVGPath>
 
                             cty = cpy + (cpy - prev.getPoints().get(1));
                         }
-                        cpx = source.shift();
+                        cpx = scan.next();
 
-                        cpy = source.shift();
+                        cpy = scan.next();
 
                         points.push(ctx);
 
@@ -457,9 +465,9 @@ public class SVGPath extends Shape<SVGPath>
 
                             cty = cpy + (cpy - prev.getPoints().get(1));
                         }
-                        cpx += source.shift();
+                        cpx += scan.next();
 
-                        cpy += source.shift();
+                        cpy += scan.next();
 
                         points.push(ctx);
 
@@ -473,23 +481,23 @@ public class SVGPath extends Shape<SVGPath>
                         break;
                     case 'A':
                     {
-                        final double rx = source.shift();
+                        final double rx = scan.next();
 
-                        final double ry = source.shift();
+                        final double ry = scan.next();
 
-                        final double ps = source.shift();
+                        final double ps = scan.next();
 
-                        final double fa = source.shift();
+                        final double fa = scan.flag();
 
-                        final double fs = source.shift();
+                        final double fs = scan.flag();
 
                         final double x1 = cpx;
 
                         final double y1 = cpy;
 
-                        cpx = source.shift();
+                        cpx = scan.next();
 
-                        cpy = source.shift();
+                        cpy = scan.next();
 
                         PathPartList.convertEndpointToCenterParameterization(points, x1, y1, cpx, cpy, fa, fs, rx, ry, ps);
 
@@ -502,23 +510,23 @@ public class SVGPath extends Shape<SVGPath>
                     }
                     case 'a':
                     {
-                        final double rx = source.shift();
+                        final double rx = scan.next();
 
-                        final double ry = source.shift();
+                        final double ry = scan.next();
 
-                        final double ps = source.shift();
+                        final double ps = scan.next();
 
-                        final double fa = source.shift();
+                        final double fa = scan.flag();
 
-                        final double fs = source.shift();
+                        final double fs = scan.flag();
 
                         final double x1 = cpx;
 
                         final double y1 = cpy;
 
-                        cpx += source.shift();
+                        cpx += scan.next();
 
-                        cpy += source.shift();
+                        cpy += scan.next();
 
                         PathPartList.convertEndpointToCenterParameterization(points, x1, y1, cpx, cpy, fa, fs, rx, ry, ps);
 
@@ -534,6 +542,13 @@ public class SVGPath extends Shape<SVGPath>
                 {
                     partlist.push(PathPartEntryJSO.make(cmd, points));
                 }
+                else
+                {
+                    // numbers after a command that takes none, skip them
+
+                    scan.next();
+                }
+                chr = SVGPathScanner.getContinuation(chr);
             }
             if ((chr == 'z') || (chr == 'Z'))
             {
@@ -547,13 +562,28 @@ public class SVGPath extends Shape<SVGPath>
         return getAttributes().getPath();
     }
 
+    /**
+     * Parses the path again if the path attribute was changed directly through the {@link Attributes}.
+     */
+    @Override
+    public SVGPath refresh()
+    {
+        final String path = getPath();
+
+        if (null != path)
+        {
+            setPath(path);
+        }
+        return this;
+    }
+
     public SVGPath setPath(final String path)
     {
         getAttributes().setPath(path);
 
         if (false == path.equals(m_path))
         {
-            parse(m_path = path);
+            m_list = getParsedPath(m_path = path);
         }
         return this;
     }
@@ -564,6 +594,26 @@ public class SVGPath extends Shape<SVGPath>
         return asAttributes(Attribute.PATH);
     }
 
+    private static final class ParsedPaths extends LinkedHashMap<String, PathPartList>
+    {
+        private static final long serialVersionUID = -2391538016620823117L;
+
+        private final int         m_size;
+
+        private ParsedPaths(final int size)
+        {
+            super(64, 0.75f, true);
+
+            m_size = size;
+        }
+
+        @Override
+        protected final boolean removeEldestEntry(final Map.Entry<String, PathPartList> eldest)
+        {
+            return size() > m_size;
+        }
+    }
+
     public static class SVGPathFactory extends ShapeFactory<SVGPath>
     {
         public SVGPathFactory()
@@ -0,0 +1,237 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.shape;
+
+/**
+ * SVGPathScanner reads command letters and numbers straight from SVG path data, for {@link SVGPath#parse(com.ait.lienzo.client.core.types.PathPartList, String)}.
+ */
+final class SVGPathScanner
+{
+    private static final String   COMMANDS = "MmLlHhVvCcSsQqTtAaZz";
+
+    private static final double[] POWERS   = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private final String          m_path;
+
+    private final int             m_size;
+
+    private int                   m_posn   = 0;
+
+    SVGPathScanner(final String path)
+    {
+        m_path = path;
+
+        m_size = path.length();
+    }
+
+    /**
+     * Returns the next command letter, skipping anything else, or 0 at the end of the data.
+     */
+    final char command()
+    {
+        while (m_posn < m_size)
+        {
+            final char c = m_path.charAt(m_posn++);
+
+            if (COMMANDS.indexOf(c) >= 0)
+            {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    final boolean hasNumber()
+    {
+        skip();
+
+        if (m_posn >= m_size)
+        {
+            return false;
+        }
+        final char c = m_path.charAt(m_posn);
+
+        return (isDigit(c) || (c == '.') || (c == '-') || (c == '+'));
+    }
+
+    /**
+     * Reads an arc flag, which may be written without a separator before the next number.
+     */
+    final double flag()
+    {
+        skip();
+
+        if (m_posn < m_size)
+        {
+            final char c = m_path.charAt(m_posn);
+
+            if ((c == '0') || (c == '1'))
+            {
+                m_posn++;
+
+                return c - '0';
+            }
+        }
+        return next();
+    }
+
+    /**
+     * Reads the next number, or returns NaN if there is none.
+     */
+    final double next()
+    {
+        skip();
+
+        if (m_posn >= m_size)
+        {
+            return Double.NaN;
+        }
+        final int beg = m_posn;
+
+        char c = m_path.charAt(m_posn);
+
+        boolean neg = false;
+
+        if ((c == '-') || (c == '+'))
+        {
+            neg = (c == '-');
+
+            m_posn++;
+        }
+        double mant = 0;
+
+        int digs = 0;
+
+        int powr = 0;
+
+        boolean any = false;
+
+        while ((m_posn < m_size) && (isDigit(c = m_path.charAt(m_posn))))
+        {
+            mant = (mant * 10) + (c - '0');
+
+            if (mant > 0)
+            {
+                digs++;
+            }
+            any = true;
+
+            m_posn++;
+        }
+        if ((m_posn < m_size) && (m_path.charAt(m_posn) == '.'))
+        {
+            m_posn++;
+
+            while ((m_posn < m_size) && (isDigit(c = m_path.charAt(m_posn))))
+            {
+                mant = (mant * 10) + (c - '0');
+
+                if (mant > 0)
+                {
+                    digs++;
+                }
+                powr--;
+
+                any = true;
+
+                m_posn++;
+            }
+        }
+        if (false == any)
+        {
+            if (m_posn == beg)
+            {
+                m_posn++;
+            }
+            return Double.NaN;
+        }
+        if ((m_posn < m_size) && (((c = m_path.charAt(m_posn)) == 'e') || (c == 'E')))
+        {
+            int look = m_posn + 1;
+
+            boolean eneg = false;
+
+            if ((look < m_size) && (((c = m_path.charAt(look)) == '-') || (c == '+')))
+            {
+                eneg = (c == '-');
+
+                look++;
+            }
+            if ((look < m_size) && (isDigit(m_path.charAt(look))))
+            {
+                int expo = 0;
+
+                while ((look < m_size) && (isDigit(c = m_path.charAt(look))))
+                {
+                    expo = (expo * 10) + (c - '0');
+
+                    look++;
+                }
+                m_posn = look;
+
+                powr += (eneg ? -expo : expo);
+            }
+        }
+        if ((digs > 15) || (powr < -22) || (powr > 22))
+        {
+            // outside the range where a single scaling by a power of ten is exact, so let the platform round it
+
+            return Double.parseDouble(m_path.substring(beg, m_posn));
+        }
+        final double valu = (powr < 0) ? (mant / POWERS[-powr]) : (mant * POWERS[powr]);
+
+        return neg ? -valu : valu;
+    }
+
+    /**
+     * Returns the command repeated coordinates continue with, which is the command itself except after a moveto, where they are linetos.
+     */
+    static final char getContinuation(final char command)
+    {
+        if (command == 'M')
+        {
+            return 'L';
+        }
+        if (command == 'm')
+        {
+            return 'l';
+        }
+        return command;
+    }
+
+    private final void skip()
+    {
+        while (m_posn < m_size)
+        {
+            final char c = m_path.charAt(m_posn);
+
+            if ((c == ' ') || (c == ',') || (c == '\t') || (c == '\n') || (c == '\r') || (c == '\f'))
+            {
+                m_posn++;
+            }
+            else
+            {
+                break;
+            }
+        }
+    }
+
+    private static final boolean isDigit(final char c)
+    {
+        return ((c >= '0') && (c <= '9'));
+    }
+}
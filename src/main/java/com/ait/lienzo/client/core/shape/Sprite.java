@@ -22,6 +22,7 @@ import com.ait.lienzo.client.core.Attribute;
 import com.ait.lienzo.client.core.Context2D;
 import com.ait.lienzo.client.core.config.LienzoCore;
 import com.ait.lienzo.client.core.image.ImageLoader;
+import com.ait.lienzo.client.core.image.SpriteAtlas;
 import com.ait.lienzo.client.core.image.SpriteLoadedHandler;
 import com.ait.lienzo.client.core.image.SpriteOnRollHandler;
 import com.ait.lienzo.client.core.image.SpriteOnTickHandler;
@@ -38,7 +39,6 @@ import com.google.gwt.dom.client.ImageElement;
 import com.google.gwt.json.client.JSONObject;
 import com.google.gwt.json.client.JSONString;
 import com.google.gwt.resources.client.ImageResource;
-import com.google.gwt.user.client.Timer;
 
 public class Sprite extends Shape<Sprite>
 {
@@ -58,7 +58,9 @@ public class Sprite extends Shape<Sprite>
 
     private boolean             m_inited = false;
 
-    private Timer               m_ticker = null;
+    private SpriteAtlas         m_atlas  = null;
+
+    private BoundingBox[]       m_packed = null;
 
     public Sprite(final String url, double rate, SpriteBehaviorMap bmap, String behavior)
     {
@@ -71,12 +73,7 @@ public class Sprite extends Shape<Sprite>
             @Override
             public void onImageElementLoad(final ImageElement elem)
             {
-                m_sprite = elem;
-
-                if (null != m_loaded)
-                {
-                    m_loaded.onSpriteLoaded(Sprite.this);
-                }
+                doLoaded(elem);
             }
 
             @Override
@@ -98,12 +95,7 @@ public class Sprite extends Shape<Sprite>
             @Override
             public void onImageElementLoad(final ImageElement elem)
             {
-                m_sprite = elem;
-
-                if (null != m_loaded)
-                {
-                    m_loaded.onSpriteLoaded(Sprite.this);
-                }
+                doLoaded(elem);
             }
 
             @Override
@@ -120,12 +112,7 @@ public class Sprite extends Shape<Sprite>
 
         setURL(sprite.getSrc()).setTickRate(rate).setSpriteBehaviorMap(bmap).setSpriteBehavior(behavior);
 
-        m_sprite = sprite;
-
-        if (null != m_loaded)
-        {
-            m_loaded.onSpriteLoaded(this);
-        }
+        doLoaded(sprite);
     }
 
     public Sprite(JSONObject node, ValidationContext ctx) throws ValidationException
@@ -133,6 +120,18 @@ public class Sprite extends Shape<Sprite>
         super(ShapeType.SPRITE, node, ctx);
     }
 
+    private final void doLoaded(final ImageElement elem)
+    {
+        m_sprite = elem;
+
+        doPacking();
+
+        if (null != m_loaded)
+        {
+            m_loaded.onSpriteLoaded(this);
+        }
+    }
+
     Sprite load()
     {
         if (isLoaded())
@@ -151,12 +150,7 @@ public class Sprite extends Shape<Sprite>
                 @Override
                 public void onImageElementLoad(final ImageElement elem)
                 {
-                    m_sprite = elem;
-
-                    if (null != m_loaded)
-                    {
-                        m_loaded.onSpriteLoaded(Sprite.this);
-                    }
+                    doLoaded(elem);
                 }
 
                 @Override
@@ -241,6 +235,8 @@ public class Sprite extends Shape<Sprite>
             m_index = 0;
 
             m_frames = bmap.getFramesForBehavior(behavior);
+
+            doPacking();
         }
         return this;
     }
@@ -265,6 +261,8 @@ public class Sprite extends Shape<Sprite>
             m_index = 0;
 
             m_frames = bmap.getFramesForBehavior(behavior);
+
+            doPacking();
         }
         return this;
     }
@@ -303,48 +301,96 @@ public class Sprite extends Shape<Sprite>
 
                 if (null != layer)
                 {
-                    final Sprite sprite = this;
-
-                    final int repeat = (int) (1000.0 / Math.min(Math.max(getTickRate(), 0.001), 60.0));
-
                     m_paused = false;
 
-                    m_ticker = new Timer()
-                    {
-                        @Override
-                        public void run()
-                        {
-                            boolean draw = true;
+                    SpriteClock.get().add(this, 1000.0 / Math.min(Math.max(getTickRate(), 0.001), 60.0));
+                }
+            }
+        }
+        return this;
+    }
 
-                            if ((++m_index) >= m_frames.length)
-                            {
-                                m_index = 0;
+    /**
+     * Advances to the next frame, called by the {@link SpriteClock}.
+     *
+     * @return whether the sprite should be redrawn
+     */
+    final boolean tick()
+    {
+        boolean draw = true;
 
-                                if (null != m_onroll)
-                                {
-                                    draw = m_onroll.onSpriteRoll(sprite);
-                                }
-                            }
-                            if (draw)
-                            {
-                                if (null != m_ontick)
-                                {
-                                    draw = m_ontick.onSpriteTick(sprite);
-                                }
-                                if (draw)
-                                {
-                                    layer.batch();
-                                }
-                            }
-                        }
-                    };
-                    m_ticker.scheduleRepeating(repeat);
-                }
+        if ((++m_index) >= m_frames.length)
+        {
+            m_index = 0;
+
+            if (null != m_onroll)
+            {
+                draw = m_onroll.onSpriteRoll(this);
             }
         }
+        if (draw)
+        {
+            if (null != m_ontick)
+            {
+                draw = m_ontick.onSpriteTick(this);
+            }
+        }
+        return draw;
+    }
+
+    /**
+     * Returns the bounds of every frame of the sprite in canvas coordinates, or null if it has no frames.
+     */
+    final BoundingBox getDirtyBounds()
+    {
+        if (null == m_frames)
+        {
+            return null;
+        }
+        return getAbsoluteTransform().transform(getBoundingBox());
+    }
+
+    /**
+     * Draws this sprite's frames from a {@link SpriteAtlas} shared with other sprites, packing its sheet into the atlas
+     * once loaded. If the sheet does not fit, the sprite keeps drawing from its own sheet.
+     *
+     * @param atlas the atlas, or null to draw from the sprite's own sheet
+     * @return this Sprite
+     */
+    public final Sprite setSpriteAtlas(final SpriteAtlas atlas)
+    {
+        m_atlas = atlas;
+
+        doPacking();
+
         return this;
     }
 
+    public final SpriteAtlas getSpriteAtlas()
+    {
+        return m_atlas;
+    }
+
+    private final void doPacking()
+    {
+        m_packed = null;
+
+        final SpriteBehaviorMap bmap = getSpriteBehaviorMap();
+
+        final String behavior = getSpriteBehavior();
+
+        if ((null == m_atlas) || (null == m_sprite) || (null == bmap) || (null == behavior))
+        {
+            return;
+        }
+        final SpriteBehaviorMap packed = m_atlas.add(getURL() + "@" + bmap.toJSONString(), m_sprite, bmap);
+
+        if (null != packed)
+        {
+            m_packed = packed.getFramesForBehavior(behavior);
+        }
+    }
+
     public final Sprite onTick(SpriteOnTickHandler handler)
     {
         m_ontick = handler;
@@ -363,10 +409,8 @@ public class Sprite extends Shape<Sprite>
     {
         m_paused = true;
 
-        if (null != m_ticker)
-        {
-            m_ticker.cancel();
-        }
+        SpriteClock.get().remove(this);
+
         return this;
     }
 
@@ -414,7 +458,16 @@ public class Sprite extends Shape<Sprite>
 
                     context.setGlobalAlpha(alpha);
 
-                    context.drawImage(m_sprite, bbox.getX(), bbox.getY(), bbox.getWidth(), bbox.getHeight(), 0, 0, bbox.getWidth(), bbox.getHeight());
+                    if ((null != m_packed) && (m_index < m_packed.length))
+                    {
+                        final BoundingBox pbox = m_packed[m_index];
+
+                        context.drawImage(m_atlas.getElement(), pbox.getX(), pbox.getY(), bbox.getWidth(), bbox.getHeight(), 0, 0, bbox.getWidth(), bbox.getHeight());
+                    }
+                    else
+                    {
+                        context.drawImage(m_sprite, bbox.getX(), bbox.getY(), bbox.getWidth(), bbox.getHeight(), 0, 0, bbox.getWidth(), bbox.getHeight());
+                    }
 
                     context.restore();
                 }
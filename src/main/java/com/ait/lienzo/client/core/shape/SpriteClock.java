@@ -0,0 +1,197 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.shape;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.ait.lienzo.client.core.types.BoundingBox;
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+
+/**
+ * SpriteClock ticks every playing {@link Sprite} on one shared animation frame, instead of a timer per sprite.
+ * <p>
+ * Each sprite still advances at its own tick rate. After a frame's ticks, each {@link Layer} redraws only the
+ * bounds of its sprites that moved to a new frame, through {@link Layer#drawDirty(java.util.List)}.
+ */
+public final class SpriteClock
+{
+    private static final SpriteClock INSTANCE  = new SpriteClock();
+
+    private final ArrayList<Entry>   m_entries = new ArrayList<Entry>();
+
+    private final AnimationCallback  m_tick;
+
+    private boolean                  m_running = false;
+
+    private long                     m_frames  = 0L;
+
+    private long                     m_ticks   = 0L;
+
+    public static final SpriteClock get()
+    {
+        return INSTANCE;
+    }
+
+    private SpriteClock()
+    {
+        m_tick = new AnimationCallback()
+        {
+            @Override
+            public final void execute(final double time)
+            {
+                tick(time);
+            }
+        };
+    }
+
+    final void add(final Sprite sprite, final double period)
+    {
+        remove(sprite);
+
+        m_entries.add(new Entry(sprite, period, System.currentTimeMillis() + period));
+
+        if (false == m_running)
+        {
+            m_running = true;
+
+            AnimationScheduler.get().requestAnimationFrame(m_tick);
+        }
+    }
+
+    final void remove(final Sprite sprite)
+    {
+        for (int i = 0; i < m_entries.size(); i++)
+        {
+            if (m_entries.get(i).m_sprite == sprite)
+            {
+                m_entries.remove(i);
+
+                return;
+            }
+        }
+    }
+
+    private final void tick(final double time)
+    {
+        m_frames++;
+
+        final double now = System.currentTimeMillis();
+
+        final IdentityHashMap<Layer, ArrayList<BoundingBox>> dirty = new IdentityHashMap<Layer, ArrayList<BoundingBox>>();
+
+        // a tick handler may pause or play sprites, so tick a copy
+
+        for (Entry entry : new ArrayList<Entry>(m_entries))
+        {
+            if ((now < entry.m_due) || (false == entry.m_sprite.isPlaying()))
+            {
+                continue;
+            }
+            // skip the ticks missed while the page was hidden or busy, rather than catching up on all of them
+
+            entry.m_due = Math.max(entry.m_due + entry.m_period, now);
+
+            final Sprite sprite = entry.m_sprite;
+
+            final Layer layer = sprite.getLayer();
+
+            if (null == layer)
+            {
+                sprite.pause();
+
+                continue;
+            }
+            m_ticks++;
+
+            if (sprite.tick())
+            {
+                final BoundingBox bbox = sprite.getDirtyBounds();
+
+                if (null == bbox)
+                {
+                    layer.batch();
+
+                    continue;
+                }
+                ArrayList<BoundingBox> list = dirty.get(layer);
+
+                if (null == list)
+                {
+                    dirty.put(layer, list = new ArrayList<BoundingBox>());
+                }
+                list.add(bbox);
+            }
+        }
+        for (Map.Entry<Layer, ArrayList<BoundingBox>> each : dirty.entrySet())
+        {
+            each.getKey().drawDirty(each.getValue());
+        }
+        if (m_entries.isEmpty())
+        {
+            m_running = false;
+        }
+        else
+        {
+            AnimationScheduler.get().requestAnimationFrame(m_tick);
+        }
+    }
+
+    /**
+     * Returns the number of sprites playing.
+     */
+    public final int getSpriteCount()
+    {
+        return m_entries.size();
+    }
+
+    /**
+     * Returns the number of animation frames run.
+     */
+    public final long getFrameCount()
+    {
+        return m_frames;
+    }
+
+    /**
+     * Returns the number of sprite ticks run, over all sprites.
+     */
+    public final long getTickCount()
+    {
+        return m_ticks;
+    }
+
+    private static final class Entry
+    {
+        private final Sprite m_sprite;
+
+        private final double m_period;
+
+        private double       m_due;
+
+        private Entry(final Sprite sprite, final double period, final double due)
+        {
+            m_sprite = sprite;
+
+            m_period = period;
+
+            m_due = due;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import com.ait.lienzo.client.core.types.LinearGradient;
 import com.ait.lienzo.client.core.types.PatternGradient;
 import com.ait.lienzo.client.core.types.RadialGradient;
 import com.ait.lienzo.client.core.types.TextMetrics;
+import com.ait.lienzo.client.core.types.Transform;
 import com.ait.lienzo.shared.core.types.ShapeType;
 import com.ait.lienzo.shared.core.types.TextAlign;
 import com.ait.lienzo.shared.core.types.TextBaseLine;
@@ -64,8 +65,39 @@ public class Text extends Shape<Text>
         }
     };
 
+    private final TextBitmapCache.Rasterizer RASTERIZE = new TextBitmapCache.Rasterizer() {
+        @Override
+        public void rasterize(Context2D context) {
+            final Attributes attr = getAttributes();
+
+            context.setTextBaseline(attr.getTextBaseLine());
+
+            context.setTextAlign(attr.getTextAlign());
+
+            context.setTextFont(getFontString(attr.getFontSize(), attr.getTextUnit(), attr.getFontStyle(), attr.getFontFamily()));
+
+            context.setFillColor(attr.getFillColor());
+
+            drawString(context, attr, FILL);
+        }
+    };
+
     private ITextWrapper wrapper = new TextNoWrap(this);
 
+    private boolean      m_bitmap = false;
+
+    private String       m_bitmap_key;
+
+    private BoundingBox  m_bitmap_area;
+
+    private int          m_bitmap_changes;
+
+    private int          m_bitmap_wraps;
+
+    private double       m_bitmap_bucket;
+
+    private String       m_bitmap_bucket_key;
+
     /**
      * Constructor. Creates an instance of text. Default no-wrap text wrapping.
      * 
@@ -196,6 +228,11 @@ public class Text extends Shape<Text>
         else
         {
             setAppliedShadow(false);
+
+            if ((m_bitmap) && (drawBitmap(context, attr, alpha)))
+            {
+                return;
+            }
         }
         if (attr.isDefined(Attribute.TEXT_BASELINE))
         {
@@ -212,6 +249,128 @@ public class Text extends Shape<Text>
         stroke(context, attr, alpha, fill);
     }
 
+    /**
+     * Draws the text as a single image from the shared {@link TextBitmapCache}. Only plain color fills without
+     * stroke or shadow are cached, everything else falls back to drawing the text.
+     */
+    private final boolean drawBitmap(final Context2D context, final Attributes attr, double alpha)
+    {
+        final String fill = attr.getFillColor();
+
+        if ((null == fill) || (attr.hasShadow()) || (null != attr.getStrokeColor()) || (attr.getStrokeWidth() > 0))
+        {
+            return false;
+        }
+        alpha = alpha * attr.getFillAlpha();
+
+        if (alpha <= 0)
+        {
+            return false;
+        }
+        // the key and area only depend on the attributes and the wrap boundaries, so they are kept until one changes
+
+        final int wraps = getWrapChangeCount();
+
+        if ((null == m_bitmap_key) || (m_bitmap_changes != attr.getChangeCount()) || (m_bitmap_wraps != wraps))
+        {
+            final BoundingBox bbox = getBoundingBox();
+
+            if ((null == bbox) || (false == (bbox.getWidth() > 0)) || (false == (bbox.getHeight() > 0)))
+            {
+                return false;
+            }
+            // margin for glyphs reaching past the measured offsets, i.e. accents and italic overhang
+
+            final double margin = bbox.getHeight() / 4;
+
+            final BoundingBox area = new BoundingBox(bbox.getMinX() - margin, bbox.getMinY() - margin, bbox.getMaxX() + margin, bbox.getMaxY() + margin);
+
+            final String font = getFontString(attr.getFontSize(), attr.getTextUnit(), attr.getFontStyle(), attr.getFontFamily());
+
+            m_bitmap_key = attr.getText() + "|" + font + "|" + attr.getTextBaseLine().getValue() + "|" + attr.getTextAlign().getValue() + "|" + fill + "|" + wrapper.getClass().getName() + "|" + getWrapWidth() + "|" + area.getMinX() + "|" + area.getMinY() + "|" + area.getMaxX() + "|" + area.getMaxY();
+
+            m_bitmap_area = area;
+
+            m_bitmap_changes = attr.getChangeCount();
+
+            m_bitmap_wraps = wraps;
+
+            m_bitmap_bucket_key = null;
+        }
+        final double scale = getScreenScale();
+
+        if (false == (scale > 0))
+        {
+            return false;
+        }
+        // quarter octave scale buckets keep the image within 19% of the device resolution
+
+        final double bucket = Math.pow(2, Math.ceil(Math.log(scale) / Math.log(2) * 4) / 4);
+
+        if ((null == m_bitmap_bucket_key) || (bucket != m_bitmap_bucket))
+        {
+            m_bitmap_bucket = bucket;
+
+            m_bitmap_bucket_key = m_bitmap_key + "|" + bucket;
+        }
+        return TextBitmapCache.get().draw(context, m_bitmap_bucket_key, m_bitmap_area, bucket, alpha, RASTERIZE);
+    }
+
+    private final int getWrapChangeCount()
+    {
+        if (wrapper instanceof TextBoundsWrap)
+        {
+            return ((TextBoundsWrap) wrapper).getChangeCount();
+        }
+        return 0;
+    }
+
+    private final double getWrapWidth()
+    {
+        if (wrapper instanceof TextBoundsWrap)
+        {
+            final BoundingBox bounds = ((TextBoundsWrap) wrapper).getWrapBoundaries();
+
+            if (null != bounds)
+            {
+                return bounds.getWidth();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the device pixels per pixel of this text on screen. Only the Viewport transform is read while no node above
+     * this text is rotated, scaled or sheared, otherwise the whole absolute transform is built.
+     */
+    private final double getScreenScale()
+    {
+        Transform xfrm = null;
+
+        for (Node<?> node = this; null != node; node = node.getParent())
+        {
+            final Viewport viewport = node.asViewport();
+
+            if (null != viewport)
+            {
+                xfrm = viewport.getTransform();
+
+                break;
+            }
+            if (node.getAttributes().hasComplexTransformAttributes())
+            {
+                xfrm = getAbsoluteTransform();
+
+                break;
+            }
+        }
+        if (null == xfrm)
+        {
+            return LienzoCore.get().getDeviceScale();
+        }
+        return Math.sqrt(Math.abs((xfrm.getScaleX() * xfrm.getScaleY()) - (xfrm.getShearX() * xfrm.getShearY()))) * LienzoCore.get().getDeviceScale();
+    }
+
     /**
      * Draws this text
      * 
@@ -625,12 +784,33 @@ public class Text extends Shape<Text>
         return asAttributes(Attribute.TEXT, Attribute.FONT_SIZE, Attribute.FONT_STYLE, Attribute.FONT_FAMILY, Attribute.TEXT_UNIT, Attribute.TEXT_ALIGN, Attribute.TEXT_BASELINE, Attribute.WIDTH);
     }
 
+    /**
+     * Sets whether this text is drawn from the shared {@link TextBitmapCache}, rasterized once per
+     * text, font, fill color and device scale bucket, instead of being filled on every frame.
+     * Only plain color fills without stroke or shadow are cached.
+     * 
+     * @param cached
+     * @return this Text
+     */
+    public Text setBitmapCached(final boolean cached)
+    {
+        m_bitmap = cached;
+
+        return this;
+    }
+
+    public boolean isBitmapCached()
+    {
+        return m_bitmap;
+    }
+
     public ITextWrapper getWrapper() {
         return wrapper;
     }
 
     public Text setWrapper(final ITextWrapper wrapper) {
         this.wrapper = wrapper;
+        m_bitmap_key = null;
         return this;
     }
 
@@ -0,0 +1,363 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.shape;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import com.ait.lienzo.client.core.Context2D;
+import com.ait.lienzo.client.core.types.BoundingBox;
+import com.ait.lienzo.client.core.util.ScratchPad;
+import com.ait.lienzo.client.core.util.ScratchPadPool;
+
+/**
+ * TextBitmapCache is a shared atlas of rasterized text runs, used by {@link Text} when {@link Text#setBitmapCached(boolean)} is on.
+ * <p>
+ * Each run is rasterized once per key, which callers build from everything that affects the pixels including a bucketed device
+ * scale, into a shelf packed slot of a fixed size atlas page. Frames then draw the run with a single drawImage. When the pages
+ * would exceed the memory budget, the least recently used page is emptied and reused, dropping all the runs it held.
+ */
+public final class TextBitmapCache
+{
+    public static final int                    PAGE_SIZE             = 1024;
+
+    public static final long                   DEFAULT_MEMORY_BUDGET = 16L * 1024L * 1024L;
+
+    private static final int                   GUTTER                = 1;
+
+    private static final TextBitmapCache       INSTANCE              = new TextBitmapCache();
+
+    private final HashMap<String, Entry>       m_entries             = new HashMap<String, Entry>();
+
+    private final ArrayList<Page>              m_pages               = new ArrayList<Page>();
+
+    private long                               m_budget              = DEFAULT_MEMORY_BUDGET;
+
+    private long                               m_clock               = 0L;
+
+    private long                               m_hits                = 0L;
+
+    private long                               m_miss                = 0L;
+
+    private long                               m_evicted             = 0L;
+
+    public static final TextBitmapCache get()
+    {
+        return INSTANCE;
+    }
+
+    private TextBitmapCache()
+    {
+    }
+
+    /**
+     * Draws the run for the key into the context, rasterizing it first if it is not cached.
+     *
+     * @param context the context to draw into, with the text's transforms applied
+     * @param key identifies the pixels of the run
+     * @param bbox the area covered by the run, in the text's coordinates
+     * @param scale the number of atlas pixels per unit of the text's coordinates
+     * @param alpha
+     * @param rasterizer draws the run, in the text's coordinates
+     * @return false if the run does not fit a page, in which case nothing was drawn
+     */
+    final boolean draw(final Context2D context, final String key, final BoundingBox bbox, final double scale, final double alpha, final Rasterizer rasterizer)
+    {
+        Entry entry = m_entries.get(key);
+
+        if (null != entry)
+        {
+            m_hits++;
+        }
+        else
+        {
+            m_miss++;
+
+            final int wide = (int) Math.ceil(bbox.getWidth() * scale);
+
+            final int high = (int) Math.ceil(bbox.getHeight() * scale);
+
+            if ((wide < 1) || (high < 1) || (wide > (PAGE_SIZE - GUTTER)) || (high > (PAGE_SIZE - GUTTER)))
+            {
+                return false;
+            }
+            entry = allocate(key, wide, high);
+
+            if (null == entry)
+            {
+                return false;
+            }
+            final Context2D ctxt = entry.m_page.m_spad.getContext();
+
+            ctxt.save();
+
+            ctxt.beginPath();
+
+            ctxt.rect(entry.m_x, entry.m_y, wide, high);
+
+            ctxt.clip();
+
+            ctxt.transform(scale, 0, 0, scale, entry.m_x - (bbox.getMinX() * scale), entry.m_y - (bbox.getMinY() * scale));
+
+            rasterizer.rasterize(ctxt);
+
+            ctxt.restore();
+        }
+        entry.m_page.m_stamp = ++m_clock;
+
+        context.save();
+
+        context.setGlobalAlpha(alpha);
+
+        context.setImageSmoothingEnabled(true);
+
+        context.drawImage(entry.m_page.m_spad.getElement(), entry.m_x, entry.m_y, entry.m_wide, entry.m_high, bbox.getMinX(), bbox.getMinY(), entry.m_wide / scale, entry.m_high / scale);
+
+        context.restore();
+
+        return true;
+    }
+
+    public final TextBitmapCache setMemoryBudget(final long budget)
+    {
+        m_budget = Math.max(0L, budget);
+
+        while ((m_pages.size() > 1) && (getMemoryUsage() > m_budget))
+        {
+            Page last = m_pages.get(0);
+
+            for (Page page : m_pages)
+            {
+                if (page.m_stamp < last.m_stamp)
+                {
+                    last = page;
+                }
+            }
+            empty(last);
+
+            m_pages.remove(last);
+
+            ScratchPadPool.get().release(last.m_spad);
+        }
+        return this;
+    }
+
+    public final long getMemoryBudget()
+    {
+        return m_budget;
+    }
+
+    public final long getMemoryUsage()
+    {
+        return getPageBytes() * m_pages.size();
+    }
+
+    public final int getEntryCount()
+    {
+        return m_entries.size();
+    }
+
+    public final long getHitCount()
+    {
+        return m_hits;
+    }
+
+    public final long getMissCount()
+    {
+        return m_miss;
+    }
+
+    public final long getEvictionCount()
+    {
+        return m_evicted;
+    }
+
+    /**
+     * Drops every cached run and gives the atlas pages back, i.e. after a web font finishes loading.
+     *
+     * @return this TextBitmapCache
+     */
+    public final TextBitmapCache clear()
+    {
+        for (Page page : m_pages)
+        {
+            ScratchPadPool.get().release(page.m_spad);
+        }
+        m_pages.clear();
+
+        m_entries.clear();
+
+        return this;
+    }
+
+    private final Entry allocate(final String key, final int wide, final int high)
+    {
+        for (Page page : m_pages)
+        {
+            final Entry entry = page.allocate(key, wide, high);
+
+            if (null != entry)
+            {
+                m_entries.put(key, entry);
+
+                return entry;
+            }
+        }
+        Page page = null;
+
+        if ((m_pages.isEmpty()) || ((getMemoryUsage() + getPageBytes()) <= m_budget))
+        {
+            final ScratchPad spad = ScratchPadPool.get().acquire(PAGE_SIZE, PAGE_SIZE);
+
+            if (null == spad.getContext())
+            {
+                ScratchPadPool.get().release(spad);
+
+                return null;
+            }
+            m_pages.add(page = new Page(spad));
+        }
+        else
+        {
+            page = m_pages.get(0);
+
+            for (Page next : m_pages)
+            {
+                if (next.m_stamp < page.m_stamp)
+                {
+                    page = next;
+                }
+            }
+            empty(page);
+        }
+        final Entry entry = page.allocate(key, wide, high);
+
+        if (null != entry)
+        {
+            m_entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    private final void empty(final Page page)
+    {
+        for (String key : page.m_keys)
+        {
+            m_entries.remove(key);
+
+            m_evicted++;
+        }
+        page.reset();
+    }
+
+    private static final long getPageBytes()
+    {
+        return 4L * PAGE_SIZE * PAGE_SIZE;
+    }
+
+    /**
+     * Draws a text run into a context whose transform maps the text's coordinates to the atlas slot.
+     */
+    interface Rasterizer
+    {
+        void rasterize(Context2D context);
+    }
+
+    private static final class Page
+    {
+        private final ScratchPad        m_spad;
+
+        private final ArrayList<String> m_keys  = new ArrayList<String>();
+
+        private int                     m_left  = 0;
+
+        private int                     m_top   = 0;
+
+        private int                     m_shelf = 0;
+
+        private long                    m_stamp = 0L;
+
+        private Page(final ScratchPad spad)
+        {
+            m_spad = spad;
+        }
+
+        private final Entry allocate(final String key, final int wide, final int high)
+        {
+            if ((m_left + wide) > PAGE_SIZE)
+            {
+                m_left = 0;
+
+                m_top += m_shelf;
+
+                m_shelf = 0;
+            }
+            if ((m_top + high) > PAGE_SIZE)
+            {
+                return null;
+            }
+            final Entry entry = new Entry(this, m_left, m_top, wide, high);
+
+            m_left += wide + GUTTER;
+
+            m_shelf = Math.max(m_shelf, high + GUTTER);
+
+            m_keys.add(key);
+
+            return entry;
+        }
+
+        private final void reset()
+        {
+            m_keys.clear();
+
+            m_left = 0;
+
+            m_top = 0;
+
+            m_shelf = 0;
+
+            m_spad.clear();
+        }
+    }
+
+    private static final class Entry
+    {
+        private final Page m_page;
+
+        private final int  m_x;
+
+        private final int  m_y;
+
+        private final int  m_wide;
+
+        private final int  m_high;
+
+        private Entry(final Page page, final int x, final int y, final int wide, final int high)
+        {
+            m_page = page;
+
+            m_x = x;
+
+            m_y = y;
+
+            m_wide = wide;
+
+            m_high = high;
+        }
+    }
+}
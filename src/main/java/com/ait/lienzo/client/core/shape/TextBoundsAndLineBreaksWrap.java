@@ -16,9 +16,8 @@
 
 package com.ait.lienzo.client.core.shape;
 
-import java.util.ArrayList;
+import java.util.List;
 
-import com.ait.lienzo.client.core.Context2D;
 import com.ait.lienzo.client.core.types.BoundingBox;
 import com.ait.lienzo.shared.core.types.TextAlign;
 import com.ait.lienzo.shared.core.types.TextBaseLine;
@@ -56,69 +55,20 @@ public class TextBoundsAndLineBreaksWrap extends TextBoundsWrap {
     }
 
     @Override
-    public void drawString(final Context2D context,
-                           final Attributes attr,
-                           final IDrawString drawCommand) {
-        final BoundingBox wrapBoundaries = getWrapBoundaries();
-        final String[] textLines = attr.getText().split("\\r?\\n");
-        if (textLines.length < 1) {
-            return;
-        }
-
-        final ArrayList<String> lines = new ArrayList<>();
+    protected void layoutLines(final String text,
+                               final List<String> lines,
+                               final List<Double> widths) {
+        final String[] textLines = text.split("\\r?\\n");
         for (String line : textLines) {
             String[] words = line.split("\\s");
             if (words.length < 1) {
                 lines.add("");
+                widths.add(0d);
                 continue;
             }
-            final StringBuilder nextLine = new StringBuilder(words[0]);
-
-            for (int i = 1; i < words.length; i++) {
-                if (getBoundingBoxForString(nextLine + " " + words[i]).getWidth() <= wrapBoundaries.getWidth()) {
-                    nextLine.append(" ").append(words[i]);
-                } else {
-                    lines.add(nextLine.toString());
-                    nextLine.setLength(words[i].length());
-                    nextLine.replace(0,
-                                     words[i].length(),
-                                     words[i]);
-                }
-            }
-            lines.add(nextLine.toString());
-        }
-
-        double xOffset = 0;
-
-        switch (textAlignSupplier.get()) {
-            case START:
-            case LEFT:
-                xOffset = 0;
-                break;
-
-            case CENTER:
-                xOffset = wrapBoundaries.getWidth() / 2;
-                break;
-
-            case END:
-            case RIGHT:
-                xOffset = wrapBoundaries.getWidth();
-                break;
-        }
-        
-        double yOffset = 0.8;
-
-        for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i);
-            int toPad = (int) Math.round((wrapBoundaries.getWidth() - getBoundingBoxForString(line).getWidth()) / getBoundingBoxForString(" ").getWidth());
-            line = TextUtils.padString(line,
-                                       line.length() + toPad,
-                                       ' ',
-                                       textAlignSupplier.get());
-            drawCommand.draw(context,
-                             line,
-                             xOffset,
-                             i + yOffset);
+            wrapWords(words,
+                      lines,
+                      widths);
         }
     }
 }
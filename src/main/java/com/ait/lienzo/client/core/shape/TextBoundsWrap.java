@@ -17,6 +17,7 @@
 package com.ait.lienzo.client.core.shape;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import com.ait.lienzo.client.core.Context2D;
 import com.ait.lienzo.client.core.types.BoundingBox;
@@ -31,6 +32,10 @@ public class TextBoundsWrap extends TextNoWrap {
 
     private BoundingBox wrapBoundaries;
 
+    private WrapLayout layout;
+
+    private int changes;
+
     public TextBoundsWrap(final Text text) {
         this(text,
              new BoundingBox());
@@ -66,60 +71,125 @@ public class TextBoundsWrap extends TextNoWrap {
 
     public TextBoundsWrap setWrapBoundaries(final BoundingBox boundaries) {
         wrapBoundaries = boundaries;
+        layout = null;
+        changes++;
         return this;
     }
 
+    /**
+     * Returns how many times the wrap boundaries were set, so anything kept from a previous layout can tell it is stale.
+     */
+    public int getChangeCount() {
+        return changes;
+    }
+
     @Override
     public BoundingBox getBoundingBox() {
-        final String[] words = textSupplier.get().split("\\s");
-        if (words.length < 1) {
+        final WrapLayout layout = getLayout(textSupplier.get());
+        if (layout.lines.isEmpty()) {
             return wrapBoundaries;
         }
-
-        int numOfLines = 1;
-        final double width = wrapBoundaries.getWidth();
-        final StringBuilder nextLine = new StringBuilder(words[0]);
-        for (int i = 1; i < words.length; i++) {
-            if (getBoundingBoxForString(nextLine + " " + words[i]).getWidth() <= wrapBoundaries.getWidth()) {
-                nextLine.append(" ").append(words[i]);
-            } else {
-                nextLine.setLength(words[i].length());
-                nextLine.replace(0,
-                                 words[i].length(),
-                                 words[i]);
-                numOfLines++;
-            }
-        }
-        double height = getBoundingBoxForString(textSupplier.get()).getHeight();
-        height = height * numOfLines;
-        return new BoundingBox().addX(0).addX(width).addY(0).addY(height);
+        return new BoundingBox().addX(0).addX(layout.width).addY(0).addY(layout.height);
     }
 
     @Override
     public void drawString(final Context2D context,
                            final Attributes attr,
                            final IDrawString drawCommand) {
-        final String[] words = attr.getText().split("\\s");
+        final WrapLayout layout = getLayout(attr.getText());
+
+        if (layout.lines.isEmpty()) {
+            return;
+        }
+
+        drawLines(context,
+                  layout.lines,
+                  layout.widths,
+                  drawCommand);
+    }
+
+    /**
+     * Returns the wrapped lines for the text. The layout is kept until the text, font, baseline,
+     * alignment or wrap width changes, so the bounding box and every draw share one wrap.
+     */
+    protected WrapLayout getLayout(final String text) {
+        final String font = getFontString();
+        final TextBaseLine baseline = textBaseLineSupplier.get();
+        final TextAlign align = textAlignSupplier.get();
+        final double width = wrapBoundaries.getWidth();
+
+        if ((null != layout) && (layout.isSame(text,
+                                               font,
+                                               baseline,
+                                               align,
+                                               width))) {
+            return layout;
+        }
+        final WrapLayout next = new WrapLayout(text,
+                                               font,
+                                               baseline,
+                                               align,
+                                               width);
+        if (null != text) {
+            layoutLines(text,
+                        next.lines,
+                        next.widths);
+        }
+        next.height = getBoundingBoxForString(text).getHeight() * next.lines.size();
+        return layout = next;
+    }
 
+    /**
+     * Breaks the text into lines, adding each line and its width.
+     */
+    protected void layoutLines(final String text,
+                               final List<String> lines,
+                               final List<Double> widths) {
+        final String[] words = text.split("\\s");
         if (words.length < 1) {
             return;
         }
+        wrapWords(words,
+                  lines,
+                  widths);
+    }
+
+    /**
+     * Greedily wraps words into lines no wider than the wrap boundaries, adding each line and its width.
+     * Line widths are summed from cached word widths, so only words not measured before hit the canvas.
+     */
+    protected void wrapWords(final String[] words,
+                             final List<String> lines,
+                             final List<Double> widths) {
+        final double[] sizes = getWidthsForWords(words);
+        final double space = getSpaceWidth();
+        final double limit = wrapBoundaries.getWidth();
 
         final StringBuilder nextLine = new StringBuilder(words[0]);
-        final ArrayList<String> lines = new ArrayList<>();
+        double lineWidth = sizes[0];
         for (int i = 1; i < words.length; i++) {
-            if (getBoundingBoxForString(nextLine + " " + words[i]).getWidth() <= wrapBoundaries.getWidth()) {
+            if (lineWidth + space + sizes[i] <= limit) {
                 nextLine.append(" ").append(words[i]);
+                lineWidth += space + sizes[i];
             } else {
                 lines.add(nextLine.toString());
-                nextLine.setLength(words[i].length());
-                nextLine.replace(0,
-                                 words[i].length(),
-                                 words[i]);
+                widths.add(lineWidth);
+                nextLine.setLength(0);
+                nextLine.append(words[i]);
+                lineWidth = sizes[i];
             }
         }
         lines.add(nextLine.toString());
+        widths.add(lineWidth);
+    }
 
+    /**
+     * Draws the wrapped lines, padding each one with spaces to the width of the wrap boundaries.
+     */
+    protected void drawLines(final Context2D context,
+                             final List<String> lines,
+                             final List<Double> widths,
+                             final IDrawString drawCommand) {
         double xOffset = 0;
 
         switch (textAlignSupplier.get()) {
@@ -139,17 +209,72 @@ public class TextBoundsWrap extends TextNoWrap {
         }
         double yOffset = 0.8;
 
+        final double space = getSpaceWidth();
+
         for (int i = 0; i < lines.size(); i++) {
             String line = lines.get(i);
-            int toPad = (int) Math.round((wrapBoundaries.getWidth() - getBoundingBoxForString(line).getWidth()) / getBoundingBoxForString(" ").getWidth());
-            line = TextUtils.padString(line,
-                                       line.length() + toPad,
-                                       ' ',
-                                       textAlignSupplier.get());
+            if (space > 0) {
+                int toPad = (int) Math.round((wrapBoundaries.getWidth() - widths.get(i)) / space);
+                line = TextUtils.padString(line,
+                                           line.length() + toPad,
+                                           ' ',
+                                           textAlignSupplier.get());
+            }
             drawCommand.draw(context,
                              line,
                              xOffset,
                              i + yOffset);
         }
     }
+
+    /**
+     * The result of wrapping one text: its lines, the width of each line, and the total height.
+     */
+    protected static final class WrapLayout {
+
+        private final String text;
+        private final String font;
+        private final TextBaseLine baseline;
+        private final TextAlign align;
+        private final double width;
+        private final ArrayList<String> lines = new ArrayList<>();
+        private final ArrayList<Double> widths = new ArrayList<>();
+        private double height;
+
+        private WrapLayout(final String text,
+                           final String font,
+                           final TextBaseLine baseline,
+                           final TextAlign align,
+                           final double width) {
+            this.text = text;
+            this.font = font;
+            this.baseline = baseline;
+            this.align = align;
+            this.width = width;
+        }
+
+        private boolean isSame(final String text,
+                               final String font,
+                               final TextBaseLine baseline,
+                               final TextAlign align,
+                               final double width) {
+            return (this.width == width) && (this.baseline == baseline) && (this.align == align) && (this.font.equals(font)) && ((null == text) ? (null == this.text) : text.equals(this.text));
+        }
+
+        public List<String> getLines() {
+            return lines;
+        }
+
+        public List<Double> getLineWidths() {
+            return widths;
+        }
+
+        public double getWidth() {
+            return width;
+        }
+
+        public double getHeight() {
+            return height;
+        }
+    }
 }
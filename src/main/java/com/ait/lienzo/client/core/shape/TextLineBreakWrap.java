@@ -56,7 +56,7 @@ public class TextLineBreakWrap extends TextNoWrap {
         }
         final String[] lines = text.split("\\r?\\n");
         for (String line : lines) {
-            double w = getBoundingBoxForString(line).getWidth();
+            double w = getWidthForString(line);
             width = Math.max(width,
                              w);
         }
@@ -0,0 +1,316 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.shape;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.ait.lienzo.client.core.Context2D;
+import com.ait.lienzo.shared.core.types.TextAlign;
+import com.ait.lienzo.shared.core.types.TextBaseLine;
+import com.ait.tooling.nativetools.client.collection.NFastDoubleArrayJSO;
+
+/**
+ * TextMeasurer caches text advance widths per font string, so text layout only measures strings it has not seen before.
+ * <p>
+ * Each font keeps a least recently used table of measured strings, typically single words or glyphs, and the
+ * number of fonts is bounded as well. Wrapping code computes line widths by summing word widths plus the
+ * width of the spaces between them, see {@link #getWidth(String, String[], int, int)}.
+ * <p>
+ * It also keeps a bounded table of the vertical text offsets per font and baseline, see {@link #getOffsets(String, TextBaseLine)},
+ * which can be filled ahead of time with {@link #prepare(Iterable, TextBaseLine...)}.
+ */
+public final class TextMeasurer
+{
+    public static final int                               DEFAULT_FONT_CAPACITY    = 64;
+
+    public static final int                               DEFAULT_TEXT_CAPACITY    = 1024;
+
+    public static final int                               DEFAULT_OFFSETS_CAPACITY = 256;
+
+    private static final TextMeasurer                     INSTANCE                 = new TextMeasurer();
+
+    private final BoundedTable<WidthTable>                m_fonts                  = new BoundedTable<WidthTable>(DEFAULT_FONT_CAPACITY);
+
+    private final BoundedTable<NFastDoubleArrayJSO>       m_offsets                = new BoundedTable<NFastDoubleArrayJSO>(DEFAULT_OFFSETS_CAPACITY);
+
+    private int                                           m_size                   = DEFAULT_TEXT_CAPACITY;
+
+    private long                                          m_hits                   = 0L;
+
+    private long                                          m_miss                   = 0L;
+
+    public static final TextMeasurer get()
+    {
+        return INSTANCE;
+    }
+
+    private TextMeasurer()
+    {
+    }
+
+    /**
+     * Returns the advance width of a string in the given font.
+     *
+     * @param font the CSS font string, see {@link TextUtils#getFontString(double, com.ait.lienzo.shared.core.types.TextUnit, String, String)}
+     * @param text
+     * @return double
+     */
+    public final double getWidth(final String font, final String text)
+    {
+        if ((null == text) || (text.isEmpty()))
+        {
+            return 0;
+        }
+        final WidthTable table = getWidthTable(font);
+
+        final Double wide = table.get(text);
+
+        if (null != wide)
+        {
+            m_hits++;
+
+            return wide;
+        }
+        m_miss++;
+
+        final double size = measure(font, text);
+
+        table.put(text, size);
+
+        return size;
+    }
+
+    /**
+     * Returns the advance width of a single space in the given font.
+     *
+     * @param font
+     * @return double
+     */
+    public final double getSpaceWidth(final String font)
+    {
+        final WidthTable table = getWidthTable(font);
+
+        if (table.m_space < 0)
+        {
+            m_miss++;
+
+            table.m_space = measure(font, " ");
+        }
+        else
+        {
+            m_hits++;
+        }
+        return table.m_space;
+    }
+
+    /**
+     * Returns the width of the words from index beg up to, but not including, index end when joined by single spaces.
+     *
+     * @param font
+     * @param words
+     * @param beg
+     * @param end
+     * @return double
+     */
+    public final double getWidth(final String font, final String[] words, final int beg, final int end)
+    {
+        if (end <= beg)
+        {
+            return 0;
+        }
+        double wide = getSpaceWidth(font) * (end - beg - 1);
+
+        for (int i = beg; i < end; i++)
+        {
+            wide += getWidth(font, words[i]);
+        }
+        return wide;
+    }
+
+    /**
+     * Returns the vertical extent of text in the given font and baseline, as [top, bottom] relative to the baseline,
+     * see {@link TextUtils#getTextOffsets(String, TextBaseLine)}.
+     *
+     * @param font
+     * @param baseline
+     * @return the offsets, or null if the font could not be measured
+     */
+    public final NFastDoubleArrayJSO getOffsets(final String font, final TextBaseLine baseline)
+    {
+        final String key = font + " " + baseline.getValue();
+
+        NFastDoubleArrayJSO offs = m_offsets.get(key);
+
+        if (null != offs)
+        {
+            m_hits++;
+
+            return offs;
+        }
+        m_miss++;
+
+        offs = TextUtils.getTextOffsets(font, baseline);
+
+        // a font that is still loading can measure as empty, so only cache a real result
+
+        if (null != offs)
+        {
+            m_offsets.put(key, offs);
+        }
+        return offs;
+    }
+
+    /**
+     * Measures the offsets and the space width of each font ahead of time, so the first frames using them do not stall.
+     *
+     * @param fonts the CSS font strings
+     * @param baselines the baselines to prepare, all of them if none are given
+     * @return this TextMeasurer
+     */
+    public final TextMeasurer prepare(final Iterable<String> fonts, final TextBaseLine... baselines)
+    {
+        final TextBaseLine[] lines = ((null == baselines) || (baselines.length < 1)) ? TextBaseLine.values() : baselines;
+
+        for (String font : fonts)
+        {
+            if (null != font)
+            {
+                getSpaceWidth(font);
+
+                for (TextBaseLine baseline : lines)
+                {
+                    getOffsets(font, baseline);
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of strings cached per font. Shrinking it takes effect as new strings are measured.
+     *
+     * @param size
+     * @return this TextMeasurer
+     */
+    public final TextMeasurer setTextCapacity(final int size)
+    {
+        m_size = Math.max(16, size);
+
+        return this;
+    }
+
+    public final int getTextCapacity()
+    {
+        return m_size;
+    }
+
+    public final int getFontCount()
+    {
+        return m_fonts.size();
+    }
+
+    public final long getHitCount()
+    {
+        return m_hits;
+    }
+
+    public final long getMissCount()
+    {
+        return m_miss;
+    }
+
+    /**
+     * Forgets all the measured widths, i.e. after a web font finishes loading.
+     *
+     * @return this TextMeasurer
+     */
+    public final TextMeasurer clear()
+    {
+        m_fonts.clear();
+
+        m_offsets.clear();
+
+        return this;
+    }
+
+    private final WidthTable getWidthTable(final String font)
+    {
+        WidthTable table = m_fonts.get(font);
+
+        if (null == table)
+        {
+            m_fonts.put(font, table = new WidthTable());
+        }
+        return table;
+    }
+
+    private static final double measure(final String font, final String text)
+    {
+        final Context2D context = TextUtils.FORBOUNDS.getContext();
+
+        if (null == context)
+        {
+            return 0;
+        }
+        context.setTextFont(font);
+
+        context.setTextAlign(TextAlign.LEFT);
+
+        context.setTextBaseline(TextBaseLine.ALPHABETIC);
+
+        return context.measureText(text).getWidth();
+    }
+
+    private static final class BoundedTable<V> extends LinkedHashMap<String, V>
+    {
+        private static final long serialVersionUID = 2484364419436612380L;
+
+        private final int         m_size;
+
+        private BoundedTable(final int size)
+        {
+            super(16, 0.75f, true);
+
+            m_size = size;
+        }
+
+        @Override
+        protected final boolean removeEldestEntry(final Map.Entry<String, V> eldest)
+        {
+            return size() > m_size;
+        }
+    }
+
+    private final class WidthTable extends LinkedHashMap<String, Double>
+    {
+        private static final long serialVersionUID = -7023512395021553462L;
+
+        private double            m_space          = -1;
+
+        private WidthTable()
+        {
+            super(64, 0.75f, true);
+        }
+
+        @Override
+        protected final boolean removeEldestEntry(final Map.Entry<String, Double> eldest)
+        {
+            return size() > m_size;
+        }
+    }
+}
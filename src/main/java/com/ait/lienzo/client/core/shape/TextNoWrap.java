@@ -111,6 +111,48 @@ public class TextNoWrap implements ITextWrapper {
                                         textAlignSupplier.get());
     }
 
+    protected String getFontString() {
+        return TextUtils.getFontString(fontSizeSupplier.get(),
+                                       textUnitSupplier.get(),
+                                       fontStyleSupplier.get(),
+                                       fontFamilySupplier.get());
+    }
+
+    /**
+     * Returns the advance width of the given string, from the {@link TextMeasurer} cache.
+     */
+    protected double getWidthForString(final String string) {
+        if (false == (fontSizeSupplier.get() > 0)) {
+            return 0;
+        }
+        return TextMeasurer.get().getWidth(getFontString(),
+                                           string);
+    }
+
+    /**
+     * Returns the advance widths of the given words, measuring only the words not yet in the {@link TextMeasurer} cache.
+     */
+    protected double[] getWidthsForWords(final String[] words) {
+        final double[] widths = new double[words.length];
+        if (false == (fontSizeSupplier.get() > 0)) {
+            return widths;
+        }
+        final String font = getFontString();
+        final TextMeasurer measurer = TextMeasurer.get();
+        for (int i = 0; i < words.length; i++) {
+            widths[i] = measurer.getWidth(font,
+                                          words[i]);
+        }
+        return widths;
+    }
+
+    protected double getSpaceWidth() {
+        if (false == (fontSizeSupplier.get() > 0)) {
+            return 0;
+        }
+        return TextMeasurer.get().getSpaceWidth(getFontString());
+    }
+
     @Override
     public void drawString(final Context2D context,
                            final Attributes attr,
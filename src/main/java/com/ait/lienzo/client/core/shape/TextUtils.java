@@ -18,13 +18,14 @@ package com.ait.lienzo.client.core.shape;
 
 import com.ait.lienzo.client.core.Context2D;
 import com.ait.lienzo.client.core.types.BoundingBox;
+import com.ait.lienzo.client.core.types.TextMetrics;
 import com.ait.lienzo.client.core.util.ScratchPad;
+import com.ait.lienzo.client.core.util.ScratchPadPool;
 import com.ait.lienzo.shared.core.types.ColorName;
 import com.ait.lienzo.shared.core.types.TextAlign;
 import com.ait.lienzo.shared.core.types.TextBaseLine;
 import com.ait.lienzo.shared.core.types.TextUnit;
 import com.ait.tooling.nativetools.client.collection.NFastDoubleArrayJSO;
-import com.ait.tooling.nativetools.client.collection.NFastStringMap;
 import com.google.gwt.canvas.dom.client.CanvasPixelArray;
 
 /**
@@ -33,9 +34,7 @@ import com.google.gwt.canvas.dom.client.CanvasPixelArray;
 public class TextUtils
 {
 
-    static ScratchPad                          FORBOUNDS = new ScratchPad(1, 1);
-
-    static NFastStringMap<NFastDoubleArrayJSO> OFFSCACHE = new NFastStringMap<NFastDoubleArrayJSO>();
+    static ScratchPad FORBOUNDS = new ScratchPad(1, 1);
 
     static native NFastDoubleArrayJSO getTextOffsets(CanvasPixelArray data, int wide, int high, int base)
     /*-{
@@ -64,7 +63,56 @@ public class TextUtils
 		return [ top - base, bot - base ];
     }-*/;
 
+    /**
+     * Returns the vertical extent of the inked "Mg" glyphs relative to the baseline, as [top, bottom] in whole pixel rows.
+     * The browser's {@link TextMetrics} are used when available, otherwise the glyphs are rendered and their pixels scanned.
+     * Prefer {@link TextMeasurer#getOffsets(String, TextBaseLine)}, which caches the result.
+     */
     public static final NFastDoubleArrayJSO getTextOffsets(final String font, final TextBaseLine baseline)
+    {
+        final NFastDoubleArrayJSO offs = getTextOffsetsFromMetrics(font, baseline);
+
+        if (null != offs)
+        {
+            return offs;
+        }
+        return getTextOffsetsFromPixels(font, baseline);
+    }
+
+    static final NFastDoubleArrayJSO getTextOffsetsFromMetrics(final String font, final TextBaseLine baseline)
+    {
+        final Context2D context = FORBOUNDS.getContext();
+
+        if (null == context)
+        {
+            return null;
+        }
+        context.setTextFont(font);
+
+        context.setTextAlign(TextAlign.LEFT);
+
+        context.setTextBaseline(baseline);
+
+        final TextMetrics metrics = context.measureText("Mg");
+
+        if (false == metrics.isActualBoundingBoxSupported())
+        {
+            return null;
+        }
+        final double ascent = metrics.getActualBoundingBoxAscent();
+
+        final double descent = metrics.getActualBoundingBoxDescent();
+
+        if (false == ((ascent + descent) > 0))
+        {
+            return null;
+        }
+        // same whole pixel rows the pixel scan reports: the first and the last inked row
+
+        return NFastDoubleArrayJSO.make(Math.floor(0 - ascent), Math.ceil(descent) - 1);
+    }
+
+    static final NFastDoubleArrayJSO getTextOffsetsFromPixels(final String font, final TextBaseLine baseline)
     {
         FORBOUNDS.getContext().setTextFont(font);
 
@@ -78,25 +126,32 @@ public class TextUtils
 
         final int h = (m * 4);
 
-        final ScratchPad temp = new ScratchPad(w, h);
+        final ScratchPad temp = ScratchPadPool.get().acquire(w, h);
 
-        final Context2D ctxt = temp.getContext();
+        try
+        {
+            final Context2D ctxt = temp.getContext();
 
-        ctxt.setFillColor(ColorName.BLACK);
+            ctxt.setFillColor(ColorName.BLACK);
 
-        ctxt.fillRect(0, 0, w, h);
+            ctxt.fillRect(0, 0, w, h);
 
-        ctxt.setTextFont(font);
+            ctxt.setTextFont(font);
 
-        ctxt.setTextAlign(TextAlign.LEFT);
+            ctxt.setTextAlign(TextAlign.LEFT);
 
-        ctxt.setTextBaseline(baseline);
+            ctxt.setTextBaseline(baseline);
 
-        ctxt.setFillColor(ColorName.WHITE);
+            ctxt.setFillColor(ColorName.WHITE);
 
-        ctxt.fillText("Mg", 0, m * 2);
+            ctxt.fillText("Mg", 0, m * 2);
 
-        return getTextOffsets(ctxt.getImageData(0, 0, w, h).getData(), w, h, m * 2);
+            return getTextOffsets(ctxt.getImageData(0, 0, w, h).getData(), w, h, m * 2);
+        }
+        finally
+        {
+            ScratchPadPool.get().release(temp);
+        }
     }
 
     public static BoundingBox getBoundingBox(final String text, final double size, final String style, final String family, final TextUnit unit, final TextBaseLine baseline, final TextAlign align)
@@ -107,25 +162,13 @@ public class TextUtils
         }
         final String font = getFontString(size, unit, style, family);
 
-        final String base = font + " " + baseline.getValue();
-
-        NFastDoubleArrayJSO offs = OFFSCACHE.get(base);
+        final NFastDoubleArrayJSO offs = TextMeasurer.get().getOffsets(font, baseline);
 
-        if (null == offs)
-        {
-            OFFSCACHE.put(base, offs = getTextOffsets(font, baseline));
-        }
         if (null == offs)
         {
             return new BoundingBox(0, 0, 0, 0);
         }
-        FORBOUNDS.getContext().setTextFont(font);
-
-        FORBOUNDS.getContext().setTextAlign(TextAlign.LEFT);
-
-        FORBOUNDS.getContext().setTextBaseline(TextBaseLine.ALPHABETIC);
-
-        final double wide = FORBOUNDS.getContext().measureText(text).getWidth();
+        final double wide = TextMeasurer.get().getWidth(font, text);
 
         final BoundingBox bbox = new BoundingBox().addY(offs.get(0)).addY(offs.get(1));
 
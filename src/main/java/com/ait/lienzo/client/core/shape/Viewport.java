@@ -85,7 +85,7 @@ public class Viewport extends ContainerNode<Scene, Viewport>
 
     private Scene                  m_back    = new Scene();
 
-    private ScratchPad             m_spad    = new ScratchPad(0, 0);
+    private ScratchPad             m_spad    = null;
 
     private Mediators              m_mediators;
 
@@ -253,8 +253,10 @@ public class Viewport extends ContainerNode<Scene, Viewport>
                 }
             }
         }
-        m_spad.setPixelSize(wide, high);
-
+        if (null != m_spad)
+        {
+            m_spad.setPixelSize(wide, high);
+        }
         return this;
     }
 
@@ -429,6 +431,12 @@ public class Viewport extends ContainerNode<Scene, Viewport>
     @Override
     public final ScratchPad getScratchPad()
     {
+        // most viewports never need their full size scratch pad, so its backing store is only allocated on first use
+
+        if (null == m_spad)
+        {
+            m_spad = new ScratchPad(getWidth(), getHeight());
+        }
         return m_spad;
     }
 
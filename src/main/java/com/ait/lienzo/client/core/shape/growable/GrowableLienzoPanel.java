@@ -16,33 +16,56 @@
 package com.ait.lienzo.client.core.shape.growable;
 
 import com.ait.lienzo.client.core.shape.Layer;
+import com.ait.lienzo.client.core.types.BoundingBox;
+import com.ait.lienzo.client.core.types.Transform;
 import com.ait.lienzo.client.widget.LienzoPanel;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
+import com.google.gwt.user.client.ui.AbsolutePanel;
 import com.google.gwt.user.client.ui.RootPanel;
 import com.google.gwt.user.client.ui.ScrollPanel;
 
 /**
  * GrowableLienzoPanel acts as an extension of {@link com.google.gwt.user.client.ui.ScrollPanel}, serving as a
- * Scrollable Container wrapping a {@link com.ait.lienzo.client.widget.LienzoPanel}
+ * Scrollable Container for a {@link com.ait.lienzo.client.widget.LienzoPanel}
  * <p>
  * <ul>
- * <li>A GrowableLienzoPanel takes width and height of the underlying content LienzoPanel and overlaying ScrollPanel as input parameters.</li>
+ * <li>A GrowableLienzoPanel takes the initial width and height of the scrollable content and the size of the overlaying ScrollPanel as input parameters.</li>
+ * <li>The LienzoPanel canvas is only as large as the ScrollPanel. The ScrollPanel scrolls an empty spacer sized to the content bounds,
+ * and scrolling is mapped onto the {@link com.ait.lienzo.client.core.shape.Viewport} transform, so canvas memory stays constant
+ * no matter how large the diagram grows.</li>
+ * <li>The content bounds only grow as shapes are added or dragged outward, see {@link #refreshContentBounds()} to shrink them again.</li>
  * </ul>
  */
 public class GrowableLienzoPanel {
 
     private ScrollPanel scrollPanel;
+    private AbsolutePanel scrollContent;
     private LienzoPanel contentLienzoPanel;
     private Layer contentLayer;
     private GrowableLienzoScrollState scrollState;
+    private BoundingBox contentBounds;
 
     public GrowableLienzoPanel(int lienzoPanelWidth, int lienzoPanelHeight, int scrollPanelWidth, int scrollPanelHeight) {
 
-        contentLienzoPanel = new LienzoPanel(lienzoPanelWidth, lienzoPanelHeight);
+        contentLienzoPanel = new LienzoPanel(scrollPanelWidth, scrollPanelHeight);
         contentLienzoPanel.setBackgroundLayer(DefaultBackgroundGridLayer.build());
 
-        scrollPanel = new ScrollPanel(contentLienzoPanel);
+        contentBounds = new BoundingBox(0, 0, lienzoPanelWidth, lienzoPanelHeight);
+
+        scrollContent = new AbsolutePanel();
+        scrollContent.add(contentLienzoPanel, 0, 0);
+
+        scrollPanel = new ScrollPanel(scrollContent);
         scrollPanel.setSize(scrollPanelWidth + "px", scrollPanelHeight + "px");
         scrollPanel.setAlwaysShowScrollBars(true);
+        scrollPanel.addScrollHandler(new ScrollHandler() {
+            @Override
+            public void onScroll(ScrollEvent event) {
+                updateViewportTransform();
+                contentLienzoPanel.batch();
+            }
+        });
 
         contentLayer = new Layer();
         contentLienzoPanel.add(contentLayer);
@@ -50,6 +73,9 @@ public class GrowableLienzoPanel {
         scrollState = new GrowableLienzoScrollState(this);
 
         RootPanel.get().add(scrollPanel);
+
+        updateScrollExtent();
+        updateViewportTransform();
     }
 
     public ScrollPanel getScrollPanel() {
@@ -64,7 +90,136 @@ public class GrowableLienzoPanel {
         return contentLayer;
     }
 
+    /**
+     * Returns the bounds of the scrollable content, in world coordinates.
+     */
+    public BoundingBox getContentBounds() {
+        return new BoundingBox(contentBounds);
+    }
+
+    /**
+     * Returns the area of the content that is currently visible, in world coordinates.
+     */
+    public BoundingBox getVisibleBounds() {
+        final double scale = getScale();
+        final double x = contentBounds.getMinX() + (scrollPanel.getHorizontalScrollPosition() / scale);
+        final double y = contentBounds.getMinY() + (scrollPanel.getVerticalScrollPosition() / scale);
+
+        return new BoundingBox(x, y, x + (getClientWidth() / scale), y + (getClientHeight() / scale));
+    }
+
     public void addShape(Object shape, Boolean draggable) {
         scrollState.register(shape, draggable);
     }
-}
\ No newline at end of file
+
+    /**
+     * Grows the scrollable content to include the given bounds, in world coordinates.
+     * When the content grows to the left or to the top, the scroll position is adjusted
+     * so that the visible area does not move.
+     */
+    public void extendContentBounds(final BoundingBox bounds) {
+
+        if ((null == bounds) || (contentBounds.contains(bounds))) {
+            return;
+        }
+        final double minX = contentBounds.getMinX();
+        final double minY = contentBounds.getMinY();
+
+        contentBounds.add(bounds);
+
+        setContentBounds(minX, minY);
+    }
+
+    /**
+     * Recomputes the scrollable content bounds from the content Layer, shrinking them if shapes
+     * were moved back inward or removed.
+     */
+    public void refreshContentBounds() {
+
+        final double minX = contentBounds.getMinX();
+        final double minY = contentBounds.getMinY();
+        final BoundingBox visible = getVisibleBounds();
+        final BoundingBox bounds = contentLayer.getBoundingBox();
+
+        contentBounds = new BoundingBox(visible);
+
+        if ((null != bounds) && (bounds.isValid())) {
+            contentBounds.add(bounds);
+        }
+        setContentBounds(minX, minY);
+    }
+
+    /**
+     * Scrolls by the given number of pixels, growing the content bounds if the scroll would go past them.
+     */
+    public void scrollBy(final int dx, final int dy) {
+
+        final double scale = getScale();
+        final BoundingBox visible = getVisibleBounds();
+
+        extendContentBounds(new BoundingBox(visible.getMinX() + Math.min(0, dx / scale),
+                                            visible.getMinY() + Math.min(0, dy / scale),
+                                            visible.getMaxX() + Math.max(0, dx / scale),
+                                            visible.getMaxY() + Math.max(0, dy / scale)));
+
+        scrollPanel.setHorizontalScrollPosition(scrollPanel.getHorizontalScrollPosition() + dx);
+        scrollPanel.setVerticalScrollPosition(scrollPanel.getVerticalScrollPosition() + dy);
+    }
+
+    private void setContentBounds(final double oldMinX, final double oldMinY) {
+
+        final double scale = getScale();
+        final int shiftX = (int) Math.round((oldMinX - contentBounds.getMinX()) * scale);
+        final int shiftY = (int) Math.round((oldMinY - contentBounds.getMinY()) * scale);
+        final int left = scrollPanel.getHorizontalScrollPosition();
+        final int top = scrollPanel.getVerticalScrollPosition();
+
+        updateScrollExtent();
+
+        scrollPanel.setHorizontalScrollPosition(left + shiftX);
+        scrollPanel.setVerticalScrollPosition(top + shiftY);
+
+        updateViewportTransform();
+        contentLienzoPanel.batch();
+    }
+
+    private void updateScrollExtent() {
+
+        final double scale = getScale();
+        final int wide = Math.max(getClientWidth(), (int) Math.ceil(contentBounds.getWidth() * scale));
+        final int high = Math.max(getClientHeight(), (int) Math.ceil(contentBounds.getHeight() * scale));
+
+        scrollContent.setPixelSize(wide, high);
+    }
+
+    private void updateViewportTransform() {
+
+        final double scale = getScale();
+        final int left = scrollPanel.getHorizontalScrollPosition();
+        final int top = scrollPanel.getVerticalScrollPosition();
+
+        scrollContent.setWidgetPosition(contentLienzoPanel, left, top);
+
+        contentLienzoPanel.setTransform(new Transform().translate(-(contentBounds.getMinX() * scale) - left,
+                                                                  -(contentBounds.getMinY() * scale) - top).scale(scale));
+    }
+
+    private double getScale() {
+        final Transform transform = contentLienzoPanel.getViewport().getTransform();
+        final double scale = (null == transform) ? 1 : transform.getScaleX();
+
+        return (scale > 0) ? scale : 1;
+    }
+
+    private int getClientWidth() {
+        final int wide = scrollPanel.getElement().getClientWidth();
+
+        return (wide > 0) ? wide : contentLienzoPanel.getWidth();
+    }
+
+    private int getClientHeight() {
+        final int high = scrollPanel.getElement().getClientHeight();
+
+        return (high > 0) ? high : contentLienzoPanel.getHeight();
+    }
+}
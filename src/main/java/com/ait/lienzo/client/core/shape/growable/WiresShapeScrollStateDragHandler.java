@@ -25,27 +25,19 @@ import com.ait.lienzo.client.core.shape.Group;
 import com.ait.lienzo.client.core.shape.wires.WiresManager;
 import com.ait.lienzo.client.core.shape.wires.WiresShape;
 import com.ait.lienzo.client.core.types.BoundingBox;
-import com.ait.lienzo.client.core.types.Point2D;
-import com.ait.lienzo.client.widget.LienzoPanel;
-import com.ait.tooling.nativetools.client.collection.NFastArrayList;
-import com.google.gwt.user.client.ui.ScrollPanel;
 
 public class WiresShapeScrollStateDragHandler implements IScrollStateDragHandler<WiresShape> {
 
     private static final int MOVE_ADJUSTMENT = 5;
-    private static final int CANVAS_EXPAND_SIZE = 100;
     private static final int SHAPE_ADJUSTMENT_SIZE = 20;
 
-    private LienzoPanel contentPanel;
-    private ScrollPanel scrollPanel;
-    private boolean preserveDragbox = false;
+    private GrowableLienzoPanel growableLienzoPanel;
     private BoundingBox dragStartBox;
     private WiresManager wiresManager;
     private GrowableLienzoScrollState scrollState;
 
     public WiresShapeScrollStateDragHandler(GrowableLienzoPanel growableLienzoPanel, GrowableLienzoScrollState scrollState) {
-        this.contentPanel = growableLienzoPanel.getContentLienzoPanel();
-        this.scrollPanel = growableLienzoPanel.getScrollPanel();
+        this.growableLienzoPanel = growableLienzoPanel;
         this.wiresManager = WiresManager.get(growableLienzoPanel.getContentLayer());
         this.scrollState = scrollState;
     }
@@ -54,24 +46,15 @@ public class WiresShapeScrollStateDragHandler implements IScrollStateDragHandler
                                 int deltaY,
                                 String shapeUuid) {
 
+        final BoundingBox visible = growableLienzoPanel.getVisibleBounds();
+
         // CHECK RIGHT
         if (deltaX > 0) {
 
             // IF DRAGGING OBJECT RIGHT OUTSIDE VISIBLE WINDOW
-            if ((dragStartBox.getMaxX() + deltaX + (dragStartBox.getWidth() / 2))
-                    > (scrollPanel.getHorizontalScrollPosition() + scrollPanel.getOffsetWidth())) {
-
-                // SCROLL AREA AVAILABLE
-                if (scrollState.getScrollArea("right") > 0) {
-                    scrollPanel.setHorizontalScrollPosition(scrollPanel.getHorizontalScrollPosition() + MOVE_ADJUSTMENT);
-                } else { // GROW PANEL WIDTH
-                    contentPanel.getViewport().setPixelSize(
-                            contentPanel.getViewport().getWidth() + CANVAS_EXPAND_SIZE,
-                            contentPanel.getViewport().getHeight());
-
-                    preserveDragbox = true;
-                    contentPanel.draw();
-                }
+            if ((dragStartBox.getMaxX() + deltaX + (dragStartBox.getWidth() / 2)) > visible.getMaxX()) {
+                growContentBounds(deltaX, deltaY);
+                growableLienzoPanel.scrollBy(MOVE_ADJUSTMENT, 0);
             }
             checkVerticalBoundaries(deltaY, shapeUuid);
 
@@ -79,27 +62,9 @@ public class WiresShapeScrollStateDragHandler implements IScrollStateDragHandler
         } else if (deltaX < 0) {
 
             // IF DRAGGING OBJECT LEFT OUTSIDE VISIBLE WINDOW
-            if (dragStartBox.getMinX() + deltaX < scrollState.getScrollArea("left")) {
-
-                // SCROLL AREA AVAILABLE
-                if (scrollState.getScrollArea("left") > 0) {
-                    scrollPanel.setHorizontalScrollPosition(scrollPanel.getHorizontalScrollPosition() - MOVE_ADJUSTMENT);
-                } else { // GROW PANEL WIDTH
-                    contentPanel.setSize(
-                            String.valueOf(contentPanel.getWidth() + CANVAS_EXPAND_SIZE) + "px",
-                            String.valueOf(contentPanel.getHeight()) + "px");
-
-                    contentPanel.getViewport().setPixelSize(
-                            contentPanel.getViewport().getWidth() + CANVAS_EXPAND_SIZE,
-                            contentPanel.getViewport().getHeight());
-
-                    shiftShapesRight(shapeUuid);
-                    scrollPanel.setHorizontalScrollPosition(
-                            scrollPanel.getHorizontalScrollPosition() + SHAPE_ADJUSTMENT_SIZE);
-
-                    preserveDragbox = true;
-                    contentPanel.draw();
-                }
+            if (dragStartBox.getMinX() + deltaX < visible.getMinX()) {
+                growContentBounds(deltaX, deltaY);
+                growableLienzoPanel.scrollBy(-MOVE_ADJUSTMENT, 0);
             }
             checkVerticalBoundaries(deltaY, shapeUuid);
         }
@@ -107,68 +72,36 @@ public class WiresShapeScrollStateDragHandler implements IScrollStateDragHandler
 
     public void checkVerticalBoundaries(int deltaY, String shapeUuid) {
 
+        final BoundingBox visible = growableLienzoPanel.getVisibleBounds();
+
         // CHECK BOTTOM
         if (deltaY > 0) {
 
             // IF DRAGGING OBJECT DOWN OUTSIDE VISIBLE WINDOW
-            if (dragStartBox.getMaxY() + deltaY + (dragStartBox.getHeight() / 2)
-                    > scrollPanel.getVerticalScrollPosition() + scrollPanel.getOffsetHeight()) {
-
-                // SCROLL AREA AVAILABLE
-                if (scrollState.getScrollArea("bottom") > 0) {
-                    scrollPanel.setVerticalScrollPosition(scrollPanel.getVerticalScrollPosition() + MOVE_ADJUSTMENT);
-                } else { // GROW PANEL HEIGHT
-                    contentPanel.getViewport().setPixelSize(
-                            contentPanel.getViewport().getWidth(),
-                            contentPanel.getViewport().getHeight() + CANVAS_EXPAND_SIZE);
-
-                    preserveDragbox = true;
-                    contentPanel.draw();
-                }
+            if (dragStartBox.getMaxY() + deltaY + (dragStartBox.getHeight() / 2) > visible.getMaxY()) {
+                growContentBounds(0, deltaY);
+                growableLienzoPanel.scrollBy(0, MOVE_ADJUSTMENT);
             }
 
             // CHECK TOP
         } else if (deltaY < 0) {
 
             // IF DRAGGING OBJECT UP OUTSIDE VISIBLE WINDOW
-            if (dragStartBox.getMinY() + deltaY < scrollState.getScrollArea("top")) {
-
-                // SCROLL AREA AVAILABLE
-                if (scrollState.getScrollArea("top") > 0) {
-                    scrollPanel.setVerticalScrollPosition(scrollPanel.getVerticalScrollPosition() - MOVE_ADJUSTMENT);
-                } else { // GROW PANEL HEIGHT
-                    contentPanel.setSize(
-                            String.valueOf(contentPanel.getWidth()) + "px",
-                            String.valueOf(contentPanel.getHeight() + CANVAS_EXPAND_SIZE) + "px");
-
-                    shiftShapesDown(shapeUuid);
-                    contentPanel.getViewport().setPixelSize(
-                            contentPanel.getViewport().getWidth(),
-                            contentPanel.getViewport().getHeight() + CANVAS_EXPAND_SIZE);
-
-                    preserveDragbox = true;
-                    contentPanel.draw();
-                }
+            if (dragStartBox.getMinY() + deltaY < visible.getMinY()) {
+                growContentBounds(0, deltaY);
+                growableLienzoPanel.scrollBy(0, -MOVE_ADJUSTMENT);
             }
         }
     }
 
-    private void shiftShapesDown(String dragShapeId) {
-
-        NFastArrayList<WiresShape> wiresShapes = wiresManager.getLayer().getChildShapes();
-        for (WiresShape shape : wiresShapes) {
-            shape.setLocation(new Point2D(shape.getX(), shape.getY() +
-                    (shape.uuid().equals(dragShapeId) ? SHAPE_ADJUSTMENT_SIZE : CANVAS_EXPAND_SIZE)));
-        }
-    }
-
-    private void shiftShapesRight(String dragShapeId) {
+    private void growContentBounds(int deltaX, int deltaY) {
 
-        NFastArrayList<WiresShape> wiresShapes = wiresManager.getLayer().getChildShapes();
-        for (WiresShape shape : wiresShapes) {
-            shape.setLocation(new Point2D(shape.getX() + (shape.uuid().equals(dragShapeId)
-                    ? SHAPE_ADJUSTMENT_SIZE : CANVAS_EXPAND_SIZE), shape.getY()));
-        }
+        // ONLY THE SCROLLABLE BOUNDS GROW, THE CANVAS STAYS THE SIZE OF THE SCROLL PANEL
+        growableLienzoPanel.extendContentBounds(new BoundingBox(
+                dragStartBox.getMinX() + deltaX - SHAPE_ADJUSTMENT_SIZE,
+                dragStartBox.getMinY() + deltaY - SHAPE_ADJUSTMENT_SIZE,
+                dragStartBox.getMaxX() + deltaX + SHAPE_ADJUSTMENT_SIZE,
+                dragStartBox.getMaxY() + deltaY + SHAPE_ADJUSTMENT_SIZE));
     }
 
     public void addDragHandlers(final WiresShape shape) {
@@ -179,10 +112,7 @@ public class WiresShapeScrollStateDragHandler implements IScrollStateDragHandler
 
                 Group source = (Group) event.getSource();
 
-                if (!preserveDragbox) {
-                    dragStartBox = source.getComputedBoundingPoints().getBoundingBox();
-                    preserveDragbox = false;
-                }
+                dragStartBox = source.getComputedBoundingPoints().getBoundingBox();
             }
         });
 
@@ -199,7 +129,10 @@ public class WiresShapeScrollStateDragHandler implements IScrollStateDragHandler
         shape.getGroup().addNodeDragEndHandler(new NodeDragEndHandler() {
             @Override
             public void onNodeDragEnd(NodeDragEndEvent event) {
-                preserveDragbox = false;
+
+                Group source = (Group) event.getSource();
+
+                growableLienzoPanel.extendContentBounds(source.getComputedBoundingPoints().getBoundingBox());
             }
         });
     }
@@ -208,6 +141,7 @@ public class WiresShapeScrollStateDragHandler implements IScrollStateDragHandler
 
         WiresShape shape = (WiresShape) shapeObj;
         wiresManager.register(shape);
+        growableLienzoPanel.extendContentBounds(shape.getGroup().getComputedBoundingPoints().getBoundingBox());
 
         if (draggable) {
             shape.setDraggable(true);
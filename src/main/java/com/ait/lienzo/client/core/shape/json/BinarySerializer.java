@@ -0,0 +1,682 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.shape.json;
+
+import com.ait.lienzo.client.core.shape.json.validators.ValidationContext;
+import com.ait.lienzo.client.core.shape.json.validators.ValidationException;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.json.client.JSONObject;
+import com.google.gwt.typedarrays.shared.Uint8Array;
+
+/**
+ * BinarySerializer is a compact binary alternative to {@link IJSONSerializable#toJSONString()} and {@link JSONDeserializer}.
+ * <p>
+ * It encodes the same tree as {@link IJSONSerializable#toJSONObject()}, so nodes are rebuilt by their factories, but:
+ * <ul>
+ * <li>attribute names and other object keys are written once into a dictionary, and referenced by index after that.</li>
+ * <li>strings, i.e. colors, fonts and node types, are written once into a string table, and referenced by index after that.</li>
+ * <li>integers are written as zig-zag varints, other numbers as 32 bit floats when that is exact, else as 64 bit floats.</li>
+ * <li>arrays of numbers, and arrays of points, i.e. {@link com.ait.lienzo.client.core.types.Point2DArray} and the points of a
+ * {@link com.ait.lienzo.client.core.types.PathPartList}, are written with one tag for the whole array: delta coded varints when they hold integers,
+ * else raw floats all of one width, 32 bits when that is exact for every element, else 64 bits.</li>
+ * </ul>
+ * The dictionary and the string table are built while encoding, so the format does not depend on the attributes this version knows about.
+ */
+public final class BinarySerializer
+{
+    private static final BinarySerializer INSTANCE = new BinarySerializer();
+
+    private static final JavaScriptObject TAGS     = tags();
+
+    public static final BinarySerializer get()
+    {
+        return INSTANCE;
+    }
+
+    private BinarySerializer()
+    {
+    }
+
+    /**
+     * Encodes the IJSONSerializable, i.e. a {@link com.ait.lienzo.client.core.shape.Layer}.
+     *
+     * @param node
+     * @return Uint8Array, or null if the node could not be serialized
+     */
+    public final Uint8Array toBinary(final IJSONSerializable<?> node)
+    {
+        if (null == node)
+        {
+            return null;
+        }
+        return toBinary(node.toJSONObject());
+    }
+
+    /**
+     * Encodes a JSONObject as produced by {@link IJSONSerializable#toJSONObject()}.
+     *
+     * @param json
+     * @return Uint8Array
+     */
+    public final Uint8Array toBinary(final JSONObject json)
+    {
+        if (null == json)
+        {
+            return null;
+        }
+        final JavaScriptObject jso = json.getJavaScriptObject();
+
+        if (null == jso)
+        {
+            return null;
+        }
+        return encode(TAGS, jso);
+    }
+
+    /**
+     * Decodes the bytes into a JSONObject, in the form produced by {@link IJSONSerializable#toJSONObject()}.
+     *
+     * @param bytes
+     * @return JSONObject, or null if the bytes are not in this format
+     */
+    public final JSONObject toJSONObject(final Uint8Array bytes)
+    {
+        if (null == bytes)
+        {
+            return null;
+        }
+        final JavaScriptObject jso = decode(TAGS, bytes);
+
+        if (null == jso)
+        {
+            return null;
+        }
+        return new JSONObject(jso);
+    }
+
+    /**
+     * Decodes the bytes and returns the IJSONSerializable.
+     * If validate is false, it assumes the bytes were produced by {@link #toBinary(IJSONSerializable)} (this is faster.)
+     *
+     * @param bytes
+     * @param validate Whether to validate the attributes and child node types
+     * @return IJSONSerializable
+     */
+    public final IJSONSerializable<?> fromBinary(final Uint8Array bytes, final boolean validate)
+    {
+        final ValidationContext ctx = new ValidationContext();
+
+        ctx.setValidate(validate);
+
+        ctx.setStopOnError(true);// bail if an error is encountered
+
+        return fromBinary(bytes, ctx);
+    }
+
+    /**
+     * Decodes the bytes and returns the IJSONSerializable, using the ValidationContext.
+     *
+     * @param bytes
+     * @param ctx ValidationContext, or a {@link JSONLoadContext}
+     * @return IJSONSerializable
+     */
+    public final IJSONSerializable<?> fromBinary(final Uint8Array bytes, final ValidationContext ctx)
+    {
+        try
+        {
+            ctx.push("fromBinary");
+
+            final JSONObject json = toJSONObject(bytes);
+
+            if (null == json)
+            {
+                ctx.addError("Invalid binary data");
+
+                return null;
+            }
+            return JSONDeserializer.get().fromJSON(json, ctx);
+        }
+        catch (ValidationException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the format version and the value tags, shared by {@link #encode(JavaScriptObject, JavaScriptObject)} and {@link #decode(JavaScriptObject, Uint8Array)}.
+     */
+    private static final native JavaScriptObject tags()
+    /*-{
+		return {
+			VERSION : 2,
+			NULL : 0,
+			FALSE : 1,
+			TRUE : 2,
+			INT : 3,
+			F32 : 4,
+			F64 : 5,
+			STR : 6,
+			STR_NEW : 7,
+			OBJ : 8,
+			ARR : 9,
+			INTS : 10,
+			NUMS : 11,
+			INT_POINTS : 12,
+			NUM_POINTS : 13
+		};
+    }-*/;
+
+    private static final native Uint8Array encode(JavaScriptObject T, JavaScriptObject root)
+    /*-{
+		var LIMIT = 140737488355328;// 2^47, so zig-zag values stay exact
+
+		var f32 = (typeof Math.fround === 'function') ? Math.fround : null;
+
+		var enc = (typeof TextEncoder === 'function') ? new TextEncoder() : null;
+
+		var buf = new Uint8Array(4096);
+
+		var view = new DataView(buf.buffer);
+
+		var pos = 0;
+
+		var keys = Object.create(null), nkey = 0;
+
+		var strs = Object.create(null), nstr = 0;
+
+		function room(n) {
+			if ((pos + n) > buf.length) {
+				var size = buf.length * 2;
+
+				while ((pos + n) > size) {
+					size *= 2;
+				}
+				var next = new Uint8Array(size);
+
+				next.set(buf.subarray(0, pos));
+
+				buf = next;
+
+				view = new DataView(buf.buffer);
+			}
+		}
+		function u8(b) {
+			room(1);
+
+			buf[pos++] = b;
+		}
+		function uint(v) {
+			room(10);
+
+			while (v >= 128) {
+				buf[pos++] = (v % 128) + 128;
+
+				v = Math.floor(v / 128);
+			}
+			buf[pos++] = v;
+		}
+		function sint(v) {
+			uint((v >= 0) ? (v * 2) : ((-v * 2) - 1));
+		}
+		function isint(v) {
+			return (v === Math.floor(v)) && (v >= -LIMIT) && (v <= LIMIT) && ((v !== 0) || ((1 / v) > 0));
+		}
+		function width(v, w) {
+			return ((w === T.F32) && f32 && (f32(v) === v)) ? T.F32 : T.F64;
+		}
+		function real(w, v) {
+			if (w === T.F32) {
+				room(4);
+
+				view.setFloat32(pos, v);
+
+				pos += 4;
+			} else {
+				room(8);
+
+				view.setFloat64(pos, v);
+
+				pos += 8;
+			}
+		}
+		function number(v) {
+			if (isint(v)) {
+				u8(T.INT);
+
+				sint(v);
+			} else {
+				var w = width(v, T.F32);
+
+				u8(w);
+
+				real(w, v);
+			}
+		}
+		function text(s) {
+			var a;
+
+			if (enc) {
+				a = enc.encode(s);
+			} else {
+				var b = unescape(encodeURIComponent(s));
+
+				a = new Uint8Array(b.length);
+
+				for (var i = 0; i < b.length; i++) {
+					a[i] = b.charCodeAt(i);
+				}
+			}
+			uint(a.length);
+
+			room(a.length);
+
+			buf.set(a, pos);
+
+			pos += a.length;
+		}
+		function string(s) {
+			var i = strs[s];
+
+			if (i !== undefined) {
+				u8(T.STR);
+
+				uint(i);
+			} else {
+				strs[s] = nstr++;
+
+				u8(T.STR_NEW);
+
+				text(s);
+			}
+		}
+		function key(k) {
+			var i = keys[k];
+
+			if (i !== undefined) {
+				uint(i + 1);
+			} else {
+				keys[k] = nkey++;
+
+				uint(0);
+
+				text(k);
+			}
+		}
+		function skip(v) {
+			return (v === undefined) || (typeof v === 'function');
+		}
+		function object(o) {
+			var names = Object.keys(o), list = [];
+
+			for (var i = 0; i < names.length; i++) {
+				if (!skip(o[names[i]])) {
+					list.push(names[i]);
+				}
+			}
+			u8(T.OBJ);
+
+			uint(list.length);
+
+			for (var i = 0; i < list.length; i++) {
+				key(list[i]);
+
+				value(o[list[i]]);
+			}
+		}
+		function ispoint(p) {
+			if ((p === null) || (typeof p !== 'object') || Array.isArray(p) || (typeof p.x !== 'number') || (typeof p.y !== 'number')) {
+				return false;
+			}
+			return (Object.keys(p).length === 2);
+		}
+		function array(a) {
+			var n = a.length, nums = (n > 1), ints = nums, pnts = (n > 0), pint = pnts;
+
+			for (var i = 0; (i < n) && (nums || pnts); i++) {
+				var v = a[i];
+
+				if (nums) {
+					nums = (typeof v === 'number');
+
+					ints = nums && ints && isint(v);
+				}
+				if (pnts) {
+					pnts = ispoint(v);
+
+					pint = pnts && pint && isint(v.x) && isint(v.y);
+				}
+			}
+			if (nums && ints) {
+				u8(T.INTS);
+
+				uint(n);
+
+				var prev = 0;
+
+				for (var i = 0; i < n; i++) {
+					sint(a[i] - prev);
+
+					prev = a[i];
+				}
+			} else if (nums) {
+				var w = T.F32;
+
+				for (var i = 0; (i < n) && (w === T.F32); i++) {
+					w = width(a[i], w);
+				}
+				u8(T.NUMS);
+
+				uint(n);
+
+				u8(w);
+
+				for (var i = 0; i < n; i++) {
+					real(w, a[i]);
+				}
+			} else if (pint) {
+				u8(T.INT_POINTS);
+
+				uint(n);
+
+				var px = 0, py = 0;
+
+				for (var i = 0; i < n; i++) {
+					var p = a[i];
+
+					sint(p.x - px);
+
+					sint(p.y - py);
+
+					px = p.x;
+
+					py = p.y;
+				}
+			} else if (pnts) {
+				var w = T.F32;
+
+				for (var i = 0; (i < n) && (w === T.F32); i++) {
+					w = width(a[i].y, width(a[i].x, w));
+				}
+				u8(T.NUM_POINTS);
+
+				uint(n);
+
+				u8(w);
+
+				for (var i = 0; i < n; i++) {
+					real(w, a[i].x);
+
+					real(w, a[i].y);
+				}
+			} else {
+				u8(T.ARR);
+
+				uint(n);
+
+				for (var i = 0; i < n; i++) {
+					value(a[i]);
+				}
+			}
+		}
+		function value(v) {
+			if ((v === null) || skip(v)) {
+				u8(T.NULL);
+			} else if (typeof v === 'boolean') {
+				u8(v ? T.TRUE : T.FALSE);
+			} else if (typeof v === 'number') {
+				number(v);
+			} else if (typeof v === 'string') {
+				string(v);
+			} else if (Array.isArray(v)) {
+				array(v);
+			} else {
+				object(v);
+			}
+		}
+		u8(76);// L
+
+		u8(90);// Z
+
+		u8(66);// B
+
+		u8(T.VERSION);
+
+		value(root);
+
+		return new Uint8Array(buf.subarray(0, pos));
+    }-*/;
+
+    private static final native JavaScriptObject decode(JavaScriptObject T, Uint8Array bytes)
+    /*-{
+		var dec = (typeof TextDecoder === 'function') ? new TextDecoder() : null;
+
+		var size = bytes.length;
+
+		if ((size < 5) || (bytes[0] !== 76) || (bytes[1] !== 90) || (bytes[2] !== 66) || (bytes[3] !== T.VERSION)) {
+			return null;
+		}
+		var view = new DataView(bytes.buffer, bytes.byteOffset, bytes.byteLength);
+
+		var pos = 4;
+
+		var keys = [], strs = [];
+
+		function need(n) {
+			if ((pos + n) > size) {
+				throw new Error("truncated");
+			}
+		}
+		function u8() {
+			need(1);
+
+			return bytes[pos++];
+		}
+		function uint() {
+			var v = 0, m = 1, b;
+
+			do {
+				b = u8();
+
+				v += (b % 128) * m;
+
+				m *= 128;
+			} while (b >= 128);
+
+			return v;
+		}
+		function sint() {
+			var v = uint();
+
+			return ((v % 2) === 0) ? (v / 2) : (-(v + 1) / 2);
+		}
+		function text() {
+			var n = uint(), s;
+
+			need(n);
+
+			if (dec) {
+				s = dec.decode(bytes.subarray(pos, pos + n));
+			} else {
+				var b = '';
+
+				for (var i = 0; i < n; i++) {
+					b += String.fromCharCode(bytes[pos + i]);
+				}
+				s = decodeURIComponent(escape(b));
+			}
+			pos += n;
+
+			return s;
+		}
+		function real(w) {
+			var v;
+
+			if (w === T.F32) {
+				need(4);
+
+				v = view.getFloat32(pos);
+
+				pos += 4;
+
+				return v;
+			}
+			if (w === T.F64) {
+				need(8);
+
+				v = view.getFloat64(pos);
+
+				pos += 8;
+
+				return v;
+			}
+			throw new Error("bad width " + w);
+		}
+		function key() {
+			var i = uint();
+
+			if (i === 0) {
+				var k = text();
+
+				keys.push(k);
+
+				return k;
+			}
+			if (i > keys.length) {
+				throw new Error("bad key");
+			}
+			return keys[i - 1];
+		}
+		function value() {
+			var t = u8(), v, n, i, w;
+
+			switch (t) {
+			case T.NULL:
+				return null;
+			case T.FALSE:
+				return false;
+			case T.TRUE:
+				return true;
+			case T.INT:
+				return sint();
+			case T.F32:
+			case T.F64:
+				return real(t);
+			case T.STR:
+				i = uint();
+
+				if (i >= strs.length) {
+					throw new Error("bad string");
+				}
+				return strs[i];
+			case T.STR_NEW:
+				v = text();
+
+				strs.push(v);
+
+				return v;
+			case T.OBJ:
+				n = uint();
+
+				v = {};
+
+				for (i = 0; i < n; i++) {
+					var k = key();
+
+					v[k] = value();
+				}
+				return v;
+			case T.ARR:
+				n = uint();
+
+				v = [];
+
+				for (i = 0; i < n; i++) {
+					v.push(value());
+				}
+				return v;
+			case T.INTS:
+				n = uint();
+
+				v = [];
+
+				var prev = 0;
+
+				for (i = 0; i < n; i++) {
+					prev += sint();
+
+					v.push(prev);
+				}
+				return v;
+			case T.NUMS:
+				n = uint();
+
+				w = u8();
+
+				v = [];
+
+				for (i = 0; i < n; i++) {
+					v.push(real(w));
+				}
+				return v;
+			case T.INT_POINTS:
+				n = uint();
+
+				v = [];
+
+				var px = 0, py = 0;
+
+				for (i = 0; i < n; i++) {
+					px += sint();
+
+					py += sint();
+
+					v.push({
+						x : px,
+						y : py
+					});
+				}
+				return v;
+			case T.NUM_POINTS:
+				n = uint();
+
+				w = u8();
+
+				v = [];
+
+				for (i = 0; i < n; i++) {
+					var x = real(w);
+
+					v.push({
+						x : x,
+						y : real(w)
+					});
+				}
+				return v;
+			}
+			throw new Error("bad tag " + t);
+		}
+		try {
+			var root = value();
+
+			if ((root !== null) && (typeof root === 'object') && (!Array.isArray(root))) {
+				return root;
+			}
+		} catch (e) {
+		}
+		return null;
+    }-*/;
+}
@@ -31,10 +31,10 @@ import com.ait.lienzo.client.core.shape.Node;
 import com.ait.lienzo.client.core.shape.json.validators.ValidationContext;
 import com.ait.lienzo.client.core.shape.json.validators.ValidationException;
 import com.ait.tooling.common.api.java.util.StringOps;
+import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.json.client.JSONArray;
 import com.google.gwt.json.client.JSONObject;
 import com.google.gwt.json.client.JSONParser;
-import com.google.gwt.json.client.JSONString;
 import com.google.gwt.json.client.JSONValue;
 
 /**
@@ -183,6 +183,58 @@ public final class JSONDeserializer
         }
     }
 
+    /**
+     * Parses the JSON string and returns the IJSONSerializable, for loading large documents.
+     * <p>
+     * The string is parsed once into native objects and the nodes are built straight from them, the factories read them through
+     * {@link JSONObject} wrappers which don't copy them, and are resolved through the table of registered types in {@link LienzoCore}. Validation follows the {@link JSONLoadContext}, by default only the first node of each type
+     * is validated. The context is reset first, and holds the load statistics afterwards.
+     *
+     * @param string JSON string as produced by {@link IJSONSerializable#toJSONString()}
+     * @param ctx JSONLoadContext
+     * @return IJSONSerializable, or null if there were errors, see {@link JSONLoadContext#getErrors()}
+     */
+    public final IJSONSerializable<?> load(String string, final JSONLoadContext ctx)
+    {
+        ctx.reset();
+
+        try
+        {
+            if (null == (string = StringOps.toTrimOrNull(string)))
+            {
+                ctx.addError("NULL JSON String");
+
+                return null;
+            }
+            long time = System.currentTimeMillis();
+
+            final JavaScriptObject jso = parse(string);
+
+            ctx.setParseTime(System.currentTimeMillis() - time);
+
+            if (null == jso)
+            {
+                ctx.addError("Result is not a JSONObject");
+
+                return null;
+            }
+            time = System.currentTimeMillis();
+
+            try
+            {
+                return fromJSON(new JSONObject(jso), ctx);
+            }
+            finally
+            {
+                ctx.setBuildTime(System.currentTimeMillis() - time);
+            }
+        }
+        catch (ValidationException e)
+        {
+            return null;
+        }
+    }
+
     /**
      * Creates a IJSONSerializable from the JSONObject, using the ValidationContext.
      * <p>
@@ -200,36 +252,30 @@ public final class JSONDeserializer
         {
             return null;
         }
-        String type = null;
+        final String type = getTypeName(json.getJavaScriptObject());
 
         IFactory<?> factory = null;
 
-        final JSONValue tval = json.get("type");
-
         ctx.push("type");
 
-        if (null == tval)
-        {
-            ctx.addRequiredError();
-        }
-        else
+        if (null == type)
         {
-            final JSONString styp = tval.isString();
-
-            if (null == styp)
+            if (null == json.get("type"))
             {
-                ctx.addBadTypeError("String");
+                ctx.addRequiredError();
             }
             else
             {
-                type = styp.stringValue();
-
-                factory = LienzoCore.get().getFactory(type);
+                ctx.addBadTypeError("String");
+            }
+        }
+        else
+        {
+            factory = LienzoCore.get().getFactory(type);
 
-                if (null == factory)
-                {
-                    ctx.addMissingNodeFactoryError(type);
-                }
+            if (null == factory)
+            {
+                ctx.addMissingNodeFactoryError(type);
             }
         }
         ctx.pop();// type
@@ -240,7 +286,9 @@ public final class JSONDeserializer
         }
         else
         {
-            if (ctx.isValidate())
+            final boolean validate = (ctx instanceof JSONLoadContext) ? ((JSONLoadContext) ctx).count(type) : ctx.isValidate();
+
+            if (validate)
             {
                 // we don't need to validate during a copy operation!
 
@@ -263,6 +311,29 @@ public final class JSONDeserializer
         }
     }
 
+    private static final native String getTypeName(JavaScriptObject jso)
+    /*-{
+		var type = jso.type;
+
+		if (typeof type === 'string') {
+			return type;
+		}
+		return null;
+    }-*/;
+
+    private static final native JavaScriptObject parse(String string)
+    /*-{
+		try {
+			var json = $wnd.JSON.parse(string);
+
+			if ((json !== null) && (typeof json === 'object') && (!Array.isArray(json))) {
+				return json;
+			}
+		} catch (e) {
+		}
+		return null;
+    }-*/;
+
     protected final void validateAttributes(final JSONObject json, final IFactory<?> factory, final String type, final ValidationContext ctx) throws ValidationException
     {
         final JSONValue aval = json.get("attributes");
@@ -0,0 +1,195 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.shape.json;
+
+import java.util.Collection;
+
+import com.ait.lienzo.client.core.shape.json.validators.ValidationContext;
+import com.ait.tooling.nativetools.client.collection.NFastStringHistogram;
+
+/**
+ * JSONLoadContext is the {@link ValidationContext} for bulk loads with {@link JSONDeserializer#load(String, JSONLoadContext)}.
+ * <p>
+ * When validation is on and {@link #isValidateOncePerType()} is true, only the first node of each type in a load has its attributes
+ * validated, the remaining nodes of that type are trusted. It also keeps statistics about the last load.
+ * <pre>
+ * JSONLoadContext ctx = new JSONLoadContext();
+ * IJSONSerializable&lt;?&gt; node = JSONDeserializer.get().load(jsonString, ctx);
+ * Console.log(ctx.getNodeCount() + " nodes in " + ctx.getLoadTime() + "ms");
+ * </pre>
+ */
+public class JSONLoadContext extends ValidationContext
+{
+    private boolean                    m_once      = true;
+
+    private long                       m_parse     = 0L;
+
+    private long                       m_build     = 0L;
+
+    private int                        m_checked   = 0;
+
+    private final NFastStringHistogram m_types     = new NFastStringHistogram();
+
+    private final NFastStringHistogram m_validated = new NFastStringHistogram();
+
+    public JSONLoadContext()
+    {
+        setStopOnError(true);
+    }
+
+    /**
+     * Returns whether only the first node of each type is validated.
+     *
+     * @return boolean
+     */
+    public boolean isValidateOncePerType()
+    {
+        return m_once;
+    }
+
+    /**
+     * Sets whether only the first node of each type is validated, the default is true.
+     *
+     * @param once
+     * @return this JSONLoadContext
+     */
+    public JSONLoadContext setValidateOncePerType(final boolean once)
+    {
+        m_once = once;
+
+        return this;
+    }
+
+    /**
+     * Clears the errors and the statistics, this is done at the start of each load.
+     *
+     * @return this JSONLoadContext
+     */
+    public JSONLoadContext reset()
+    {
+        clear();
+
+        m_parse = 0L;
+
+        m_build = 0L;
+
+        m_checked = 0;
+
+        m_types.clear();
+
+        m_validated.clear();
+
+        return this;
+    }
+
+    /**
+     * Returns the number of nodes, filters and palette items built.
+     *
+     * @return int
+     */
+    public int getNodeCount()
+    {
+        return m_types.total();
+    }
+
+    /**
+     * Returns the number of nodes built with the given type.
+     *
+     * @param type
+     * @return int
+     */
+    public int getNodeCount(final String type)
+    {
+        return m_types.total(type);
+    }
+
+    /**
+     * Returns the distinct types that were built.
+     *
+     * @return Collection<String>
+     */
+    public Collection<String> getTypes()
+    {
+        return m_types.keys();
+    }
+
+    /**
+     * Returns the number of nodes whose attributes were validated.
+     *
+     * @return int
+     */
+    public int getValidatedCount()
+    {
+        return m_checked;
+    }
+
+    /**
+     * Returns the milliseconds spent parsing the JSON string.
+     *
+     * @return long
+     */
+    public long getParseTime()
+    {
+        return m_parse;
+    }
+
+    /**
+     * Returns the milliseconds spent building the nodes.
+     *
+     * @return long
+     */
+    public long getBuildTime()
+    {
+        return m_build;
+    }
+
+    public long getLoadTime()
+    {
+        return m_parse + m_build;
+    }
+
+    final void setParseTime(final long time)
+    {
+        m_parse = time;
+    }
+
+    final void setBuildTime(final long time)
+    {
+        m_build = time;
+    }
+
+    final boolean count(final String type)
+    {
+        m_types.inc(type);
+
+        if (false == isValidate())
+        {
+            return false;
+        }
+        if (m_once)
+        {
+            if (m_validated.contains(type))
+            {
+                return false;
+            }
+            m_validated.inc(type);
+        }
+        m_checked++;
+
+        return true;
+    }
+}
@@ -83,6 +83,16 @@ public class ValidationContext
         m_stack.remove(m_stack.size() - 1);
     }
 
+    /**
+     * Clears the errors and the context stack, so the context can be used again.
+     */
+    protected void clear()
+    {
+        m_stack.clear();
+
+        m_errors.clear();
+    }
+
     /**
      * Adds a ValidationError.
      * 
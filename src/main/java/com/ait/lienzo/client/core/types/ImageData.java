@@ -18,6 +18,7 @@ package com.ait.lienzo.client.core.types;
 
 import com.ait.lienzo.client.core.Context2D;
 import com.ait.lienzo.client.core.util.ScratchPad;
+import com.ait.lienzo.client.core.util.ScratchPadPool;
 import com.google.gwt.canvas.dom.client.CanvasPixelArray;
 import com.google.gwt.core.client.JavaScriptObject;
 
@@ -50,11 +51,20 @@ public final class ImageData extends JavaScriptObject
      */
     public final ImageData copy()
     {
-        final Context2D context = new ScratchPad(getWidth(), getHeight()).getContext();
+        final ScratchPad temp = ScratchPadPool.get().acquire(getWidth(), getHeight());
 
-        context.putImageData(this, 0, 0);
+        try
+        {
+            final Context2D context = temp.getContext();
 
-        return context.getImageData(0, 0, getWidth(), getHeight());
+            context.putImageData(this, 0, 0);
+
+            return context.getImageData(0, 0, getWidth(), getHeight());
+        }
+        finally
+        {
+            ScratchPadPool.get().release(temp);
+        }
     }
 
     public final ImageData create()
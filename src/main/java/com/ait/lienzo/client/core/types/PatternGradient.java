@@ -16,8 +16,11 @@
 
 package com.ait.lienzo.client.core.types;
 
+import com.ait.lienzo.client.core.types.Transform.TransformJSO;
 import com.ait.lienzo.client.core.util.ScratchPad;
 import com.ait.lienzo.shared.core.types.FillRepeat;
+import com.google.gwt.dom.client.CanvasElement;
+import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.ImageElement;
 import com.google.gwt.json.client.JSONObject;
 
@@ -45,6 +48,45 @@ public final class PatternGradient implements FillGradient
         this(PatternGradientJSO.make(image, ScratchPad.toDataURL(image), repeat.getValue()));
     }
 
+    /**
+     * Creates a PatternGradient directly from a canvas, i.e. a {@link ScratchPad}, without encoding it as a data URL.
+     * Such a PatternGradient is meant for drawing and has no source to serialize.
+     * 
+     * @param canvas
+     * @param repeat
+     */
+    public PatternGradient(final CanvasElement canvas, final FillRepeat repeat)
+    {
+        this(PatternGradientJSO.make(canvas, null, repeat.getValue()));
+    }
+
+    /**
+     * Returns true if the browser can transform patterns, see {@link #setTransform(Transform)}
+     * 
+     * @return boolean
+     */
+    public static final native boolean isTransformSupported()
+    /*-{
+		if (($wnd.CanvasPattern) && ($wnd.DOMMatrix)) {
+			return !!$wnd.CanvasPattern.prototype.setTransform;
+		}
+		return false;
+    }-*/;
+
+    /**
+     * Sets the transform from pattern space to the user space the pattern is filled in.
+     * Ignored by browsers where {@link #isTransformSupported()} is false.
+     * 
+     * @param transform
+     * @return this PatternGradient
+     */
+    public PatternGradient setTransform(final Transform transform)
+    {
+        m_jso.setTransform((null == transform) ? null : transform.getJSO());
+
+        return this;
+    }
+
     @Override
     public LinearGradient asLinearGradient()
     {
@@ -121,7 +163,7 @@ public final class PatternGradient implements FillGradient
         {
         }
 
-        public static final native PatternGradientJSO make(ImageElement e, String s, String r)
+        public static final native PatternGradientJSO make(Element e, String s, String r)
         /*-{
 			var self = {};
 			self.src = s;
@@ -142,5 +184,16 @@ public final class PatternGradient implements FillGradient
         /*-{
 			return this.repeat;
         }-*/;
+
+        public final native void setTransform(TransformJSO t)
+        /*-{
+			if (t) {
+				this.transform = function() {
+					return t;
+				};
+			} else {
+				delete this.transform;
+			}
+        }-*/;
     }
 }
@@ -16,11 +16,13 @@
 
 package com.ait.lienzo.client.core.types;
 
+import java.util.ArrayList;
 import java.util.Collection;
 
 import com.ait.lienzo.client.core.types.BoundingBox.BoundingBoxJSO;
 import com.ait.tooling.common.api.java.util.StringOps;
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.json.client.JSONObject;
 
 public final class SpriteBehaviorMap
@@ -119,6 +121,24 @@ public final class SpriteBehaviorMap
         return null;
     }
 
+    /**
+     * Returns the names of the behaviors, in the order they were added.
+     *
+     * @return Collection
+     */
+    public final Collection<String> getBehaviors()
+    {
+        final JsArrayString keys = m_jso.keys();
+
+        final ArrayList<String> list = new ArrayList<String>(keys.length());
+
+        for (int i = 0; i < keys.length(); i++)
+        {
+            list.add(keys.get(i));
+        }
+        return list;
+    }
+
     public final String toJSONString()
     {
         return new JSONObject(m_jso).toString();
@@ -170,6 +190,11 @@ public final class SpriteBehaviorMap
         /*-{
 			this[behavior] = valu;
         }-*/;
+
+        final native JsArrayString keys()
+        /*-{
+			return Object.keys(this);
+        }-*/;
     }
 
     private static final class BoundingBoxArrayJSO extends JavaScriptObject
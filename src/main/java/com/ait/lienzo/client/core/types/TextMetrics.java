@@ -90,4 +90,40 @@ public final class TextMetrics extends JavaScriptObject
 		}
 		return 0;
     }-*/;
+
+    /**
+     * Returns true if the browser reports the actual bounding box of the measured text.
+     * 
+     * @return boolean
+     */
+    public final native boolean isActualBoundingBoxSupported()
+    /*-{
+		return (((typeof this.actualBoundingBoxAscent) === 'number') && ((typeof this.actualBoundingBoxDescent) === 'number'));
+    }-*/;
+
+    /**
+     * Return the distance from the text baseline to the top of the inked glyphs.
+     * 
+     * @return the ascent, or 0 if not supported
+     */
+    public final native double getActualBoundingBoxAscent()
+    /*-{
+		if (this.actualBoundingBoxAscent !== undefined) {
+			return this.actualBoundingBoxAscent;
+		}
+		return 0;
+    }-*/;
+
+    /**
+     * Return the distance from the text baseline to the bottom of the inked glyphs.
+     * 
+     * @return the descent, or 0 if not supported
+     */
+    public final native double getActualBoundingBoxDescent()
+    /*-{
+		if (this.actualBoundingBoxDescent !== undefined) {
+			return this.actualBoundingBoxDescent;
+		}
+		return 0;
+    }-*/;
 }
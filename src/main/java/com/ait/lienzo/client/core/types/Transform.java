@@ -307,6 +307,33 @@ public final class Transform
         m_jso.transform(ptSrc.getJSO(), ptDst.getJSO());
     }
 
+    /**
+     * Returns the bounds of the four corners of the given box once transformed, so they hold the box even when rotated or sheared.
+     *
+     * @param bbox
+     * @return a new BoundingBox
+     */
+    public final BoundingBox transform(final BoundingBox bbox)
+    {
+        final Point2D a = new Point2D(bbox.getMinX(), bbox.getMinY());
+
+        final Point2D b = new Point2D(bbox.getMaxX(), bbox.getMinY());
+
+        final Point2D c = new Point2D(bbox.getMaxX(), bbox.getMaxY());
+
+        final Point2D d = new Point2D(bbox.getMinX(), bbox.getMaxY());
+
+        transform(a, a);
+
+        transform(b, b);
+
+        transform(c, c);
+
+        transform(d, d);
+
+        return new BoundingBox(a, b, c, d);
+    }
+
     /**
      * Concatenates this transform with a translation, a rotation and another translation transformation, 
      * resulting in an scaling with respect to the specified point (x,y).
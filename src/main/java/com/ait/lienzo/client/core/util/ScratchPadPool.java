@@ -0,0 +1,96 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.util;
+
+import com.ait.lienzo.client.core.Context2D;
+import com.ait.lienzo.shared.core.types.CompositeOperation;
+
+/**
+ * ScratchPadPool is a shared pool of {@link ScratchPad} canvases, so short lived off-screen work borrows
+ * a canvas instead of allocating a new backing store each time.
+ * <p>
+ * Pads are bucketed by size class, so an acquired pad may be larger than requested; callers must only
+ * use the top left region they asked for. Released pads are kept idle for reuse, and the least recently
+ * released idle pads are discarded whenever the bytes of all pads handed out plus all idle pads exceed the memory budget.
+ * <p>
+ * Pads handed out can only be discarded by whoever holds them. Caches of pads they can rebuild register as a {@link Holder},
+ * and are asked in turn to give pads back once no idle pads are left to discard and the pool is still over budget.
+ */
+public final class ScratchPadPool extends SizeClassPool<ScratchPad, ScratchPadPool>
+{
+    public static final long            DEFAULT_MEMORY_BUDGET = 32L * 1024L * 1024L;
+
+    private static final ScratchPadPool INSTANCE              = new ScratchPadPool();
+
+    public static final ScratchPadPool get()
+    {
+        return INSTANCE;
+    }
+
+    private ScratchPadPool()
+    {
+        super(DEFAULT_MEMORY_BUDGET);
+    }
+
+    @Override
+    protected final ScratchPad create(final int wide, final int high)
+    {
+        return new ScratchPad(wide, high);
+    }
+
+    /**
+     * Clears the pad, with an identity transform.
+     */
+    @Override
+    protected final void reset(final ScratchPad spad)
+    {
+        final Context2D context = spad.getContext();
+
+        if (null != context)
+        {
+            context.setTransform(1, 0, 0, 1, 0, 0);
+
+            context.setGlobalAlpha(1);
+
+            context.setGlobalCompositeOperation(CompositeOperation.SOURCE_OVER);
+        }
+        spad.clear();
+    }
+
+    @Override
+    protected final void shrink(final ScratchPad spad)
+    {
+        // shrinking the canvas releases its backing store right away, instead of waiting for the element to be collected
+
+        if (null != spad.getElement())
+        {
+            spad.setPixelSize(0, 0);
+        }
+    }
+
+    @Override
+    protected final int getWidth(final ScratchPad spad)
+    {
+        return spad.getWidth();
+    }
+
+    @Override
+    protected final int getHeight(final ScratchPad spad)
+    {
+        return spad.getHeight();
+    }
+}
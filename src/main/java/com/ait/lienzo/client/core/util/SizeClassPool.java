@@ -0,0 +1,400 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * SizeClassPool keeps the accounting of a pool of off-screen surfaces, i.e. the {@link ScratchPad}s of {@link ScratchPadPool},
+ * apart from the surfaces themselves, which subclasses create, reset and shrink.
+ * <p>
+ * Surfaces are bucketed by size class, and each one handed out is accounted at the bytes of its size class until it is
+ * given back. Released surfaces are kept idle for reuse, the least recently released first discarded whenever the bytes
+ * in use plus the idle bytes exceed the memory budget, after which the registered {@link Holder}s are asked in turn.
+ */
+abstract class SizeClassPool<T, P extends SizeClassPool<T, P>>
+{
+    private static final int                     MINIMUM_CLASS_SIZE = 32;
+
+    private static final int                     LINEAR_CLASS_SIZE  = 256;
+
+    private long                                 m_budget;
+
+    private long                                 m_used             = 0L;
+
+    private long                                 m_idle             = 0L;
+
+    private long                                 m_acquired         = 0L;
+
+    private long                                 m_hits             = 0L;
+
+    private long                                 m_miss             = 0L;
+
+    private long                                 m_evicted          = 0L;
+
+    private final HashMap<String, ArrayList<T>>  m_free             = new HashMap<String, ArrayList<T>>();
+
+    private final LinkedHashMap<T, String>       m_order            = new LinkedHashMap<T, String>();
+
+    private final HashMap<T, Long>               m_sizes            = new HashMap<T, Long>();
+
+    private final ArrayList<Holder>              m_holders          = new ArrayList<Holder>();
+
+    private boolean                              m_trimming         = false;
+
+    protected SizeClassPool(final long budget)
+    {
+        m_budget = Math.max(0L, budget);
+    }
+
+    protected abstract T create(int wide, int high);
+
+    /**
+     * Readies an idle surface to be handed out again.
+     */
+    protected abstract void reset(T item);
+
+    /**
+     * Releases the memory of a surface the pool no longer keeps.
+     */
+    protected abstract void shrink(T item);
+
+    protected abstract int getWidth(T item);
+
+    protected abstract int getHeight(T item);
+
+    /**
+     * Returns a surface that is at least wide x high pixels, in the size class for both.
+     * It must be given back with {@link #release(Object)} once it is no longer needed.
+     *
+     * @param wide
+     * @param high
+     * @return T
+     */
+    public final T acquire(final int wide, final int high)
+    {
+        final int cwide = getSizeClass(wide);
+
+        final int chigh = getSizeClass(high);
+
+        final String key = getKey(cwide, chigh);
+
+        final long size = getBytes(cwide, chigh);
+
+        m_acquired++;
+
+        final ArrayList<T> list = m_free.get(key);
+
+        T item = ((null != list) && (false == list.isEmpty())) ? list.remove(list.size() - 1) : null;
+
+        if (null != item)
+        {
+            m_hits++;
+
+            m_order.remove(item);
+
+            m_idle -= size;
+
+            reset(item);
+        }
+        else
+        {
+            m_miss++;
+
+            item = create(cwide, chigh);
+        }
+        m_sizes.put(item, size);
+
+        m_used += size;
+
+        trim();
+
+        return item;
+    }
+
+    /**
+     * Gives back a surface obtained from {@link #acquire(int, int)}. The surface must not be used afterwards.
+     *
+     * @param item
+     */
+    public final void release(final T item)
+    {
+        if ((null == item) || (m_order.containsKey(item)))
+        {
+            return;
+        }
+        final Long size = m_sizes.remove(item);
+
+        if (null == size)
+        {
+            return;// not acquired from this pool, or already given back
+        }
+        m_used = Math.max(0L, m_used - size);
+
+        final int wide = getWidth(item);
+
+        final int high = getHeight(item);
+
+        // a surface resized while it was out is no longer in the size class it was acquired for, so it isn't reused
+
+        if ((wide != getSizeClass(wide)) || (high != getSizeClass(high)) || (getBytes(wide, high) != size))
+        {
+            shrink(item);
+
+            return;
+        }
+        final String key = getKey(wide, high);
+
+        ArrayList<T> list = m_free.get(key);
+
+        if (null == list)
+        {
+            m_free.put(key, list = new ArrayList<T>());
+        }
+        list.add(item);
+
+        m_order.put(item, key);
+
+        m_idle += size;
+
+        trim();
+    }
+
+    /**
+     * Gives back a surface obtained from {@link #acquire(int, int)} without keeping it for reuse,
+     * i.e. when it was tainted by cross-origin content.
+     *
+     * @param item
+     */
+    public final void discard(final T item)
+    {
+        if ((null == item) || (m_order.containsKey(item)))
+        {
+            return;
+        }
+        final Long size = m_sizes.remove(item);
+
+        if (null != size)
+        {
+            m_used = Math.max(0L, m_used - size);
+        }
+        shrink(item);
+    }
+
+    /**
+     * Discards all idle surfaces.
+     *
+     * @return this pool
+     */
+    public final P clear()
+    {
+        for (T item : m_order.keySet())
+        {
+            shrink(item);
+        }
+        m_order.clear();
+
+        m_free.clear();
+
+        m_idle = 0L;
+
+        return self();
+    }
+
+    /**
+     * Registers a cache of surfaces to be asked to give some back when the pool is over budget.
+     *
+     * @param holder
+     * @return this pool
+     */
+    public final P addHolder(final Holder holder)
+    {
+        if ((null != holder) && (false == m_holders.contains(holder)))
+        {
+            m_holders.add(holder);
+        }
+        return self();
+    }
+
+    public final P removeHolder(final Holder holder)
+    {
+        if (null != holder)
+        {
+            m_holders.remove(holder);
+        }
+        return self();
+    }
+
+    public final P setMemoryBudget(final long budget)
+    {
+        m_budget = Math.max(0L, budget);
+
+        trim();
+
+        return self();
+    }
+
+    public final long getMemoryBudget()
+    {
+        return m_budget;
+    }
+
+    /**
+     * Returns the bytes of the surfaces currently acquired and not yet given back.
+     */
+    public final long getMemoryInUse()
+    {
+        return m_used;
+    }
+
+    /**
+     * Returns the bytes of the idle surfaces kept for reuse.
+     */
+    public final long getMemoryIdle()
+    {
+        return m_idle;
+    }
+
+    public final int getIdleCount()
+    {
+        return m_order.size();
+    }
+
+    public final long getAcquireCount()
+    {
+        return m_acquired;
+    }
+
+    public final long getHitCount()
+    {
+        return m_hits;
+    }
+
+    public final long getMissCount()
+    {
+        return m_miss;
+    }
+
+    public final long getEvictionCount()
+    {
+        return m_evicted;
+    }
+
+    /**
+     * Returns the size class for a dimension, powers of two up to 256 pixels, then multiples of 256 pixels.
+     *
+     * @param size
+     * @return int
+     */
+    public static final int getSizeClass(final int size)
+    {
+        if (size <= MINIMUM_CLASS_SIZE)
+        {
+            return MINIMUM_CLASS_SIZE;
+        }
+        if (size <= LINEAR_CLASS_SIZE)
+        {
+            int clas = MINIMUM_CLASS_SIZE;
+
+            while (clas < size)
+            {
+                clas *= 2;
+            }
+            return clas;
+        }
+        return ((size + LINEAR_CLASS_SIZE - 1) / LINEAR_CLASS_SIZE) * LINEAR_CLASS_SIZE;
+    }
+
+    private final void trim()
+    {
+        // holders give surfaces back through release(), which must not trim again while they do
+
+        if (((m_used + m_idle) <= m_budget) || (m_trimming))
+        {
+            return;
+        }
+        m_trimming = true;
+
+        evict();
+
+        final int size = m_holders.size();
+
+        for (int i = 0; ((i < size) && ((m_used + m_idle) > m_budget)); i++)
+        {
+            m_holders.get(i).trim((m_used + m_idle) - m_budget);
+
+            evict();
+        }
+        m_trimming = false;
+    }
+
+    private final void evict()
+    {
+        final Iterator<T> iter = m_order.keySet().iterator();
+
+        while (((m_used + m_idle) > m_budget) && (iter.hasNext()))
+        {
+            final T item = iter.next();
+
+            final ArrayList<T> list = m_free.get(m_order.get(item));
+
+            if (null != list)
+            {
+                list.remove(item);
+            }
+            iter.remove();
+
+            m_idle -= getBytes(getWidth(item), getHeight(item));
+
+            shrink(item);
+
+            m_evicted++;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private final P self()
+    {
+        return (P) this;
+    }
+
+    private static final String getKey(final int wide, final int high)
+    {
+        return wide + "x" + high;
+    }
+
+    private static final long getBytes(final int wide, final int high)
+    {
+        return 4L * wide * high;
+    }
+
+    /**
+     * A cache of surfaces acquired from the pool, which it can rebuild when needed again.
+     */
+    public interface Holder
+    {
+        /**
+         * Gives back the least recently used surfaces, of at least the given number of bytes if it can.
+         *
+         * @param bytes
+         */
+        public void trim(long bytes);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ImageFilterCacheTest
+{
+    @Test
+    public void testShortSourcesAreTheirOwnKey()
+    {
+        final String url = "http://example.com/images/picture.png";
+
+        assertSame(url, ImageFilterCache.getSourceKey(url));
+        assertNull(ImageFilterCache.getSourceKey(null));
+    }
+
+    @Test
+    public void testLongSourcesAreBoundedAndDistinct()
+    {
+        final String a = dataURL(4096, 'A', 'B');
+
+        final String b = dataURL(4096, 'A', 'C');
+
+        final String ka = ImageFilterCache.getSourceKey(a);
+
+        final String kb = ImageFilterCache.getSourceKey(b);
+
+        assertTrue(ka.length() < 128);
+        assertTrue(ka.startsWith(a.substring(0, 64)));
+        assertFalse(ka.equals(kb));
+        assertEquals(ka, ImageFilterCache.getSourceKey(dataURL(4096, 'A', 'B')));
+    }
+
+    @Test
+    public void testKeyHoldsTheBoundsAndSource()
+    {
+        assertEquals("1,2,3,4,5,6,@src", ImageFilterCache.getKey("src", new int[] { 1, 2, 3, 4, 5, 6 }, null));
+        assertNull(ImageFilterCache.getKey(null, new int[] { 1, 2, 3, 4, 5, 6 }, null));
+    }
+
+    private static final String dataURL(final int size, final char fill, final char last)
+    {
+        final StringBuilder builder = new StringBuilder("data:image/png;base64,");
+
+        while (builder.length() < (size - 1))
+        {
+            builder.append(fill);
+        }
+        return builder.append(last).toString();
+    }
+}
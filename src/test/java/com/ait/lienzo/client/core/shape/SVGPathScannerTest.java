@@ -0,0 +1,131 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.shape;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SVGPathScannerTest
+{
+    private static final double DELTA = 0;
+
+    @Test
+    public void testExponents()
+    {
+        final SVGPathScanner scan = new SVGPathScanner("M1e2 -2.5E-1 1.5e+3 3e400");
+
+        assertEquals('M', scan.command());
+        assertEquals(100, scan.next(), DELTA);
+        assertEquals(-0.25, scan.next(), DELTA);
+        assertEquals(1500, scan.next(), DELTA);
+        assertEquals(Double.POSITIVE_INFINITY, scan.next(), DELTA);
+        assertFalse(scan.hasNumber());
+    }
+
+    @Test
+    public void testExponentWithoutDigitsIsNotRead()
+    {
+        final SVGPathScanner scan = new SVGPathScanner("L2e L3");
+
+        assertEquals('L', scan.command());
+        assertEquals(2, scan.next(), DELTA);
+        assertFalse(scan.hasNumber());
+        assertEquals('L', scan.command());
+        assertEquals(3, scan.next(), DELTA);
+    }
+
+    @Test
+    public void testImplicitSeparators()
+    {
+        final SVGPathScanner scan = new SVGPathScanner("l10-20.5.5-.25,+3\t\n4");
+
+        assertEquals('l', scan.command());
+        assertEquals(10, scan.next(), DELTA);
+        assertEquals(-20.5, scan.next(), DELTA);
+        assertEquals(0.5, scan.next(), DELTA);
+        assertEquals(-0.25, scan.next(), DELTA);
+        assertEquals(3, scan.next(), DELTA);
+        assertEquals(4, scan.next(), DELTA);
+        assertFalse(scan.hasNumber());
+        assertEquals(0, scan.command());
+    }
+
+    @Test
+    public void testCompactArcFlags()
+    {
+        final SVGPathScanner scan = new SVGPathScanner("a25 25 -30 0110 20");
+
+        assertEquals('a', scan.command());
+        assertEquals(25, scan.next(), DELTA);
+        assertEquals(25, scan.next(), DELTA);
+        assertEquals(-30, scan.next(), DELTA);
+        assertEquals(0, scan.flag(), DELTA);
+        assertEquals(1, scan.flag(), DELTA);
+        assertEquals(10, scan.next(), DELTA);
+        assertEquals(20, scan.next(), DELTA);
+        assertFalse(scan.hasNumber());
+    }
+
+    @Test
+    public void testSeparatedArcFlags()
+    {
+        final SVGPathScanner scan = new SVGPathScanner("A5,5 0 1,0 7,8");
+
+        assertEquals('A', scan.command());
+        assertEquals(5, scan.next(), DELTA);
+        assertEquals(5, scan.next(), DELTA);
+        assertEquals(0, scan.next(), DELTA);
+        assertEquals(1, scan.flag(), DELTA);
+        assertEquals(0, scan.flag(), DELTA);
+        assertEquals(7, scan.next(), DELTA);
+        assertEquals(8, scan.next(), DELTA);
+    }
+
+    @Test
+    public void testMoveToContinuesAsLineTo()
+    {
+        assertEquals('L', SVGPathScanner.getContinuation('M'));
+        assertEquals('l', SVGPathScanner.getContinuation('m'));
+        assertEquals('L', SVGPathScanner.getContinuation('L'));
+        assertEquals('c', SVGPathScanner.getContinuation('c'));
+
+        final SVGPathScanner scan = new SVGPathScanner("m1 2 3 4z");
+
+        assertEquals('m', scan.command());
+        assertEquals(1, scan.next(), DELTA);
+        assertEquals(2, scan.next(), DELTA);
+        assertTrue(scan.hasNumber());
+        assertEquals(3, scan.next(), DELTA);
+        assertEquals(4, scan.next(), DELTA);
+        assertFalse(scan.hasNumber());
+        assertEquals('z', scan.command());
+        assertEquals(0, scan.command());
+    }
+
+    @Test
+    public void testLongNumbersMatchTheParser()
+    {
+        final SVGPathScanner scan = new SVGPathScanner("L0.1234567890123456789 1e-30");
+
+        assertEquals('L', scan.command());
+        assertEquals(Double.parseDouble("0.1234567890123456789"), scan.next(), DELTA);
+        assertEquals(1e-30, scan.next(), DELTA);
+    }
+}
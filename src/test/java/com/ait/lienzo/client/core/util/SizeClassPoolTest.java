@@ -0,0 +1,264 @@
+/*
+   Copyright (c) 2017 Ahome' Innovation Technologies. All rights reserved.
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package com.ait.lienzo.client.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SizeClassPoolTest
+{
+    private static final long BYTES_64 = 4L * 64 * 64;
+
+    @Test
+    public void testSizeClasses()
+    {
+        assertEquals(32, SizeClassPool.getSizeClass(0));
+        assertEquals(32, SizeClassPool.getSizeClass(32));
+        assertEquals(64, SizeClassPool.getSizeClass(33));
+        assertEquals(256, SizeClassPool.getSizeClass(200));
+        assertEquals(512, SizeClassPool.getSizeClass(257));
+        assertEquals(768, SizeClassPool.getSizeClass(700));
+    }
+
+    @Test
+    public void testAcquireAndReleaseMovesBytesFromUsedToIdle()
+    {
+        final TestPool pool = new TestPool(1024L * 1024L);
+
+        final Pad pad = pool.acquire(50, 60);
+
+        assertEquals(64, pad.m_wide);
+        assertEquals(64, pad.m_high);
+        assertEquals(BYTES_64, pool.getMemoryInUse());
+        assertEquals(0L, pool.getMemoryIdle());
+
+        pool.release(pad);
+
+        assertEquals(0L, pool.getMemoryInUse());
+        assertEquals(BYTES_64, pool.getMemoryIdle());
+        assertEquals(1, pool.getIdleCount());
+
+        final Pad again = pool.acquire(64, 40);
+
+        assertSame(pad, again);
+        assertTrue(again.m_reset);
+        assertEquals(BYTES_64, pool.getMemoryInUse());
+        assertEquals(0L, pool.getMemoryIdle());
+        assertEquals(2L, pool.getAcquireCount());
+        assertEquals(1L, pool.getHitCount());
+        assertEquals(1L, pool.getMissCount());
+    }
+
+    @Test
+    public void testReleasingTwiceOrAForeignPadIsIgnored()
+    {
+        final TestPool pool = new TestPool(1024L * 1024L);
+
+        final Pad pad = pool.acquire(64, 64);
+
+        pool.release(pad);
+
+        pool.release(pad);
+
+        pool.release(new Pad(64, 64));
+
+        assertEquals(0L, pool.getMemoryInUse());
+        assertEquals(BYTES_64, pool.getMemoryIdle());
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    public void testResizedPadIsAccountedAtItsAcquiredSizeAndNotPooled()
+    {
+        final TestPool pool = new TestPool(1024L * 1024L);
+
+        final Pad pad = pool.acquire(64, 64);
+
+        pad.m_wide = 0;
+
+        pad.m_high = 0;
+
+        pool.release(pad);
+
+        assertEquals(0L, pool.getMemoryInUse());
+        assertEquals(0L, pool.getMemoryIdle());
+        assertEquals(0, pool.getIdleCount());
+        assertTrue(pad.m_shrunk);
+
+        final Pad grown = pool.acquire(64, 64);
+
+        grown.m_wide = 128;
+
+        pool.release(grown);
+
+        assertEquals(0L, pool.getMemoryInUse());
+        assertEquals(0L, pool.getMemoryIdle());
+        assertNotSame(grown, pool.acquire(128, 64));
+    }
+
+    @Test
+    public void testDiscardIsNotPooled()
+    {
+        final TestPool pool = new TestPool(1024L * 1024L);
+
+        final Pad pad = pool.acquire(64, 64);
+
+        pool.discard(pad);
+
+        assertEquals(0L, pool.getMemoryInUse());
+        assertEquals(0L, pool.getMemoryIdle());
+        assertEquals(0, pool.getIdleCount());
+        assertTrue(pad.m_shrunk);
+    }
+
+    @Test
+    public void testLeastRecentlyReleasedIdlePadsAreEvictedFirst()
+    {
+        final TestPool pool = new TestPool(2 * BYTES_64);
+
+        final Pad a = pool.acquire(64, 64);
+
+        final Pad b = pool.acquire(64, 64);
+
+        pool.release(a);
+
+        pool.release(b);
+
+        assertEquals(2 * BYTES_64, pool.getMemoryIdle());
+
+        final Pad c = pool.acquire(64, 32);
+
+        assertTrue(a.m_shrunk);
+        assertFalse(b.m_shrunk);
+        assertFalse(c.m_shrunk);
+        assertEquals(1L, pool.getEvictionCount());
+        assertEquals(BYTES_64, pool.getMemoryIdle());
+        assertEquals(4L * 64 * 32, pool.getMemoryInUse());
+    }
+
+    @Test
+    public void testHoldersAreAskedOnceNoIdlePadsAreLeft()
+    {
+        final TestPool pool = new TestPool(2 * BYTES_64);
+
+        final Pad held = pool.acquire(64, 64);
+
+        final long[] asked = new long[1];
+
+        pool.addHolder(new SizeClassPool.Holder()
+        {
+            @Override
+            public void trim(final long bytes)
+            {
+                asked[0] = bytes;
+
+                pool.release(held);
+            }
+        });
+        pool.acquire(64, 64);
+
+        assertEquals(0L, asked[0]);
+
+        pool.acquire(64, 64);
+
+        assertEquals(BYTES_64, asked[0]);
+        assertEquals(2 * BYTES_64, pool.getMemoryInUse());
+        assertEquals(0L, pool.getMemoryIdle());
+        assertTrue(held.m_shrunk);
+    }
+
+    @Test
+    public void testLoweringTheBudgetEvictsIdlePads()
+    {
+        final TestPool pool = new TestPool(1024L * 1024L);
+
+        pool.release(pool.acquire(64, 64));
+
+        pool.release(pool.acquire(32, 32));
+
+        pool.setMemoryBudget(0L);
+
+        assertEquals(0L, pool.getMemoryIdle());
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(2L, pool.getEvictionCount());
+    }
+
+    private static final class Pad
+    {
+        private int     m_wide;
+
+        private int     m_high;
+
+        private boolean m_reset  = false;
+
+        private boolean m_shrunk = false;
+
+        private Pad(final int wide, final int high)
+        {
+            m_wide = wide;
+
+            m_high = high;
+        }
+    }
+
+    private static final class TestPool extends SizeClassPool<Pad, TestPool>
+    {
+        private TestPool(final long budget)
+        {
+            super(budget);
+        }
+
+        @Override
+        protected Pad create(final int wide, final int high)
+        {
+            return new Pad(wide, high);
+        }
+
+        @Override
+        protected void reset(final Pad pad)
+        {
+            pad.m_reset = true;
+        }
+
+        @Override
+        protected void shrink(final Pad pad)
+        {
+            pad.m_shrunk = true;
+
+            pad.m_wide = 0;
+
+            pad.m_high = 0;
+        }
+
+        @Override
+        protected int getWidth(final Pad pad)
+        {
+            return pad.m_wide;
+        }
+
+        @Override
+        protected int getHeight(final Pad pad)
+        {
+            return pad.m_high;
+        }
+    }
+}